@@ -0,0 +1,128 @@
+package com.flux.fluxproject.config;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtReactiveAuthenticationManager;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authenticating a bearer token with the plain JwtReactiveAuthenticationManager
+ * (RS256 verification, claim validation and authority mapping every time)
+ * against CachingJwtAuthenticationManager in front of it, wired as in
+ * SecurityConfig. Requests pick uniformly from distinctTokens valid tokens
+ * while the cache holds CACHE_SIZE of them, so 100 tokens is clients polling
+ * with the tokens they hold and 5000 is more active tokens than fit.
+ * The cache's hit rate over the trial, warmup included, is printed at the end.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CachingJwtAuthenticationManagerBenchmark {
+
+    private static final String ISSUER = "https://auth.flux.test/realms/flux";
+    private static final long CACHE_SIZE = 1_000;
+
+    @Param({"100", "5000"})
+    public int distinctTokens;
+
+    private JwtReactiveAuthenticationManager plain;
+    private CachingJwtAuthenticationManager cached;
+    private String[] tokens;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        NimbusReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder
+                .withPublicKey((RSAPublicKey) keyPair.getPublic())
+                .build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(ISSUER));
+        plain = new JwtReactiveAuthenticationManager(decoder);
+        plain.setJwtAuthenticationConverter(new SecurityConfig().jwtAuthenticationConverter());
+        cached = new CachingJwtAuthenticationManager(plain, CACHE_SIZE);
+
+        RSASSASigner signer = new RSASSASigner(keyPair.getPrivate());
+        Instant now = Instant.now();
+        tokens = new String[distinctTokens];
+        for (int i = 0; i < distinctTokens; i++) {
+            JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                    .issuer(ISSUER)
+                    .subject(UUID.randomUUID().toString())
+                    .issueTime(Date.from(now))
+                    .expirationTime(Date.from(now.plusSeconds(3600)))
+                    .claim("realm_access", Map.of("roles", List.of("user", "offline_access")))
+                    .build();
+            SignedJWT jwt = new SignedJWT(
+                    new JWSHeader.Builder(JWSAlgorithm.RS256).type(JOSEObjectType.JWT).keyID("k1").build(), claims);
+            jwt.sign(signer);
+            tokens[i] = jwt.serialize();
+        }
+
+        Authentication authentication = plain.authenticate(new BearerTokenAuthenticationToken(tokens[0])).block();
+        if (authentication == null || authentication.getAuthorities().size() != 2) {
+            throw new IllegalStateException("Token did not authenticate: " + authentication);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void reportHitRate() {
+        CacheStats stats = cached.stats();
+        // Only the cached benchmark goes through the cache
+        if (stats.requestCount() == 0) {
+            return;
+        }
+        System.out.printf("%nCache hit rate with %d tokens: %.4f (%d hits, %d misses)%n",
+                distinctTokens, stats.hitRate(), stats.hitCount(), stats.missCount());
+    }
+
+    @Benchmark
+    public Authentication plain() {
+        return plain.authenticate(new BearerTokenAuthenticationToken(nextToken())).block();
+    }
+
+    @Benchmark
+    public Authentication cached() {
+        return cached.authenticate(new BearerTokenAuthenticationToken(nextToken())).block();
+    }
+
+    private String nextToken() {
+        return tokens[ThreadLocalRandom.current().nextInt(distinctTokens)];
+    }
+}
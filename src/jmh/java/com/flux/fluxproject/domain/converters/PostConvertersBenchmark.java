@@ -0,0 +1,184 @@
+package com.flux.fluxproject.domain.converters;
+
+import com.flux.fluxproject.domain.Post;
+import com.flux.fluxproject.domain.PostStatus;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing one posts row through MappingR2dbcConverter, with and
+ * without the hand-written converters registered, as the repositories do.
+ * The row is an in-memory stand-in, so only the mapping is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostConvertersBenchmark {
+
+    private MappingR2dbcConverter reflective;
+    private MappingR2dbcConverter handWritten;
+    private Row row;
+    private Post post;
+
+    @Setup
+    public void setUp() {
+        reflective = converter(List.of());
+        handWritten = converter(List.of(new PostConverters.Reader(), new PostConverters.Writer()));
+
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("id", UUID.randomUUID());
+        columns.put("user_id", UUID.randomUUID());
+        columns.put("social_account_id", UUID.randomUUID());
+        columns.put("platform", "X");
+        columns.put("content", "Shipping the new scheduler today");
+        columns.put("media_urls", new String[]{"posts/1/a.png", "posts/1/b.png"});
+        columns.put("scheduled_at_utc", Instant.parse("2026-10-18T12:00:00Z"));
+        columns.put("published_at_utc", null);
+        columns.put("status", "scheduled");
+        columns.put("api_payload", null);
+        columns.put("error_message", null);
+        columns.put("retry_count", 0);
+        columns.put("max_retries", 3);
+        columns.put("created_at_utc", Instant.parse("2026-10-17T09:30:00Z"));
+        columns.put("updated_at_utc", Instant.parse("2026-10-17T09:30:00Z"));
+        columns.put("deleted_at_utc", null);
+        columns.put("version", 2L);
+        row = new MapRow(columns);
+
+        post = new PostConverters.Reader().convert(row);
+        if (post.getStatus() != PostStatus.scheduled) {
+            throw new IllegalStateException("Unexpected post " + post);
+        }
+    }
+
+    @Benchmark
+    public Post readReflective() {
+        return reflective.read(Post.class, row);
+    }
+
+    @Benchmark
+    public Post readHandWritten() {
+        return handWritten.read(Post.class, row);
+    }
+
+    @Benchmark
+    public OutboundRow writeReflective() {
+        OutboundRow outbound = new OutboundRow();
+        reflective.write(post, outbound);
+        return outbound;
+    }
+
+    @Benchmark
+    public OutboundRow writeHandWritten() {
+        OutboundRow outbound = new OutboundRow();
+        handWritten.write(post, outbound);
+        return outbound;
+    }
+
+    private static MappingR2dbcConverter converter(List<?> converters) {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(PostgresDialect.INSTANCE, converters);
+        R2dbcMappingContext context = new R2dbcMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        return new MappingR2dbcConverter(context, conversions);
+    }
+
+    /** A row over a map, looked up by name like the driver's. */
+    private static final class MapRow implements Row, RowMetadata {
+
+        private final Map<String, Object> columns;
+        private final List<String> names;
+        private final List<ColumnMetadata> metadata = new ArrayList<>();
+
+        MapRow(Map<String, Object> columns) {
+            this.columns = columns;
+            this.names = List.copyOf(columns.keySet());
+            for (String name : names) {
+                metadata.add(new ColumnMetadata() {
+                    @Override
+                    public Type getType() {
+                        return new Type.InferredType() {
+                            @Override
+                            public Class<?> getJavaType() {
+                                Object value = columns.get(name);
+                                return value == null ? Object.class : value.getClass();
+                            }
+
+                            @Override
+                            public String getName() {
+                                return name;
+                            }
+                        };
+                    }
+
+                    @Override
+                    public String getName() {
+                        return name;
+                    }
+                });
+            }
+        }
+
+        @Override
+        public RowMetadata getMetadata() {
+            return this;
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            return type.cast(columns.get(names.get(index)));
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            return type.cast(columns.get(name));
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return metadata.get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return metadata.get(names.indexOf(name));
+        }
+
+        @Override
+        public List<? extends ColumnMetadata> getColumnMetadatas() {
+            return metadata;
+        }
+
+        @Override
+        public boolean contains(String name) {
+            return columns.containsKey(name);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.flux.fluxproject.services.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flux.fluxproject.config.AesProperties;
+import com.flux.fluxproject.model.XAuthTokens;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sealing and opening one set of X tokens with EncryptionUtil against the
+ * implementation it replaced, which looked up a Cipher and created a
+ * SecureRandom per call and went through an untyped map. The current side
+ * seals under a key id, as it does once aes.active-key-id is set.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncryptionUtilBenchmark {
+
+    private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private EncryptionUtil encryptionUtil;
+    private LegacyEncryptionUtil legacy;
+    private XAuthTokens tokens;
+    private Map<String, Object> tokenMap;
+    private String sealed;
+    private String legacySealed;
+
+    @Setup
+    public void setUp() throws Exception {
+        encryptionUtil = new EncryptionUtil(new AesProperties(null, Map.of("k1", KEY), "k1"));
+        legacy = new LegacyEncryptionUtil(KEY);
+
+        tokens = new XAuthTokens("access-" + "a".repeat(80), "refresh-" + "r".repeat(80), 7200L,
+                "tweet.read tweet.write users.read offline.access");
+        tokenMap = new LinkedHashMap<>();
+        tokenMap.put("access_token", tokens.accessToken());
+        tokenMap.put("refresh_token", tokens.refreshToken());
+        tokenMap.put("expires_in", tokens.expiresIn());
+        tokenMap.put("scope", tokens.scope());
+
+        sealed = encryptionUtil.seal(tokens);
+        legacySealed = legacy.encrypt(tokenMap);
+        if (!tokens.equals(encryptionUtil.open(sealed))
+                || !tokens.accessToken().equals(legacy.decrypt(legacySealed).get("access_token"))) {
+            throw new IllegalStateException("Tokens do not round-trip");
+        }
+    }
+
+    @Benchmark
+    public String seal() throws Exception {
+        return encryptionUtil.seal(tokens);
+    }
+
+    @Benchmark
+    public XAuthTokens open() throws Exception {
+        return encryptionUtil.open(sealed);
+    }
+
+    @Benchmark
+    public String encryptLegacy() throws Exception {
+        return legacy.encrypt(tokenMap);
+    }
+
+    @Benchmark
+    public Map<String, Object> decryptLegacy() throws Exception {
+        return legacy.decrypt(legacySealed);
+    }
+
+    /** EncryptionUtil as it was before ciphers were pooled, minus its Spring wiring. */
+    private static final class LegacyEncryptionUtil {
+
+        private static final String AES = "AES";
+        private static final String AES_GCM = "AES/GCM/NoPadding";
+        private static final int GCM_TAG_LENGTH = 128; // bits
+        private static final int IV_LENGTH = 12;       // 96 bits
+
+        private final SecretKey secretKey;
+        private final ObjectMapper objectMapper = new ObjectMapper();
+
+        LegacyEncryptionUtil(String base64Key) {
+            byte[] decoded = Base64.getDecoder().decode(base64Key);
+            this.secretKey = new SecretKeySpec(decoded, AES);
+        }
+
+        String encrypt(Map<String, Object> data) throws Exception {
+            String json = objectMapper.writeValueAsString(data);
+
+            Cipher cipher = Cipher.getInstance(AES_GCM);
+            byte[] iv = new byte[IV_LENGTH];
+            new SecureRandom().nextBytes(iv);
+
+            cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+            byte[] cipherText = cipher.doFinal(json.getBytes(StandardCharsets.UTF_8));
+
+            ByteBuffer byteBuffer = ByteBuffer.allocate(iv.length + cipherText.length);
+            byteBuffer.put(iv);
+            byteBuffer.put(cipherText);
+
+            return Base64.getEncoder().encodeToString(byteBuffer.array());
+        }
+
+        Map<String, Object> decrypt(String encrypted) throws Exception {
+            byte[] decoded = Base64.getDecoder().decode(encrypted);
+
+            ByteBuffer byteBuffer = ByteBuffer.wrap(decoded);
+            byte[] iv = new byte[IV_LENGTH];
+            byteBuffer.get(iv);
+
+            byte[] cipherText = new byte[byteBuffer.remaining()];
+            byteBuffer.get(cipherText);
+
+            Cipher cipher = Cipher.getInstance(AES_GCM);
+            cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+
+            byte[] plainText = cipher.doFinal(cipherText);
+            String json = new String(plainText, StandardCharsets.UTF_8);
+
+            return objectMapper.readValue(json, new TypeReference<>() {});
+        }
+    }
+}
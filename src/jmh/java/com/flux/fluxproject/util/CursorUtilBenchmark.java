@@ -0,0 +1,74 @@
+package com.flux.fluxproject.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flux.fluxproject.model.PostCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The signed binary post cursor against the Base64 JSON cursor it replaced.
+ * The JSON side is that implementation as it was, with the Java time module
+ * registered so Instant serializes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CursorUtilBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private CursorUtil cursorUtil;
+    private PostCursor cursor;
+    private String binaryCursor;
+    private String jsonCursor;
+
+    @Setup
+    public void setUp() throws Exception {
+        cursorUtil = new CursorUtil(Base64.getEncoder().encodeToString(new byte[32]));
+        cursor = new PostCursor(Instant.parse("2026-10-18T10:15:30.123456Z"), UUID.randomUUID());
+        binaryCursor = cursorUtil.encode(cursor);
+        jsonCursor = encodeJson();
+        if (!cursor.equals(cursorUtil.decode(binaryCursor)) || !cursor.equals(decodeJson())) {
+            throw new IllegalStateException("Cursors do not round-trip");
+        }
+    }
+
+    @Benchmark
+    public String encodeBinary() {
+        return cursorUtil.encode(cursor);
+    }
+
+    @Benchmark
+    public PostCursor decodeBinary() {
+        return cursorUtil.decode(binaryCursor);
+    }
+
+    @Benchmark
+    public String encodeJson() throws Exception {
+        String json = objectMapper.writeValueAsString(cursor);
+        return Base64.getUrlEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public PostCursor decodeJson() throws Exception {
+        byte[] decodedBytes = Base64.getUrlDecoder().decode(jsonCursor);
+        return objectMapper.readValue(new String(decodedBytes, StandardCharsets.UTF_8), PostCursor.class);
+    }
+}
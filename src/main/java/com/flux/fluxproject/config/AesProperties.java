@@ -0,0 +1,19 @@
+package com.flux.fluxproject.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Keys for sealing social_accounts.auth_data. secretKey opens values
+ * written before key ids existed; keys maps each key id to a Base64 key,
+ * and new values are sealed with activeKeyId. With no active key id set,
+ * values are still sealed the old way with secretKey.
+ */
+@ConfigurationProperties(prefix = "aes")
+public record AesProperties(
+        String secretKey,
+        Map<String, String> keys,
+        String activeKeyId
+) {
+}
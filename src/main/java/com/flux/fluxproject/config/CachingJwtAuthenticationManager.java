@@ -0,0 +1,84 @@
+package com.flux.fluxproject.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Memoizes decoded and converted bearer tokens by SHA-256 of the token until
+ * the token's exp, so clients polling with the same access token skip the
+ * RSA verification and the authority mapping after the first request.
+ */
+public class CachingJwtAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final ReactiveAuthenticationManager delegate;
+    private final AsyncCache<String, Authentication> authentications;
+
+    public CachingJwtAuthenticationManager(ReactiveAuthenticationManager delegate, long maxSize) {
+        this.delegate = delegate;
+        this.authentications = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .buildAsync();
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        if (!(authentication instanceof BearerTokenAuthenticationToken bearer)) {
+            return delegate.authenticate(authentication);
+        }
+        String key = sha256(bearer.getToken());
+        return Mono.fromFuture(
+                () -> authentications.get(key, (k, executor) -> delegate.authenticate(authentication).toFuture()),
+                true);
+    }
+
+    public CacheStats stats() {
+        return authentications.synchronous().stats();
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, Authentication> {
+
+        @Override
+        public long expireAfterCreate(String key, Authentication value, long currentTime) {
+            if (value instanceof JwtAuthenticationToken jwtToken && jwtToken.getToken().getExpiresAt() != null) {
+                Duration remaining = Duration.between(Instant.now(), jwtToken.getToken().getExpiresAt());
+                return Math.max(0L, remaining.toNanos());
+            }
+            return 0L;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Authentication value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Authentication value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.flux.fluxproject.config;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Local copy of the Keycloak realm's JWKS.
+ * Loaded at startup and refreshed in the background, so signature
+ * verification never waits on Keycloak. An unknown kid (key rotation)
+ * triggers an early refresh, at most once per min-refresh-interval.
+ */
+@Slf4j
+@Component
+public class KeycloakJwksCache {
+
+    private final WebClient webClient;
+    private final String jwkSetUri;
+    private final Duration minRefreshInterval;
+
+    private volatile JWKSet jwkSet;
+    private volatile Instant lastRefresh = Instant.EPOCH;
+    private Mono<JWKSet> inFlight;
+
+    public KeycloakJwksCache(
+            WebClient.Builder webClientBuilder,
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri:}") String jwkSetUri,
+            @Value("${app.security.jwks.min-refresh-interval:PT30S}") Duration minRefreshInterval) {
+        this.webClient = webClientBuilder.build();
+        this.jwkSetUri = jwkSetUri.isBlank()
+                ? stripTrailingSlash(issuerUri) + "/protocol/openid-connect/certs"
+                : jwkSetUri;
+        this.minRefreshInterval = minRefreshInterval;
+    }
+
+    /** JWK source for NimbusReactiveJwtDecoder. */
+    public Flux<JWK> select(SignedJWT jwt) {
+        JWKSelector selector = new JWKSelector(JWKMatcher.forJWSHeader(jwt.getHeader()));
+        JWKSet current = jwkSet;
+
+        Mono<List<JWK>> keys = current == null
+                ? refresh().map(selector::select)
+                : Mono.just(selector.select(current))
+                        .flatMap(found -> found.isEmpty() && refreshAllowed()
+                                ? refresh().map(selector::select)
+                                : Mono.just(found));
+
+        return keys.flatMapMany(Flux::fromIterable);
+    }
+
+    // fixedDelay tasks start right after startup, which doubles as the preload
+    @Scheduled(fixedDelayString = "${app.security.jwks.refresh-interval:PT10M}")
+    public void scheduledRefresh() {
+        refresh().subscribe(
+                set -> log.debug("Refreshed JWKS from {} ({} keys)", jwkSetUri, set.getKeys().size()),
+                e -> log.warn("Failed to refresh JWKS from {}, keeping the previous key set", jwkSetUri, e)
+        );
+    }
+
+    private boolean refreshAllowed() {
+        return lastRefresh.plus(minRefreshInterval).isBefore(Instant.now());
+    }
+
+    /** Fetches the JWKS, sharing one request between concurrent callers. */
+    private synchronized Mono<JWKSet> refresh() {
+        if (inFlight == null) {
+            inFlight = webClient.get()
+                    .uri(jwkSetUri)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .map(this::parse)
+                    .doOnNext(set -> {
+                        jwkSet = set;
+                        lastRefresh = Instant.now();
+                    })
+                    .doFinally(sig -> clearInFlight())
+                    .cache();
+        }
+        return inFlight;
+    }
+
+    private synchronized void clearInFlight() {
+        inFlight = null;
+    }
+
+    private JWKSet parse(String body) {
+        try {
+            return JWKSet.parse(body);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid JWKS document from " + jwkSetUri, e);
+        }
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
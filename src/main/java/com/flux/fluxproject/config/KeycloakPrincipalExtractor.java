@@ -1,20 +1,41 @@
 package com.flux.fluxproject.config;
 
+import com.flux.fluxproject.domain.User;
 import com.flux.fluxproject.services.UserService;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.UUID;
 
 @Component
-@RequiredArgsConstructor
 public class KeycloakPrincipalExtractor {
 
     private final UserService userService;
 
+    /**
+     * Keycloak sub -> local users.id. The mapping practically never changes,
+     * so only a miss goes to the database. Concurrent misses for the same sub
+     * share one in-flight lookup, and failed lookups are not cached.
+     */
+    private final AsyncCache<String, UUID> localUserIds;
+
+    public KeycloakPrincipalExtractor(
+            UserService userService,
+            @Value("${app.user-id-cache.max-size:10000}") long maxSize,
+            @Value("${app.user-id-cache.ttl:PT15M}") Duration ttl) {
+        this.userService = userService;
+        this.localUserIds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+    }
+
     /**
      * Extracts Keycloak sub from the JWT, then resolves (or creates)
      * the local users.id UUID for that sub.
@@ -22,13 +43,15 @@ public class KeycloakPrincipalExtractor {
     public Mono<UUID> resolveLocalUserId() {
         return ReactiveSecurityContextHolder.getContext()
                 .map(ctx -> (Jwt) ctx.getAuthentication().getPrincipal())
-                .flatMap(jwt -> {
-                    String keycloakId = jwt.getSubject();
-                    String email = jwt.getClaimAsString("email");
-                    String name  = jwt.getClaimAsString("name");
-                    return userService.findOrCreateByKeycloakId(keycloakId, email, name)
-                            .map(user -> user.getId());
-                });
+                .flatMap(jwt -> Mono.fromFuture(
+                        () -> localUserIds.get(jwt.getSubject(), (keycloakId, executor) -> {
+                            String email = jwt.getClaimAsString("email");
+                            String name  = jwt.getClaimAsString("name");
+                            return userService.findOrCreateByKeycloakId(keycloakId, email, name)
+                                    .map(User::getId)
+                                    .toFuture();
+                        }),
+                        true));
     }
 
     /** Returns the raw Keycloak sub (for logging etc.) */
@@ -37,4 +60,4 @@ public class KeycloakPrincipalExtractor {
                 .map(ctx -> (Jwt) ctx.getAuthentication().getPrincipal())
                 .map(Jwt::getSubject);
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,22 @@
 package com.flux.fluxproject.config;
 
+import com.flux.fluxproject.domain.converters.OAuth2AuthRequestConverters;
+import com.flux.fluxproject.domain.converters.PostConverters;
+import com.flux.fluxproject.domain.converters.SocialAccountConverters;
+import com.flux.fluxproject.domain.converters.UserConverters;
+import io.r2dbc.postgresql.PostgresqlConnectionFactoryProvider;
 import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.r2dbc.ConnectionFactoryOptionsBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
 import org.springframework.r2dbc.connection.R2dbcTransactionManager;
 import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 public class R2dbcConfig {
@@ -12,4 +24,41 @@ public class R2dbcConfig {
     public ReactiveTransactionManager transactionManager(ConnectionFactory cf) {
         return new R2dbcTransactionManager(cf);
     }
+
+    @Bean
+    public TransactionalOperator transactionalOperator(ReactiveTransactionManager transactionManager) {
+        return TransactionalOperator.create(transactionManager);
+    }
+
+    /**
+     * Every connection plans each execution for its bound values instead of
+     * falling back to a generic plan after five runs. Per-user row counts
+     * are heavily skewed, and a generic plan for search or the listings is
+     * tuned to the average user, which is wrong for the accounts that matter.
+     * Sent as a startup parameter, so it costs no extra round trip; it
+     * replaces any options given in spring.r2dbc.url.
+     */
+    @Bean
+    public ConnectionFactoryOptionsBuilderCustomizer forceCustomPlans() {
+        return builder -> builder.option(PostgresqlConnectionFactoryProvider.OPTIONS,
+                Map.of("plan_cache_mode", "force_custom_plan"));
+    }
+
+    /**
+     * Entities read and written through the hand-written converters instead
+     * of reflective mapping. The Postgres store conversions are kept.
+     */
+    @Bean
+    public R2dbcCustomConversions r2dbcCustomConversions() {
+        return R2dbcCustomConversions.of(PostgresDialect.INSTANCE, List.of(
+                new PostConverters.Reader(),
+                new PostConverters.Writer(),
+                new SocialAccountConverters.Reader(),
+                new SocialAccountConverters.Writer(),
+                new UserConverters.Reader(),
+                new UserConverters.Writer(),
+                new OAuth2AuthRequestConverters.Reader(),
+                new OAuth2AuthRequestConverters.Writer()
+        ));
+    }
 }
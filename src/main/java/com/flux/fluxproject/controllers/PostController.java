@@ -1,17 +1,38 @@
 package com.flux.fluxproject.controllers;
 
 import com.flux.fluxproject.config.KeycloakPrincipalExtractor;
+import com.flux.fluxproject.model.BulkPostRequest;
+import com.flux.fluxproject.model.BulkPostResponse;
+import com.flux.fluxproject.model.CalendarDay;
 import com.flux.fluxproject.domain.PostStatus;
 import com.flux.fluxproject.model.CursorPageResponse;
+import com.flux.fluxproject.model.PostChangesResponse;
+import com.flux.fluxproject.model.PostExportRow;
+import com.flux.fluxproject.model.PostStatsResponse;
+import com.flux.fluxproject.model.PostStatusEvent;
 import com.flux.fluxproject.model.PostViewResponse;
 import com.flux.fluxproject.model.UpdatePostRequest;
+import com.flux.fluxproject.services.PostCalendarService;
+import com.flux.fluxproject.services.PostEventService;
+import com.flux.fluxproject.services.PostExportService;
+import com.flux.fluxproject.services.PostSearchService;
 import com.flux.fluxproject.services.PostService;
+import com.flux.fluxproject.services.PostSyncService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.UUID;
 
 @RestController
@@ -21,29 +42,143 @@ import java.util.UUID;
 public class PostController {
 
     private final PostService postService;
+    private final PostExportService postExportService;
+    private final PostCalendarService postCalendarService;
+    private final PostSearchService postSearchService;
+    private final PostSyncService postSyncService;
+    private final PostEventService postEventService;
     private final KeycloakPrincipalExtractor extractor;
     @GetMapping("/posts")
     public Mono<CursorPageResponse<PostViewResponse>> getPosts(
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) PostStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at
+    ) {
+        return extractor.resolveLocalUserId()
+                .flatMap(userId -> postService.getPosts(userId, size, status, cursor, at));
+    }
+
+    @GetMapping("/posts/stats")
+    public Mono<PostStatsResponse> getPostStats() {
+        return extractor.resolveLocalUserId()
+                .flatMap(postService::getPostStats);
+    }
+
+    @GetMapping("/posts/search")
+    public Mono<CursorPageResponse<PostViewResponse>> searchPosts(
+            @RequestParam String q,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) PostStatus status,
             @RequestParam(required = false) String cursor
     ) {
         return extractor.resolveLocalUserId()
-                .flatMap(userId -> postService.getPosts(userId, size, status, cursor));
+                .flatMap(userId -> postSearchService.search(userId, q, status, size, cursor));
+    }
+
+    @GetMapping("/posts/changes")
+    public Mono<PostChangesResponse> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "200") int size
+    ) {
+        return extractor.resolveLocalUserId()
+                .flatMap(userId -> postSyncService.getChanges(userId, since, size));
+    }
+
+    @GetMapping(value = "/posts/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<PostStatusEvent>> streamPostEvents() {
+        return extractor.resolveLocalUserId()
+                .flatMapMany(postEventService::stream);
+    }
+
+    @GetMapping("/posts/calendar")
+    public Flux<CalendarDay> getCalendar(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String tz
+    ) {
+        return extractor.resolveLocalUserId()
+                .flatMapMany(userId -> postCalendarService.getCalendar(userId, from, to, tz));
+    }
+
+    @GetMapping(value = "/posts/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PostExportRow> exportPosts(
+            @RequestParam(required = false) PostStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to
+    ) {
+        return extractor.resolveLocalUserId()
+                .flatMapMany(userId -> postExportService.exportPosts(userId, status, from, to));
+    }
+
+    @GetMapping(value = "/posts/export", produces = "text/csv")
+    public Flux<String> exportPostsAsCsv(
+            @RequestParam(required = false) PostStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to
+    ) {
+        return extractor.resolveLocalUserId()
+                .flatMapMany(userId -> postExportService.exportPostsAsCsv(userId, status, from, to));
     }
 
     @DeleteMapping("/posts/{postId}")
-    public Mono<ResponseEntity<Void>> deletePost(@PathVariable UUID postId) {
+    public Mono<ResponseEntity<Void>> deletePost(
+            @PathVariable UUID postId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        Long expectedVersion = parseVersion(ifMatch);
         return extractor.resolveLocalUserId()
-                .flatMap(userId -> postService.deletePost(userId, postId))
+                .flatMap(userId -> postService.deletePost(userId, postId, expectedVersion))
                 .thenReturn(ResponseEntity.noContent().<Void>build());
     }
 
     @PatchMapping("/posts/{postId}")
-    public Mono<ResponseEntity<Void>> updatePost(@PathVariable UUID postId, @RequestBody UpdatePostRequest request) {
+    public Mono<ResponseEntity<Void>> updatePost(
+            @PathVariable UUID postId,
+            @RequestBody UpdatePostRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        Long expectedVersion = parseVersion(ifMatch);
         return extractor.resolveLocalUserId()
-                .flatMap(userId-> postService.updatePost(userId, postId,request))
-                .thenReturn(ResponseEntity.noContent().<Void>build());
+                .flatMap(userId -> postService.updatePost(userId, postId, request, expectedVersion))
+                .map(post -> ResponseEntity.noContent().eTag(Long.toString(post.version())).<Void>build());
+    }
+
+    @PostMapping("/posts/bulk/delete")
+    public Mono<BulkPostResponse> deletePosts(@RequestBody BulkPostRequest request) {
+        return extractor.resolveLocalUserId()
+                .flatMap(userId -> postService.deletePosts(userId, request));
+    }
+
+    @PostMapping("/posts/bulk/cancel")
+    public Mono<BulkPostResponse> cancelPosts(@RequestBody BulkPostRequest request) {
+        return extractor.resolveLocalUserId()
+                .flatMap(userId -> postService.cancelPosts(userId, request));
+    }
+
+    @PostMapping("/posts/bulk/reschedule")
+    public Mono<BulkPostResponse> reschedulePosts(@RequestBody BulkPostRequest request) {
+        return extractor.resolveLocalUserId()
+                .flatMap(userId -> postService.reschedulePosts(userId, request));
+    }
+
+    // Accepts 5, "5" and W/"5"; the version is the post's version column.
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        String tag = ifMatch.strip();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid If-Match header");
+        }
     }
 
 }
@@ -14,7 +14,6 @@ import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Mono;
 
 import java.net.URI;
-import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -62,24 +61,17 @@ public class XOAuth2Controller {
                     .build());
         }
 
-        return repository.findByState(state)
-                .switchIfEmpty(Mono.error(new IllegalStateException("Invalid OAuth state")))
-                .flatMap(authRequest -> {
-
-                    if (authRequest.getExpiresAt() != null && authRequest.getExpiresAt().isBefore(Instant.now())) {
-                        log.warn("Auth request expired for state: {}", state);
-                        return Mono.error(new IllegalStateException("OAuth state expired"));
-                    }
-
-                    if (authRequest.isConsumed()) {
-                        log.warn("Auth request already consumed for state: {}", state);
-                        return Mono.error(new IllegalStateException("OAuth state already used"));
-                    }
-
-                    return xOAuth2Service.exchangeCodeForToken(authRequest, code)
-                            .flatMap(xTokenResponse ->
-                                    xOAuth2Service.saveSocialAccountAndMarkConsumed(authRequest, xTokenResponse));
-                })
+        // Single round trip: the state is only returned if it was still pending,
+        // so replays and concurrent duplicate callbacks fall through to the error path.
+        return repository.consumeByProviderAndState("X", state)
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.warn("Auth request invalid, expired or already consumed for state: {}", state);
+                    return Mono.error(new IllegalStateException("Invalid, expired or already used OAuth state"));
+                }))
+                .flatMap(authRequest ->
+                        xOAuth2Service.exchangeCodeForToken(authRequest, code)
+                                .flatMap(xTokenResponse ->
+                                        xOAuth2Service.saveSocialAccount(authRequest, xTokenResponse)))
                 .onErrorResume(e -> {
                     log.error("OAuth callback error: ", e);
                     return Mono.just(ResponseEntity
@@ -63,4 +63,8 @@ public class Post {
 
     @Column("deleted_at_utc")
     private Instant deletedAtUtc;
+
+    // Bumped by the database on every update; compared in PostMutationRepository
+    @Column("version")
+    private Long version;
 }
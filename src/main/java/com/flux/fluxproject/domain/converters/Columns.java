@@ -0,0 +1,38 @@
+package com.flux.fluxproject.domain.converters;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.r2dbc.core.Parameter;
+
+import static org.springframework.data.relational.core.sql.SqlIdentifier.unquoted;
+
+/**
+ * Column access shared by the converters.
+ */
+final class Columns {
+
+    private Columns() {
+    }
+
+    /**
+     * The column's value, or null when the query did not select it, so a
+     * {@code @Query} returning a subset of the columns still maps.
+     */
+    static <T> T read(Row row, RowMetadata metadata, String column, Class<T> type) {
+        return metadata.contains(column) ? row.get(column, type) : null;
+    }
+
+    /**
+     * Writes the value, or a typed empty parameter when it is null: inserts
+     * skip those (so column defaults apply) while updates write {@code NULL}.
+     * <p>
+     * Spring deprecates this Parameter type in favour of
+     * {@code io.r2dbc.spi.Parameters}, but OutboundRow only accepts this one,
+     * so its use is kept to this method.
+     */
+    @SuppressWarnings("deprecation")
+    static void write(OutboundRow row, String column, Object value, Class<?> type) {
+        row.put(unquoted(column), Parameter.fromOrEmpty(value, type));
+    }
+}
@@ -0,0 +1,63 @@
+package com.flux.fluxproject.domain.converters;
+
+import com.flux.fluxproject.domain.OAuth2AuthRequest;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static com.flux.fluxproject.domain.converters.Columns.read;
+import static com.flux.fluxproject.domain.converters.Columns.write;
+
+/**
+ * Hand-written row mapping for {@link OAuth2AuthRequest}.
+ */
+public final class OAuth2AuthRequestConverters {
+
+    private OAuth2AuthRequestConverters() {
+    }
+
+    @ReadingConverter
+    public static final class Reader implements Converter<Row, OAuth2AuthRequest> {
+
+        @Override
+        public OAuth2AuthRequest convert(Row row) {
+            RowMetadata metadata = row.getMetadata();
+            return OAuth2AuthRequest.builder()
+                    .id(read(row, metadata, "id", UUID.class))
+                    .provider(read(row, metadata, "provider", String.class))
+                    .clientType(read(row, metadata, "client_type", String.class))
+                    .userId(read(row, metadata, "user_id", UUID.class))
+                    .state(read(row, metadata, "state", String.class))
+                    .codeVerifier(read(row, metadata, "code_verifier", String.class))
+                    .createdAt(read(row, metadata, "created_at", Instant.class))
+                    .expiresAt(read(row, metadata, "expires_at", Instant.class))
+                    .consumed(Boolean.TRUE.equals(read(row, metadata, "consumed", Boolean.class)))
+                    .build();
+        }
+    }
+
+    @WritingConverter
+    public static final class Writer implements Converter<OAuth2AuthRequest, OutboundRow> {
+
+        @Override
+        public OutboundRow convert(OAuth2AuthRequest request) {
+            OutboundRow row = new OutboundRow();
+            write(row, "id", request.getId(), UUID.class);
+            write(row, "provider", request.getProvider(), String.class);
+            write(row, "client_type", request.getClientType(), String.class);
+            write(row, "user_id", request.getUserId(), UUID.class);
+            write(row, "state", request.getState(), String.class);
+            write(row, "code_verifier", request.getCodeVerifier(), String.class);
+            write(row, "created_at", request.getCreatedAt(), Instant.class);
+            write(row, "expires_at", request.getExpiresAt(), Instant.class);
+            write(row, "consumed", request.isConsumed(), Boolean.class);
+            return row;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.flux.fluxproject.domain.converters;
+
+import com.flux.fluxproject.domain.Post;
+import com.flux.fluxproject.domain.PostStatus;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static com.flux.fluxproject.domain.converters.Columns.read;
+import static com.flux.fluxproject.domain.converters.Columns.write;
+
+/**
+ * Hand-written row mapping for {@link Post}. Both the claim batch and the
+ * listing paths hydrate posts in bulk, so the columns are read and written
+ * directly instead of going through reflective property access.
+ * <p>
+ * The generated {@code content_tsv} column is neither read nor written, and
+ * columns a query does not select are left null.
+ */
+public final class PostConverters {
+
+    private PostConverters() {
+    }
+
+    @ReadingConverter
+    public static final class Reader implements Converter<Row, Post> {
+
+        @Override
+        public Post convert(Row row) {
+            RowMetadata metadata = row.getMetadata();
+            String status = read(row, metadata, "status", String.class);
+            String[] mediaUrls = read(row, metadata, "media_urls", String[].class);
+            return Post.builder()
+                    .id(read(row, metadata, "id", UUID.class))
+                    .userId(read(row, metadata, "user_id", UUID.class))
+                    .socialAccountId(read(row, metadata, "social_account_id", UUID.class))
+                    .platform(read(row, metadata, "platform", String.class))
+                    .content(read(row, metadata, "content", String.class))
+                    .mediaUrls(mediaUrls == null ? null : new ArrayList<>(Arrays.asList(mediaUrls)))
+                    .scheduledAtUtc(read(row, metadata, "scheduled_at_utc", Instant.class))
+                    .publishedAtUtc(read(row, metadata, "published_at_utc", Instant.class))
+                    .status(status == null ? null : PostStatus.valueOf(status))
+                    .apiPayload(read(row, metadata, "api_payload", String.class))
+                    .errorMessage(read(row, metadata, "error_message", String.class))
+                    .retryCount(read(row, metadata, "retry_count", Integer.class))
+                    .maxRetries(read(row, metadata, "max_retries", Integer.class))
+                    .createdAtUtc(read(row, metadata, "created_at_utc", Instant.class))
+                    .updatedAtUtc(read(row, metadata, "updated_at_utc", Instant.class))
+                    .deletedAtUtc(read(row, metadata, "deleted_at_utc", Instant.class))
+                    .version(read(row, metadata, "version", Long.class))
+                    .build();
+        }
+    }
+
+    @WritingConverter
+    public static final class Writer implements Converter<Post, OutboundRow> {
+
+        @Override
+        public OutboundRow convert(Post post) {
+            List<String> mediaUrls = post.getMediaUrls();
+            PostStatus status = post.getStatus();
+            OutboundRow row = new OutboundRow();
+            write(row, "id", post.getId(), UUID.class);
+            write(row, "user_id", post.getUserId(), UUID.class);
+            write(row, "social_account_id", post.getSocialAccountId(), UUID.class);
+            write(row, "platform", post.getPlatform(), String.class);
+            write(row, "content", post.getContent(), String.class);
+            write(row, "media_urls",
+                    mediaUrls == null ? null : mediaUrls.toArray(String[]::new), String[].class);
+            write(row, "scheduled_at_utc", post.getScheduledAtUtc(), Instant.class);
+            write(row, "published_at_utc", post.getPublishedAtUtc(), Instant.class);
+            write(row, "status", status == null ? null : status.name(), String.class);
+            write(row, "api_payload", post.getApiPayload(), String.class);
+            write(row, "error_message", post.getErrorMessage(), String.class);
+            write(row, "retry_count", post.getRetryCount(), Integer.class);
+            write(row, "max_retries", post.getMaxRetries(), Integer.class);
+            write(row, "created_at_utc", post.getCreatedAtUtc(), Instant.class);
+            write(row, "updated_at_utc", post.getUpdatedAtUtc(), Instant.class);
+            write(row, "deleted_at_utc", post.getDeletedAtUtc(), Instant.class);
+            write(row, "version", post.getVersion(), Long.class);
+            return row;
+        }
+    }
+}
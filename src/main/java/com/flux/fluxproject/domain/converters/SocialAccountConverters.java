@@ -0,0 +1,68 @@
+package com.flux.fluxproject.domain.converters;
+
+import com.flux.fluxproject.domain.SocialAccount;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static com.flux.fluxproject.domain.converters.Columns.read;
+import static com.flux.fluxproject.domain.converters.Columns.write;
+
+/**
+ * Hand-written row mapping for {@link SocialAccount}. The legacy OAuth state
+ * columns still on the table are not mapped.
+ */
+public final class SocialAccountConverters {
+
+    private SocialAccountConverters() {
+    }
+
+    @ReadingConverter
+    public static final class Reader implements Converter<Row, SocialAccount> {
+
+        @Override
+        public SocialAccount convert(Row row) {
+            RowMetadata metadata = row.getMetadata();
+            return SocialAccount.builder()
+                    .id(read(row, metadata, "id", UUID.class))
+                    .userId(read(row, metadata, "user_id", UUID.class))
+                    .platform(read(row, metadata, "platform", String.class))
+                    .platformUserId(read(row, metadata, "platform_user_id", String.class))
+                    .username(read(row, metadata, "username", String.class))
+                    .profileImageUrl(read(row, metadata, "profile_image_url", String.class))
+                    .authData(read(row, metadata, "auth_data", String.class))
+                    .expiresAt(read(row, metadata, "expires_at", OffsetDateTime.class))
+                    .isActive(read(row, metadata, "is_active", Boolean.class))
+                    .createdAt(read(row, metadata, "created_at", OffsetDateTime.class))
+                    .updatedAt(read(row, metadata, "updated_at", OffsetDateTime.class))
+                    .build();
+        }
+    }
+
+    @WritingConverter
+    public static final class Writer implements Converter<SocialAccount, OutboundRow> {
+
+        @Override
+        public OutboundRow convert(SocialAccount account) {
+            OutboundRow row = new OutboundRow();
+            write(row, "id", account.getId(), UUID.class);
+            write(row, "user_id", account.getUserId(), UUID.class);
+            write(row, "platform", account.getPlatform(), String.class);
+            write(row, "platform_user_id", account.getPlatformUserId(), String.class);
+            write(row, "username", account.getUsername(), String.class);
+            write(row, "profile_image_url", account.getProfileImageUrl(), String.class);
+            write(row, "auth_data", account.getAuthData(), String.class);
+            write(row, "expires_at", account.getExpiresAt(), OffsetDateTime.class);
+            write(row, "is_active", account.getIsActive(), Boolean.class);
+            write(row, "created_at", account.getCreatedAt(), OffsetDateTime.class);
+            write(row, "updated_at", account.getUpdatedAt(), OffsetDateTime.class);
+            return row;
+        }
+    }
+}
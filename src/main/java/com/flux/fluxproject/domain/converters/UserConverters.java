@@ -0,0 +1,59 @@
+package com.flux.fluxproject.domain.converters;
+
+import com.flux.fluxproject.domain.User;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static com.flux.fluxproject.domain.converters.Columns.read;
+import static com.flux.fluxproject.domain.converters.Columns.write;
+
+/**
+ * Hand-written row mapping for {@link User}.
+ */
+public final class UserConverters {
+
+    private UserConverters() {
+    }
+
+    @ReadingConverter
+    public static final class Reader implements Converter<Row, User> {
+
+        @Override
+        public User convert(Row row) {
+            RowMetadata metadata = row.getMetadata();
+            return User.builder()
+                    .id(read(row, metadata, "id", UUID.class))
+                    .email(read(row, metadata, "email", String.class))
+                    .name(read(row, metadata, "name", String.class))
+                    .createdAt(read(row, metadata, "created_at", OffsetDateTime.class))
+                    .updatedAt(read(row, metadata, "updated_at", OffsetDateTime.class))
+                    .enabled(read(row, metadata, "enabled", Boolean.class))
+                    .keycloakId(read(row, metadata, "keycloak_id", String.class))
+                    .build();
+        }
+    }
+
+    @WritingConverter
+    public static final class Writer implements Converter<User, OutboundRow> {
+
+        @Override
+        public OutboundRow convert(User user) {
+            OutboundRow row = new OutboundRow();
+            write(row, "id", user.getId(), UUID.class);
+            write(row, "email", user.getEmail(), String.class);
+            write(row, "name", user.getName(), String.class);
+            write(row, "created_at", user.getCreatedAt(), OffsetDateTime.class);
+            write(row, "updated_at", user.getUpdatedAt(), OffsetDateTime.class);
+            write(row, "enabled", user.getEnabled(), Boolean.class);
+            write(row, "keycloak_id", user.getKeycloakId(), String.class);
+            return row;
+        }
+    }
+}
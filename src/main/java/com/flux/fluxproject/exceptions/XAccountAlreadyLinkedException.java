@@ -0,0 +1,7 @@
+package com.flux.fluxproject.exceptions;
+
+public class XAccountAlreadyLinkedException extends XServiceException {
+    public XAccountAlreadyLinkedException(String message) {
+        super(message);
+    }
+}
@@ -2,10 +2,33 @@ package com.flux.fluxproject.mappers;
 
 import com.flux.fluxproject.domain.Post;
 import com.flux.fluxproject.model.PostDTO;
+import org.mapstruct.InheritInverseConfiguration;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 
 @Mapper
 public interface PostMapper {
+
+    @Mapping(target = "scheduledAtUtc", source = "scheduledAt")
+    @Mapping(target = "publishedAtUtc", source = "publishedAt")
+    @Mapping(target = "createdAtUtc", source = "createdAt")
+    @Mapping(target = "updatedAtUtc", source = "updatedAt")
+    @Mapping(target = "deletedAtUtc", ignore = true)
+    @Mapping(target = "version", ignore = true) // set by the database on every write
     Post postDtoToPost(PostDTO postDto);
+
+    @InheritInverseConfiguration
     PostDTO postToPostDto(Post post);
+
+    default Instant toInstant(OffsetDateTime dateTime) {
+        return dateTime == null ? null : dateTime.toInstant();
+    }
+
+    default OffsetDateTime toOffsetDateTime(Instant instant) {
+        return instant == null ? null : instant.atOffset(ZoneOffset.UTC);
+    }
 }
@@ -0,0 +1,10 @@
+package com.flux.fluxproject.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/** A user's month with posts due for archiving; monthStart is in UTC. */
+public record ArchiveMonth(
+        UUID userId,
+        Instant monthStart
+) {}
@@ -0,0 +1,27 @@
+package com.flux.fluxproject.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A post_archive_segments row: where a user's archived posts of one month
+ * live, and where each gzip block of the object starts. blockOffsets has one
+ * entry more than there are blocks, the last being the object size;
+ * blockOldest holds the scheduled time of each block's last (oldest) row.
+ */
+public record ArchiveSegment(
+        UUID userId,
+        Instant monthStart,
+        String objectKey,
+        int publishedCount,
+        int failedCount,
+        Instant oldestScheduledAt,
+        Instant newestScheduledAt,
+        long[] blockOffsets,
+        Instant[] blockOldest
+) {
+
+    public int blockCount() {
+        return blockOldest.length;
+    }
+}
@@ -0,0 +1,36 @@
+package com.flux.fluxproject.model;
+
+import com.flux.fluxproject.domain.PostStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A posts row as written to an archive segment, one JSON object per line.
+ * Everything but the generated content_tsv is kept, so a row can be restored
+ * as it was.
+ */
+public record ArchivedPost(
+        UUID id,
+        UUID userId,
+        UUID socialAccountId,
+        String platform,
+        String content,
+        List<String> mediaUrls,
+        Instant scheduledAtUtc,
+        Instant publishedAtUtc,
+        PostStatus status,
+        String apiPayload,
+        String errorMessage,
+        Integer retryCount,
+        Integer maxRetries,
+        Instant createdAtUtc,
+        Instant updatedAtUtc,
+        long version
+) {
+
+    public PostViewResponse toView() {
+        return new PostViewResponse(id, content, status, scheduledAtUtc, mediaUrls, version);
+    }
+}
@@ -0,0 +1,19 @@
+package com.flux.fluxproject.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * How far the re-encryption to one key has got. lastAccountId is where the
+ * next batch starts; the counts add up over every batch so far.
+ */
+public record AuthDataReencryptionProgress(
+        String keyId,
+        UUID lastAccountId,
+        long scanned,
+        long resealed,
+        long conflicts,
+        long failed,
+        Instant startedAt,
+        Instant completedAt
+) {}
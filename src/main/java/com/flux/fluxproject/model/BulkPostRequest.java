@@ -0,0 +1,20 @@
+package com.flux.fluxproject.model;
+
+import com.flux.fluxproject.domain.PostStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Selects posts either by id or by a scheduled_at_utc window [from, to),
+ * optionally narrowed to one status. offset is only used by reschedule.
+ */
+public record BulkPostRequest(
+        List<UUID> ids,
+        PostStatus status,
+        Instant from,
+        Instant to,
+        Duration offset
+) {}
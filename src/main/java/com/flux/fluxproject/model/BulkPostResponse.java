@@ -0,0 +1,10 @@
+package com.flux.fluxproject.model;
+
+import java.util.List;
+import java.util.UUID;
+
+/** skipped lists requested ids that were missing, not the user's, or not in an allowed status. */
+public record BulkPostResponse(
+        List<UUID> affected,
+        List<UUID> skipped
+) {}
@@ -0,0 +1,10 @@
+package com.flux.fluxproject.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record CalendarDay(
+        LocalDate date,
+        long count,
+        List<PostViewResponse> posts
+) {}
@@ -0,0 +1,13 @@
+package com.flux.fluxproject.model;
+
+import java.time.LocalDate;
+
+/**
+ * One day of the calendar as aggregated by Postgres; posts is a JSON array
+ * shaped like {@link PostViewResponse}.
+ */
+public record CalendarDayRow(
+        LocalDate day,
+        long postCount,
+        String posts
+) {}
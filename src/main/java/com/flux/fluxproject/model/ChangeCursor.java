@@ -0,0 +1,9 @@
+package com.flux.fluxproject.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ChangeCursor(
+        Instant changedAt,
+        UUID id
+) {}
@@ -5,5 +5,15 @@ import java.util.List;
 public record CursorPageResponse<T>(
         List<T> content,
         String nextCursor,
-        boolean hasNext
-) {}
+        boolean hasNext,
+        String prevCursor,
+        boolean hasPrevious
+) {
+
+    /**
+     * A page of a forward-only listing.
+     */
+    public CursorPageResponse(List<T> content, String nextCursor, boolean hasNext) {
+        this(content, nextCursor, hasNext, null, false);
+    }
+}
@@ -0,0 +1,13 @@
+package com.flux.fluxproject.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One entry of the change feed. A null post means it was hard-deleted.
+ */
+public record PostChange(
+        UUID id,
+        Instant changedAt,
+        PostViewResponse post
+) {}
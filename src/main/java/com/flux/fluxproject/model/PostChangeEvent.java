@@ -0,0 +1,32 @@
+package com.flux.fluxproject.model;
+
+import com.flux.fluxproject.domain.PostStatus;
+
+import java.util.UUID;
+
+/**
+ * A change to some of a user's posts, as broadcast between nodes. A null
+ * userId means notifications may have been missed and every user should be
+ * treated as changed. postId and status are set when the change is a single
+ * post being written, with the status it was left in; without them, any of
+ * the user's posts may have changed (a bulk write or a maintenance job).
+ */
+public record PostChangeEvent(
+        UUID userId,
+        UUID postId,
+        PostStatus status
+) {
+    public static final PostChangeEvent RESYNC = new PostChangeEvent(null);
+
+    public PostChangeEvent(UUID userId) {
+        this(userId, null, null);
+    }
+
+    public boolean isResync() {
+        return userId == null;
+    }
+
+    public boolean isSinglePost() {
+        return postId != null;
+    }
+}
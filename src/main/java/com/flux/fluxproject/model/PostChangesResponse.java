@@ -0,0 +1,11 @@
+package com.flux.fluxproject.model;
+
+import java.util.List;
+import java.util.UUID;
+
+public record PostChangesResponse(
+        List<PostViewResponse> changed,
+        List<UUID> deleted,
+        String nextToken,
+        boolean hasMore
+) {}
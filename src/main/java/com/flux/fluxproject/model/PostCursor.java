@@ -3,7 +3,22 @@ package com.flux.fluxproject.model;
 import java.time.Instant;
 import java.util.UUID;
 
+/**
+ * A position in the post listing. NEXT cursors continue with the posts after
+ * it (older), PREVIOUS cursors go back to the posts before it (newer).
+ */
 public record PostCursor(
         Instant scheduledAt,
-        UUID id
-) {}
+        UUID id,
+        Direction direction
+) {
+
+    public enum Direction {
+        NEXT,
+        PREVIOUS
+    }
+
+    public PostCursor(Instant scheduledAt, UUID id) {
+        this(scheduledAt, id, Direction.NEXT);
+    }
+}
@@ -0,0 +1,19 @@
+package com.flux.fluxproject.model;
+
+import com.flux.fluxproject.domain.PostStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record PostExportRow(
+        UUID id,
+        String platform,
+        String content,
+        List<String> mediaUrls,
+        PostStatus status,
+        Instant scheduledAtUtc,
+        Instant publishedAtUtc,
+        Instant createdAtUtc,
+        String errorMessage
+) {}
@@ -0,0 +1,18 @@
+package com.flux.fluxproject.model;
+
+/**
+ * Outcome of a conditional post update. post is only set when UPDATED.
+ */
+public record PostMutationResult(
+        Outcome outcome,
+        PostViewResponse post
+) {
+
+    public enum Outcome {
+        UPDATED,
+        NOT_FOUND,
+        FORBIDDEN,
+        STATUS_CONFLICT,
+        VERSION_CONFLICT
+    }
+}
@@ -0,0 +1,6 @@
+package com.flux.fluxproject.model;
+
+public record PostSearchHit(
+        PostViewResponse post,
+        float rank
+) {}
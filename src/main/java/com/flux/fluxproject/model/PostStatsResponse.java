@@ -0,0 +1,9 @@
+package com.flux.fluxproject.model;
+
+import com.flux.fluxproject.domain.PostStatus;
+
+import java.util.Map;
+
+public record PostStatsResponse(
+        Map<PostStatus, Long> counts
+) {}
@@ -0,0 +1,8 @@
+package com.flux.fluxproject.model;
+
+import com.flux.fluxproject.domain.PostStatus;
+
+public record PostStatusCount(
+        PostStatus status,
+        long postCount
+) {}
@@ -0,0 +1,10 @@
+package com.flux.fluxproject.model;
+
+import com.flux.fluxproject.domain.PostStatus;
+
+import java.util.UUID;
+
+public record PostStatusEvent(
+        UUID postId,
+        PostStatus status
+) {}
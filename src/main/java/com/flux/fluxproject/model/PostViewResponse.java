@@ -11,6 +11,7 @@ public record PostViewResponse(
         String content,
         PostStatus status,
         Instant scheduledAtUtc,
-        List<String> mediaUrls
+        List<String> mediaUrls,
+        long version
 ) {}
 
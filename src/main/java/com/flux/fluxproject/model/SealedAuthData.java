@@ -0,0 +1,11 @@
+package com.flux.fluxproject.model;
+
+import java.util.UUID;
+
+/**
+ * The sealed auth_data of one social account, as the re-encryption job reads it.
+ */
+public record SealedAuthData(
+        UUID id,
+        String authData
+) {}
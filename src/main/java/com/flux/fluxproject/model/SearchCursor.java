@@ -0,0 +1,8 @@
+package com.flux.fluxproject.model;
+
+import java.util.UUID;
+
+public record SearchCursor(
+        float rank,
+        UUID id
+) {}
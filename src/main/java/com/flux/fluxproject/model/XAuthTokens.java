@@ -0,0 +1,26 @@
+package com.flux.fluxproject.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The X tokens sealed into social_accounts.auth_data. The JSON names match
+ * the map the tokens used to be stored as, so existing rows still decrypt.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record XAuthTokens(
+        @JsonProperty("access_token") String accessToken,
+        @JsonProperty("refresh_token") String refreshToken,
+        @JsonProperty("expires_in") Long expiresIn,
+        @JsonProperty("scope") String scope
+) {
+
+    public static XAuthTokens from(XTokenResponse response) {
+        return new XAuthTokens(
+                response.getAccessToken(),
+                response.getRefreshToken(),
+                response.getExpiresIn(),
+                response.getScope()
+        );
+    }
+}
@@ -1,11 +1,50 @@
 package com.flux.fluxproject.repositories;
 
 import com.flux.fluxproject.domain.OAuth2AuthRequest;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.util.UUID;
 
 public interface OAuth2AuthRequestRepository extends ReactiveCrudRepository<OAuth2AuthRequest, UUID> {
     Mono<OAuth2AuthRequest> findByState(String state);
+
+    /**
+     * Atomically claims a pending authorization request.
+     * Empty when the state is unknown, expired or already consumed,
+     * so concurrent duplicate callbacks can only ever win once.
+     */
+    @Query("""
+UPDATE oauth2_authorization_requests
+SET consumed = true
+WHERE provider = :provider
+  AND state = :state
+  AND NOT consumed
+  AND expires_at > now()
+RETURNING *
+""")
+    Mono<OAuth2AuthRequest> consumeByProviderAndState(String provider, String state);
+
+    /**
+     * Deletes one small batch of requests that expired before the cutoff,
+     * oldest first along idx_oauth2_expires. Rows locked by another node are
+     * skipped, so concurrent purges never wait on each other.
+     */
+    @Modifying
+    @Query("""
+DELETE FROM oauth2_authorization_requests r
+USING (
+    SELECT id
+    FROM oauth2_authorization_requests
+    WHERE expires_at < :cutoff
+    ORDER BY expires_at
+    LIMIT :batchSize
+    FOR UPDATE SKIP LOCKED
+) batch
+WHERE r.id = batch.id
+""")
+    Mono<Long> deleteExpiredBatch(Instant cutoff, int batchSize);
 }
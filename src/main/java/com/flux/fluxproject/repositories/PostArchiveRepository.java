@@ -0,0 +1,49 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.model.ArchiveMonth;
+import com.flux.fluxproject.model.ArchiveSegment;
+import com.flux.fluxproject.model.ArchivedPost;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The archive side of posts: picking the rows to move out, moving them, and
+ * the post_archive_segments manifest that says where they went.
+ */
+public interface PostArchiveRepository {
+
+    /** (user, month) pairs holding published or failed posts scheduled before the cutoff. */
+    Flux<ArchiveMonth> findArchiveMonths(Instant before, int limit);
+
+    /** The user's published and failed posts in [monthStart, monthEnd), newest first. */
+    Flux<ArchivedPost> findArchivablePosts(UUID userId, Instant monthStart, Instant monthEnd);
+
+    Mono<ArchiveSegment> findSegment(UUID userId, Instant monthStart);
+
+    /**
+     * Segments that may hold posts at or before upTo (null: any) and at or
+     * after notBefore (null: any), newest month first.
+     */
+    Flux<ArchiveSegment> findSegmentsBefore(UUID userId, Instant upTo, Instant notBefore);
+
+    /**
+     * Segments that may hold posts at or after from and at or before notAfter
+     * (null: any), oldest month first.
+     */
+    Flux<ArchiveSegment> findSegmentsAfter(UUID userId, Instant from, Instant notAfter);
+
+    /** Scheduled time of the user's newest archived post; empty when nothing is archived. */
+    Mono<Instant> findNewestArchivedAt(UUID userId);
+
+    /**
+     * Deletes the archived rows and records their segment, replacing
+     * previousObjectKey (null for a month's first segment). Run in one
+     * transaction: emits false when a row was already gone or another
+     * archiver replaced the segment first, and the caller has to roll back.
+     */
+    Mono<Boolean> moveToSegment(ArchiveSegment segment, List<UUID> postIds, String previousObjectKey);
+}
@@ -0,0 +1,253 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.ArchiveMonth;
+import com.flux.fluxproject.model.ArchiveSegment;
+import com.flux.fluxproject.model.ArchivedPost;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Months are in UTC, like the posts partitions, so a month's rows are read
+ * and deleted within one partition. The archiving flag set before the
+ * delete keeps posts_record_tombstones from treating the rows as deleted.
+ */
+@RequiredArgsConstructor
+public class PostArchiveRepositoryImpl implements PostArchiveRepository {
+
+    static final String ARCHIVE_MONTHS = """
+SELECT DISTINCT user_id, date_trunc('month', scheduled_at_utc, 'UTC') AS month_start
+FROM posts
+WHERE status IN ('published', 'failed')
+  AND scheduled_at_utc < :before
+ORDER BY user_id, month_start
+LIMIT :limit
+""";
+
+    static final String ARCHIVABLE_POSTS = """
+SELECT id, user_id, social_account_id, platform, content, media_urls, scheduled_at_utc,
+       published_at_utc, status, api_payload, error_message, retry_count, max_retries,
+       created_at_utc, updated_at_utc, version
+FROM posts
+WHERE user_id = :userId
+  AND scheduled_at_utc >= :monthStart
+  AND scheduled_at_utc < :monthEnd
+  AND status IN ('published', 'failed')
+ORDER BY scheduled_at_utc DESC, id DESC
+""";
+
+    private static final String SEGMENT_COLUMNS = """
+SELECT user_id, month_start, object_key, published_count, failed_count,
+       oldest_scheduled_at, newest_scheduled_at, block_offsets, block_oldest
+FROM post_archive_segments
+""";
+
+    static final String SEGMENT = SEGMENT_COLUMNS + """
+WHERE user_id = :userId
+  AND month_start = :monthStart
+""";
+
+    static final String SEGMENTS_BEFORE = SEGMENT_COLUMNS + """
+WHERE user_id = :userId
+  AND (CAST(:upTo AS timestamptz) IS NULL OR month_start <= :upTo)
+  AND (CAST(:notBefore AS timestamptz) IS NULL OR newest_scheduled_at >= :notBefore)
+ORDER BY month_start DESC
+""";
+
+    static final String SEGMENTS_AFTER = SEGMENT_COLUMNS + """
+WHERE user_id = :userId
+  AND newest_scheduled_at >= :from
+  AND (CAST(:notAfter AS timestamptz) IS NULL OR month_start <= :notAfter)
+ORDER BY month_start
+""";
+
+    // Segments are per month, so the newest month holds the newest post
+    static final String NEWEST_ARCHIVED = """
+SELECT newest_scheduled_at
+FROM post_archive_segments
+WHERE user_id = :userId
+ORDER BY month_start DESC
+LIMIT 1
+""";
+
+    static final String MARK_ARCHIVING = "SELECT set_config('flux.archiving', 'on', true)";
+
+    static final String DELETE_ARCHIVED = """
+DELETE FROM posts
+WHERE user_id = :userId
+  AND scheduled_at_utc >= :monthStart
+  AND scheduled_at_utc < :monthEnd
+  AND status IN ('published', 'failed')
+  AND id = ANY(:ids)
+""";
+
+    // A concurrent archiver's segment is never overwritten: the update only
+    // applies over the segment this one was built on.
+    static final String UPSERT_SEGMENT = """
+INSERT INTO post_archive_segments AS s (user_id, month_start, object_key, published_count, failed_count,
+                                        oldest_scheduled_at, newest_scheduled_at, block_offsets, block_oldest)
+VALUES (:userId, :monthStart, :objectKey, :publishedCount, :failedCount,
+        :oldest, :newest, :blockOffsets, :blockOldest)
+ON CONFLICT (user_id, month_start) DO UPDATE
+SET object_key = EXCLUDED.object_key,
+    published_count = EXCLUDED.published_count,
+    failed_count = EXCLUDED.failed_count,
+    oldest_scheduled_at = EXCLUDED.oldest_scheduled_at,
+    newest_scheduled_at = EXCLUDED.newest_scheduled_at,
+    block_offsets = EXCLUDED.block_offsets,
+    block_oldest = EXCLUDED.block_oldest,
+    archived_at_utc = now()
+WHERE s.object_key = CAST(:previousObjectKey AS text)
+""";
+
+    private final R2dbcEntityTemplate template;
+
+    @Override
+    public Flux<ArchiveMonth> findArchiveMonths(Instant before, int limit) {
+        return template.getDatabaseClient()
+                .sql(ARCHIVE_MONTHS)
+                .bind("before", before)
+                .bind("limit", limit)
+                .map((row, metadata) -> new ArchiveMonth(row.get(0, UUID.class), row.get(1, Instant.class)))
+                .all();
+    }
+
+    @Override
+    public Flux<ArchivedPost> findArchivablePosts(UUID userId, Instant monthStart, Instant monthEnd) {
+        return template.getDatabaseClient()
+                .sql(ARCHIVABLE_POSTS)
+                .bind("userId", userId)
+                .bind("monthStart", monthStart)
+                .bind("monthEnd", monthEnd)
+                .map((row, metadata) -> toArchivedPost(row))
+                .all();
+    }
+
+    @Override
+    public Mono<ArchiveSegment> findSegment(UUID userId, Instant monthStart) {
+        return template.getDatabaseClient()
+                .sql(SEGMENT)
+                .bind("userId", userId)
+                .bind("monthStart", monthStart)
+                .map((row, metadata) -> toSegment(row))
+                .one();
+    }
+
+    @Override
+    public Flux<ArchiveSegment> findSegmentsBefore(UUID userId, Instant upTo, Instant notBefore) {
+        DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient()
+                .sql(SEGMENTS_BEFORE)
+                .bind("userId", userId);
+        spec = upTo == null ? spec.bindNull("upTo", Instant.class) : spec.bind("upTo", upTo);
+        spec = notBefore == null ? spec.bindNull("notBefore", Instant.class) : spec.bind("notBefore", notBefore);
+        return spec
+                .map((row, metadata) -> toSegment(row))
+                .all();
+    }
+
+    @Override
+    public Flux<ArchiveSegment> findSegmentsAfter(UUID userId, Instant from, Instant notAfter) {
+        DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient()
+                .sql(SEGMENTS_AFTER)
+                .bind("userId", userId)
+                .bind("from", from);
+        spec = notAfter == null ? spec.bindNull("notAfter", Instant.class) : spec.bind("notAfter", notAfter);
+        return spec
+                .map((row, metadata) -> toSegment(row))
+                .all();
+    }
+
+    @Override
+    public Mono<Instant> findNewestArchivedAt(UUID userId) {
+        return template.getDatabaseClient()
+                .sql(NEWEST_ARCHIVED)
+                .bind("userId", userId)
+                .map(row -> row.get("newest_scheduled_at", Instant.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Boolean> moveToSegment(ArchiveSegment segment, List<UUID> postIds, String previousObjectKey) {
+        DatabaseClient client = template.getDatabaseClient();
+        Instant monthEnd = segment.monthStart().atZone(ZoneOffset.UTC).plusMonths(1).toInstant();
+
+        Mono<Long> deleted = client.sql(DELETE_ARCHIVED)
+                .bind("userId", segment.userId())
+                .bind("monthStart", segment.monthStart())
+                .bind("monthEnd", monthEnd)
+                .bind("ids", postIds.toArray(UUID[]::new))
+                .fetch()
+                .rowsUpdated();
+
+        DatabaseClient.GenericExecuteSpec upsert = client.sql(UPSERT_SEGMENT)
+                .bind("userId", segment.userId())
+                .bind("monthStart", segment.monthStart())
+                .bind("objectKey", segment.objectKey())
+                .bind("publishedCount", segment.publishedCount())
+                .bind("failedCount", segment.failedCount())
+                .bind("oldest", segment.oldestScheduledAt())
+                .bind("newest", segment.newestScheduledAt())
+                .bind("blockOffsets", Arrays.stream(segment.blockOffsets()).boxed().toArray(Long[]::new))
+                .bind("blockOldest", segment.blockOldest());
+        upsert = previousObjectKey == null
+                ? upsert.bindNull("previousObjectKey", String.class)
+                : upsert.bind("previousObjectKey", previousObjectKey);
+        Mono<Long> recorded = upsert.fetch().rowsUpdated();
+
+        return client.sql(MARK_ARCHIVING).fetch().rowsUpdated()
+                .then(deleted)
+                .flatMap(count -> count != postIds.size()
+                        ? Mono.just(false)
+                        : recorded.map(rows -> rows == 1));
+    }
+
+    // By position, in the order of the ARCHIVABLE_POSTS select list
+    private static ArchivedPost toArchivedPost(Row row) {
+        String[] mediaUrls = row.get(5, String[].class);
+        String status = row.get(8, String.class);
+        Long version = row.get(15, Long.class);
+        return new ArchivedPost(
+                row.get(0, UUID.class),
+                row.get(1, UUID.class),
+                row.get(2, UUID.class),
+                row.get(3, String.class),
+                row.get(4, String.class),
+                mediaUrls == null ? null : Arrays.asList(mediaUrls),
+                row.get(6, Instant.class),
+                row.get(7, Instant.class),
+                status == null ? null : PostStatus.valueOf(status),
+                row.get(9, String.class),
+                row.get(10, String.class),
+                row.get(11, Integer.class),
+                row.get(12, Integer.class),
+                row.get(13, Instant.class),
+                row.get(14, Instant.class),
+                version == null ? 0 : version
+        );
+    }
+
+    private static ArchiveSegment toSegment(Row row) {
+        Long[] offsets = row.get(7, Long[].class);
+        return new ArchiveSegment(
+                row.get(0, UUID.class),
+                row.get(1, Instant.class),
+                row.get(2, String.class),
+                row.get(3, Integer.class),
+                row.get(4, Integer.class),
+                row.get(5, Instant.class),
+                row.get(6, Instant.class),
+                Arrays.stream(offsets).mapToLong(Long::longValue).toArray(),
+                row.get(8, Instant[].class)
+        );
+    }
+}
@@ -0,0 +1,20 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.model.PostChange;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Post writes and hard deletes after a (changedAt, id) position, oldest
+ * first. Only changes stamped before settledBefore are returned.
+ */
+public interface PostChangesRepository {
+
+    Flux<PostChange> findChangesSince(UUID userId,
+                                      Instant sinceChangedAt,
+                                      UUID sinceId,
+                                      Instant settledBefore,
+                                      int limit);
+}
@@ -0,0 +1,66 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.model.PostChange;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Each branch is limited on its own so it stays an ordered seek on its
+ * (user_id, ts, id) index; without that, a backlog of changes makes the
+ * planner scan every row of the user and sort. The two are then merged.
+ * Soft-deleted posts come back as regular changes with status 'deleted'.
+ */
+@RequiredArgsConstructor
+public class PostChangesRepositoryImpl implements PostChangesRepository {
+
+    static final String CHANGES_SINCE = """
+(SELECT %s, updated_at_utc AS changed_at, false AS removed
+FROM posts
+WHERE user_id = :userId
+  AND (updated_at_utc, id) > (:sinceChangedAt, :sinceId)
+  AND updated_at_utc < :settledBefore
+ORDER BY updated_at_utc, id
+LIMIT :limit)
+UNION ALL
+(SELECT post_id, NULL, NULL, NULL, NULL, NULL, deleted_at_utc, true
+FROM post_tombstones
+WHERE user_id = :userId
+  AND (deleted_at_utc, post_id) > (:sinceChangedAt, :sinceId)
+  AND deleted_at_utc < :settledBefore
+ORDER BY deleted_at_utc, post_id
+LIMIT :limit)
+ORDER BY changed_at, id
+LIMIT :limit
+""".formatted(PostViewRowMapper.COLUMNS);
+
+    private final R2dbcEntityTemplate template;
+
+    @Override
+    public Flux<PostChange> findChangesSince(UUID userId, Instant sinceChangedAt, UUID sinceId,
+                                             Instant settledBefore, int limit) {
+        return template.getDatabaseClient()
+                .sql(CHANGES_SINCE)
+                .bind("userId", userId)
+                .bind("sinceChangedAt", sinceChangedAt)
+                .bind("sinceId", sinceId)
+                .bind("settledBefore", settledBefore)
+                .bind("limit", limit)
+                .map(this::toChange)
+                .all();
+    }
+
+    private PostChange toChange(Row row, RowMetadata metadata) {
+        UUID id = row.get(0, UUID.class);
+        Instant changedAt = row.get(PostViewRowMapper.NEXT_COLUMN, Instant.class);
+        if (Boolean.TRUE.equals(row.get(PostViewRowMapper.NEXT_COLUMN + 1, Boolean.class))) {
+            return new PostChange(id, changedAt, null);
+        }
+        return new PostChange(id, changedAt, PostViewRowMapper.map(row));
+    }
+}
@@ -0,0 +1,22 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.PostExportRow;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Streams a user's full post history, oldest first, over a single cursor.
+ * A null status exports every post except soft-deleted ones; null bounds
+ * leave that side of the scheduled_at_utc window open.
+ */
+public interface PostExportRepository {
+
+    Flux<PostExportRow> streamForExport(UUID userId,
+                                        PostStatus status,
+                                        Instant from,
+                                        Instant to,
+                                        int fetchSize);
+}
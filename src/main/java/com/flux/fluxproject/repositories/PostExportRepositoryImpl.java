@@ -0,0 +1,78 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.PostExportRow;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * The fetch size turns the query into a portal that Postgres hands over
+ * fetchSize rows at a time, and only when downstream demand asks for more,
+ * so memory stays flat however many posts the account has.
+ */
+@RequiredArgsConstructor
+public class PostExportRepositoryImpl implements PostExportRepository {
+
+    private final R2dbcEntityTemplate template;
+
+    @Override
+    public Flux<PostExportRow> streamForExport(UUID userId, PostStatus status, Instant from, Instant to, int fetchSize) {
+        DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient()
+                .sql(exportSql(status, from != null, to != null))
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .bind("userId", userId);
+
+        if (from != null) {
+            spec = spec.bind("from", from);
+        }
+        if (to != null) {
+            spec = spec.bind("to", to);
+        }
+
+        return spec
+                .map((row, metadata) -> toExportRow(row))
+                .all();
+    }
+
+    static String exportSql(PostStatus status, boolean hasFrom, boolean hasTo) {
+        StringBuilder sql = new StringBuilder("""
+SELECT id, platform, content, media_urls, status,
+       scheduled_at_utc, published_at_utc, created_at_utc, error_message
+FROM posts
+WHERE user_id = :userId
+""");
+        sql.append("  AND ").append(PostListingRepositoryImpl.statusPredicate(status)).append('\n');
+        if (hasFrom) {
+            sql.append("  AND scheduled_at_utc >= :from\n");
+        }
+        if (hasTo) {
+            sql.append("  AND scheduled_at_utc < :to\n");
+        }
+        sql.append("ORDER BY scheduled_at_utc, id\n");
+        return sql.toString();
+    }
+
+    // By position, in the order of the SELECT list above
+    private static PostExportRow toExportRow(Row row) {
+        String status = row.get(4, String.class);
+        String[] mediaUrls = row.get(3, String[].class);
+        return new PostExportRow(
+                row.get(0, UUID.class),
+                row.get(1, String.class),
+                row.get(2, String.class),
+                mediaUrls == null ? null : Arrays.asList(mediaUrls),
+                status == null ? null : PostStatus.valueOf(status),
+                row.get(5, Instant.class),
+                row.get(6, Instant.class),
+                row.get(7, Instant.class),
+                row.get(8, String.class)
+        );
+    }
+}
@@ -0,0 +1,34 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.PostViewResponse;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Keyset-paginated post listing. A null status lists every post except
+ * soft-deleted ones.
+ * <p>
+ * {@link #findPreviousPage} returns the posts just before the given one in
+ * ascending order, i.e. nearest first.
+ */
+public interface PostListingRepository {
+
+    Flux<PostViewResponse> findFirstPage(UUID userId,
+                                         PostStatus status,
+                                         int limit);
+
+    Flux<PostViewResponse> findNextPage(UUID userId,
+                                        PostStatus status,
+                                        Instant lastScheduledAt,
+                                        UUID lastId,
+                                        int limit);
+
+    Flux<PostViewResponse> findPreviousPage(UUID userId,
+                                            PostStatus status,
+                                            Instant firstScheduledAt,
+                                            UUID firstId,
+                                            int limit);
+}
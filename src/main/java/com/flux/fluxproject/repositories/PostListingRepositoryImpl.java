@@ -0,0 +1,130 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.PostViewResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The status is inlined as a literal rather than bound, so every status gets
+ * its own statement and plan. That lets Postgres pick the matching partial
+ * index (idx_posts_user_sched_id_*) and seek on it, instead of settling on a
+ * generic plan that filters rows of the full index.
+ * <p>
+ * Previous pages seek the other way on the same index, ascending from the
+ * cursor, so they come back oldest first; callers reverse them.
+ * <p>
+ * posts is range-partitioned on scheduled_at_utc. The row comparison does
+ * not prune partitions, so cursor pages repeat its first half as a plain
+ * bound; the first page needs none, as the partitions are scanned in order
+ * and the LIMIT stops at the newest ones.
+ */
+@RequiredArgsConstructor
+public class PostListingRepositoryImpl implements PostListingRepository {
+
+    private static final String FIRST_PAGE = """
+SELECT %s
+FROM posts
+WHERE user_id = :userId
+  AND %s
+ORDER BY scheduled_at_utc DESC, id DESC
+LIMIT :limit
+""";
+
+    private static final String NEXT_PAGE = """
+SELECT %s
+FROM posts
+WHERE user_id = :userId
+  AND %s
+  AND (scheduled_at_utc, id) < (:lastScheduledAt, :lastId)
+  AND scheduled_at_utc <= :lastScheduledAt
+ORDER BY scheduled_at_utc DESC, id DESC
+LIMIT :limit
+""";
+
+    private static final String PREVIOUS_PAGE = """
+SELECT %s
+FROM posts
+WHERE user_id = :userId
+  AND %s
+  AND (scheduled_at_utc, id) > (:firstScheduledAt, :firstId)
+  AND scheduled_at_utc >= :firstScheduledAt
+ORDER BY scheduled_at_utc, id
+LIMIT :limit
+""";
+
+    private static final String ALL_FIRST_PAGE = FIRST_PAGE.formatted(PostViewRowMapper.COLUMNS, statusPredicate(null));
+    private static final String ALL_NEXT_PAGE = NEXT_PAGE.formatted(PostViewRowMapper.COLUMNS, statusPredicate(null));
+    private static final String ALL_PREVIOUS_PAGE = PREVIOUS_PAGE.formatted(PostViewRowMapper.COLUMNS, statusPredicate(null));
+    private static final Map<PostStatus, String> FIRST_PAGE_BY_STATUS = byStatus(FIRST_PAGE);
+    private static final Map<PostStatus, String> NEXT_PAGE_BY_STATUS = byStatus(NEXT_PAGE);
+    private static final Map<PostStatus, String> PREVIOUS_PAGE_BY_STATUS = byStatus(PREVIOUS_PAGE);
+
+    private final R2dbcEntityTemplate template;
+
+    @Override
+    public Flux<PostViewResponse> findFirstPage(UUID userId, PostStatus status, int limit) {
+        return template.getDatabaseClient()
+                .sql(firstPageSql(status))
+                .bind("userId", userId)
+                .bind("limit", limit)
+                .map((row, metadata) -> PostViewRowMapper.map(row))
+                .all();
+    }
+
+    @Override
+    public Flux<PostViewResponse> findNextPage(UUID userId, PostStatus status, Instant lastScheduledAt, UUID lastId, int limit) {
+        return template.getDatabaseClient()
+                .sql(nextPageSql(status))
+                .bind("userId", userId)
+                .bind("lastScheduledAt", lastScheduledAt)
+                .bind("lastId", lastId)
+                .bind("limit", limit)
+                .map((row, metadata) -> PostViewRowMapper.map(row))
+                .all();
+    }
+
+    @Override
+    public Flux<PostViewResponse> findPreviousPage(UUID userId, PostStatus status, Instant firstScheduledAt, UUID firstId, int limit) {
+        return template.getDatabaseClient()
+                .sql(previousPageSql(status))
+                .bind("userId", userId)
+                .bind("firstScheduledAt", firstScheduledAt)
+                .bind("firstId", firstId)
+                .bind("limit", limit)
+                .map((row, metadata) -> PostViewRowMapper.map(row))
+                .all();
+    }
+
+    static String firstPageSql(PostStatus status) {
+        return status == null ? ALL_FIRST_PAGE : FIRST_PAGE_BY_STATUS.get(status);
+    }
+
+    static String nextPageSql(PostStatus status) {
+        return status == null ? ALL_NEXT_PAGE : NEXT_PAGE_BY_STATUS.get(status);
+    }
+
+    static String previousPageSql(PostStatus status) {
+        return status == null ? ALL_PREVIOUS_PAGE : PREVIOUS_PAGE_BY_STATUS.get(status);
+    }
+
+    static String statusPredicate(PostStatus status) {
+        return status == null
+                ? "status <> 'deleted'"
+                : "status = '" + status.name() + "'";
+    }
+
+    private static Map<PostStatus, String> byStatus(String template) {
+        Map<PostStatus, String> sql = new EnumMap<>(PostStatus.class);
+        for (PostStatus status : PostStatus.values()) {
+            sql.put(status, template.formatted(PostViewRowMapper.COLUMNS, statusPredicate(status)));
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,45 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.model.BulkPostRequest;
+import com.flux.fluxproject.model.PostMutationResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * User edits to a post, each one conditional statement: the post must belong
+ * to the user, still be a draft or scheduled, and, when an expected version
+ * is given, still be at that version.
+ * <p>
+ * The bulk variants apply the same ownership and status rules to every
+ * selected post in one set-based statement and return the ids they changed.
+ */
+public interface PostMutationRepository {
+
+    /** A null text or scheduledAt leaves that field as it is. */
+    Mono<PostMutationResult> updateIfEditable(UUID userId,
+                                              UUID postId,
+                                              String text,
+                                              Instant scheduledAt,
+                                              Long expectedVersion);
+
+    /** Soft delete: moves the post to 'deleted'. */
+    Mono<PostMutationResult> deleteIfEditable(UUID userId,
+                                              UUID postId,
+                                              Long expectedVersion);
+
+    /** Soft deletes the selected drafts and scheduled posts. */
+    Flux<UUID> deleteAllEditable(UUID userId, BulkPostRequest selection);
+
+    /** Moves the selected scheduled posts to 'cancelled'. */
+    Flux<UUID> cancelAllScheduled(UUID userId, BulkPostRequest selection);
+
+    /**
+     * Shifts the selected drafts and scheduled posts by offset. Scheduled
+     * posts that would land in the past are left alone.
+     */
+    Flux<UUID> rescheduleAllEditable(UUID userId, BulkPostRequest selection, Duration offset);
+}
@@ -0,0 +1,162 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.model.BulkPostRequest;
+import com.flux.fluxproject.model.PostMutationResult;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The UPDATE re-checks its conditions against the latest committed row, so
+ * a post the scheduler claims in the meantime is left alone and reported as
+ * a status conflict (the snapshot still shows it editable, at the expected
+ * version if one was given). The outcome is worked out from the same
+ * statement's snapshot of the row, so a miss costs no second round trip.
+ * <p>
+ * Callers only know the post id, so the lookup probes every partition once;
+ * the UPDATE then matches the full key (id, scheduled_at_utc) it found.
+ */
+@RequiredArgsConstructor
+public class PostMutationRepositoryImpl implements PostMutationRepository {
+
+    // target's columns are renamed so the RETURNING list stays unambiguous
+    private static final String CONDITIONAL_UPDATE = """
+WITH target AS (
+    SELECT id AS target_id, scheduled_at_utc AS target_scheduled_at,
+           user_id AS owner_id, status AS current_status, version AS current_version
+    FROM posts
+    WHERE id = :postId
+), updated AS (
+    UPDATE posts p
+    SET %s
+    FROM target t
+    WHERE p.id = t.target_id
+      AND p.scheduled_at_utc = t.target_scheduled_at
+      AND p.user_id = :userId
+      AND p.status IN ('draft', 'scheduled')
+      AND (CAST(:expectedVersion AS bigint) IS NULL OR p.version = :expectedVersion)
+    RETURNING %s
+)
+SELECT u.*,
+       CASE
+           WHEN u.id IS NOT NULL THEN 'UPDATED'
+           WHEN t.target_id IS NULL THEN 'NOT_FOUND'
+           WHEN t.owner_id <> :userId THEN 'FORBIDDEN'
+           WHEN t.current_status NOT IN ('draft', 'scheduled') THEN 'STATUS_CONFLICT'
+           WHEN CAST(:expectedVersion AS bigint) IS NOT NULL
+                AND t.current_version <> :expectedVersion THEN 'VERSION_CONFLICT'
+           ELSE 'STATUS_CONFLICT'
+       END AS outcome
+FROM (SELECT 1) one
+LEFT JOIN target t ON true
+LEFT JOIN updated u ON true
+""";
+
+    private static final String UPDATE_SQL = CONDITIONAL_UPDATE.formatted("""
+content = coalesce(:text, p.content),
+        scheduled_at_utc = coalesce(:scheduledAt, p.scheduled_at_utc)""", PostViewRowMapper.COLUMNS);
+
+    private static final String DELETE_SQL = CONDITIONAL_UPDATE.formatted("""
+status = 'deleted',
+        deleted_at_utc = now()""", PostViewRowMapper.COLUMNS);
+
+    // %1$s: SET list, %2$s: allowed statuses, %3$s: selection, %4$s: extra conditions
+    private static final String BULK_UPDATE = """
+UPDATE posts
+SET %1$s
+WHERE user_id = :userId
+  AND status IN (%2$s)
+  AND (CAST(:status AS text) IS NULL OR status = CAST(:status AS text))
+  AND %3$s%4$s
+RETURNING id
+""";
+
+    private static final String BY_IDS = "id = ANY(:ids)";
+
+    private static final String BY_WINDOW = "scheduled_at_utc >= :from AND scheduled_at_utc < :to";
+
+    private static final String SHIFTED = "scheduled_at_utc + :offsetMicros * interval '1 microsecond'";
+
+    private final R2dbcEntityTemplate template;
+
+    @Override
+    public Mono<PostMutationResult> updateIfEditable(UUID userId, UUID postId, String text,
+                                                     Instant scheduledAt, Long expectedVersion) {
+        DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient()
+                .sql(UPDATE_SQL)
+                .bind("postId", postId)
+                .bind("userId", userId);
+        spec = text == null ? spec.bindNull("text", String.class) : spec.bind("text", text);
+        spec = scheduledAt == null ? spec.bindNull("scheduledAt", Instant.class) : spec.bind("scheduledAt", scheduledAt);
+        return execute(spec, expectedVersion);
+    }
+
+    @Override
+    public Mono<PostMutationResult> deleteIfEditable(UUID userId, UUID postId, Long expectedVersion) {
+        DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient()
+                .sql(DELETE_SQL)
+                .bind("postId", postId)
+                .bind("userId", userId);
+        return execute(spec, expectedVersion);
+    }
+
+    @Override
+    public Flux<UUID> deleteAllEditable(UUID userId, BulkPostRequest selection) {
+        return ids(bulk(userId, selection, "status = 'deleted', deleted_at_utc = now()", "'draft', 'scheduled'", ""));
+    }
+
+    @Override
+    public Flux<UUID> cancelAllScheduled(UUID userId, BulkPostRequest selection) {
+        return ids(bulk(userId, selection, "status = 'cancelled'", "'scheduled'", ""));
+    }
+
+    @Override
+    public Flux<UUID> rescheduleAllEditable(UUID userId, BulkPostRequest selection, Duration offset) {
+        return ids(bulk(userId, selection, "scheduled_at_utc = " + SHIFTED, "'draft', 'scheduled'",
+                "\n  AND (status = 'draft' OR " + SHIFTED + " > now())")
+                .bind("offsetMicros", offset.toNanos() / 1_000));
+    }
+
+    private static Flux<UUID> ids(DatabaseClient.GenericExecuteSpec spec) {
+        return spec.map(row -> row.get("id", UUID.class)).all();
+    }
+
+    private DatabaseClient.GenericExecuteSpec bulk(UUID userId, BulkPostRequest selection,
+                                                   String set, String statuses, String conditions) {
+        boolean byIds = selection.ids() != null;
+        DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient()
+                .sql(BULK_UPDATE.formatted(set, statuses, byIds ? BY_IDS : BY_WINDOW, conditions))
+                .bind("userId", userId);
+        spec = selection.status() == null
+                ? spec.bindNull("status", String.class)
+                : spec.bind("status", selection.status().name());
+        if (byIds) {
+            return spec.bind("ids", selection.ids().toArray(UUID[]::new));
+        }
+        return spec.bind("from", selection.from()).bind("to", selection.to());
+    }
+
+    private Mono<PostMutationResult> execute(DatabaseClient.GenericExecuteSpec spec, Long expectedVersion) {
+        spec = expectedVersion == null
+                ? spec.bindNull("expectedVersion", Long.class)
+                : spec.bind("expectedVersion", expectedVersion);
+        return spec.map(this::toResult).one();
+    }
+
+    private PostMutationResult toResult(Row row, RowMetadata metadata) {
+        PostMutationResult.Outcome outcome = PostMutationResult.Outcome.valueOf(
+                row.get(PostViewRowMapper.NEXT_COLUMN, String.class));
+        if (outcome != PostMutationResult.Outcome.UPDATED) {
+            return new PostMutationResult(outcome, null);
+        }
+        return new PostMutationResult(outcome, PostViewRowMapper.map(row));
+    }
+}
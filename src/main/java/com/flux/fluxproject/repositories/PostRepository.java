@@ -1,7 +1,9 @@
 package com.flux.fluxproject.repositories;
 
 import com.flux.fluxproject.domain.Post;
-import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.CalendarDayRow;
+import com.flux.fluxproject.model.PostStatusCount;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
@@ -10,14 +12,22 @@ import reactor.core.publisher.Mono;
 import java.time.Instant;
 import java.util.UUID;
 
-public interface PostRepository extends ReactiveCrudRepository<Post, UUID> {
+public interface PostRepository extends ReactiveCrudRepository<Post, UUID>, PostListingRepository, PostExportRepository,
+        PostSearchRepository, PostChangesRepository, PostMutationRepository, PostArchiveRepository {
 
+    /**
+     * Claims posts due between notBefore and now, oldest first. The bound
+     * keeps the scan on the partitions from notBefore on: the regular claim
+     * passes the start of the claim window, the catch-up pass the time of
+     * the oldest overdue post (see findOldestDueBefore).
+     */
     @Query("""
 WITH due AS (
-    SELECT id 
+    SELECT id, scheduled_at_utc
     FROM posts 
     WHERE status = 'scheduled' 
       AND scheduled_at_utc <= now()
+      AND scheduled_at_utc >= :notBefore
     ORDER BY scheduled_at_utc ASC
     FOR UPDATE SKIP LOCKED
     LIMIT :batchSize
@@ -27,9 +37,24 @@ SET status = 'publishing',
     updated_at_utc = now()
 FROM due
 WHERE p.id = due.id
+  AND p.scheduled_at_utc = due.scheduled_at_utc
 RETURNING *
 """)
-    Flux<Post> claimDuePosts(int batchSize);
+    Flux<Post> claimDuePosts(Instant notBefore, int batchSize);
+
+    /**
+     * Schedule time of the oldest scheduled post due before the given time,
+     * if any. An ordered walk of idx_posts_due that stops at the first row.
+     */
+    @Query("""
+SELECT scheduled_at_utc
+FROM posts
+WHERE status = 'scheduled'
+  AND scheduled_at_utc < :before
+ORDER BY scheduled_at_utc
+LIMIT 1
+""")
+    Mono<Instant> findOldestDueBefore(Instant before);
 
     @Query("""
 UPDATE posts
@@ -38,9 +63,10 @@ SET status = 'published',
     error_message = NULL,
     updated_at_utc = now()
 WHERE id = :postId
+  AND scheduled_at_utc = :scheduledAt
 RETURNING *
 """)
-    Mono<Post> markPublished(UUID postId, Instant publishedAt);
+    Mono<Post> markPublished(UUID postId, Instant scheduledAt, Instant publishedAt);
 
     @Query("""
 UPDATE posts 
@@ -49,53 +75,192 @@ SET status = 'failed',
     retry_count = retry_count + 1,
     updated_at_utc = now()
 WHERE id = :postId
+  AND scheduled_at_utc = :scheduledAt
 RETURNING *
 """)
-    Mono<Post> markFailed(UUID postId , String error);
-
-    Flux<Post> findByUserId(UUID userId);
+    Mono<Post> markFailed(UUID postId, Instant scheduledAt, String error);
 
+    /**
+     * Live posts in [from, to), one row per day in the given time zone,
+     * oldest day first. A range scan on the user's scheduled_at_utc index.
+     */
     @Query("""
-SELECT *
+SELECT (scheduled_at_utc AT TIME ZONE :timeZone)::date AS day,
+       count(*) AS post_count,
+       json_agg(json_build_object(
+                'id', id,
+                'content', content,
+                'status', status,
+                'scheduledAtUtc', to_char(scheduled_at_utc AT TIME ZONE 'UTC', 'YYYY-MM-DD"T"HH24:MI:SS.US"Z"'),
+                'mediaUrls', media_urls,
+                'version', version)
+            ORDER BY scheduled_at_utc, id)::text AS posts
 FROM posts
 WHERE user_id = :userId
-  AND (:status IS NULL OR status = :status)
-ORDER BY scheduled_at_utc DESC, id DESC
-LIMIT :limit
+  AND status <> 'deleted'
+  AND scheduled_at_utc >= :from
+  AND scheduled_at_utc < :to
+GROUP BY day
+ORDER BY day
 """)
-    Flux<Post> findFirstPage(UUID userId,
-                             PostStatus status,
-                             int limit);
+    Flux<CalendarDayRow> findCalendarDays(UUID userId, Instant from, Instant to, String timeZone);
 
-    @Query("""
-SELECT *
-FROM posts
-WHERE user_id = :userId
-  AND (:status IS NULL OR status = :status)
-  AND (
-        scheduled_at_utc < :lastScheduledAt
-        OR (scheduled_at_utc = :lastScheduledAt AND id < :lastId)
-      )
-ORDER BY scheduled_at_utc DESC, id DESC
-LIMIT :limit
-""")
-    Flux<Post> findNextPage(UUID userId,
-                            PostStatus status,
-                            Instant lastScheduledAt,
-                            UUID lastId,
-                            int limit);
+    Flux<Post> findByUserId(UUID userId);
 
     Mono<Post> findById(UUID id);
 
     Mono<Void> deleteById(UUID id);
 
+    /**
+     * Hard-deletes one batch of posts soft-deleted before the cutoff, oldest
+     * first via idx_posts_deleted_at, and returns their ids. SKIP LOCKED
+     * keeps batches on concurrently running nodes disjoint.
+     */
     @Query("""
-SELECT *
-FROM posts
-WHERE status = 'deleted'
-  AND deleted_at_utc <= now() - (:days * interval '1 day')
+DELETE FROM posts
+WHERE (id, scheduled_at_utc) IN (
+    SELECT id, scheduled_at_utc
+    FROM posts
+    WHERE status = 'deleted'
+      AND deleted_at_utc < :cutoff
+    ORDER BY deleted_at_utc
+    LIMIT :batchSize
+    FOR UPDATE SKIP LOCKED
+)
+RETURNING id
 """)
-    Flux<Post> findDeletedOlderThan(int days);
+    Flux<UUID> purgeDeletedBefore(Instant cutoff, int batchSize);
 
-}
+    /**
+     * Deletes one batch of tombstones recorded before the cutoff, oldest
+     * first. Rows locked by another node are skipped.
+     */
+    @Modifying
+    @Query("""
+DELETE FROM post_tombstones t
+USING (
+    SELECT post_id
+    FROM post_tombstones
+    WHERE deleted_at_utc < :cutoff
+    ORDER BY deleted_at_utc
+    LIMIT :batchSize
+    FOR UPDATE SKIP LOCKED
+) batch
+WHERE t.post_id = batch.post_id
+""")
+    Mono<Long> deleteTombstonesBefore(Instant cutoff, int batchSize);
+
+    /** Archived posts are counted from their segments, as they left posts and post_counters. */
+    @Query("""
+SELECT status, CAST(sum(post_count) AS bigint) AS post_count
+FROM (
+    SELECT status, post_count
+    FROM post_counters
+    WHERE user_id = :userId
+    UNION ALL
+    SELECT 'published', published_count
+    FROM post_archive_segments
+    WHERE user_id = :userId
+    UNION ALL
+    SELECT 'failed', failed_count
+    FROM post_archive_segments
+    WHERE user_id = :userId
+) counts
+GROUP BY status
+""")
+    Flux<PostStatusCount> findStatusCounts(UUID userId);
+
+    /**
+     * Takes the next batch of users (by id, after afterUserId) and row-locks
+     * all of their counters until the transaction ends, so the posts
+     * triggers cannot move them while they are recounted. A zero counter is
+     * created first for any status the user has posts in but no counter
+     * for, so that one is locked too. Other users' writes are never blocked.
+     * Returns the batch's user ids in order.
+     */
+    @Query("""
+WITH batch AS (
+    SELECT id
+    FROM users
+    WHERE id > :afterUserId
+    ORDER BY id
+    LIMIT :batchSize
+),
+seeded AS (
+    INSERT INTO post_counters (user_id, status, post_count)
+    SELECT DISTINCT p.user_id, p.status, 0
+    FROM posts p
+    JOIN batch b ON b.id = p.user_id
+    ORDER BY p.user_id, p.status
+    ON CONFLICT (user_id, status) DO NOTHING
+    RETURNING 1
+),
+locked AS (
+    SELECT pc.user_id
+    FROM post_counters pc
+    JOIN batch b ON b.id = pc.user_id
+    ORDER BY pc.user_id, pc.status
+    FOR UPDATE OF pc
+)
+SELECT b.id
+FROM batch b
+CROSS JOIN (SELECT count(*) FROM locked) l
+ORDER BY b.id
+""")
+    Flux<UUID> lockCounterBatch(UUID afterUserId, int batchSize);
+
+    /**
+     * Recounts the given users from posts and overwrites any counter that
+     * drifted; returns how many were corrected. Run in a statement of its
+     * own after lockCounterBatch, so it counts every change committed
+     * before the locks were granted.
+     */
+    @Query("""
+WITH actual AS (
+    SELECT user_id, status, count(*) AS post_count
+    FROM posts
+    WHERE user_id = ANY(:userIds)
+    GROUP BY user_id, status
+),
+corrected AS (
+    INSERT INTO post_counters AS pc (user_id, status, post_count)
+    SELECT user_id, status, post_count
+    FROM actual
+    ORDER BY user_id, status
+    ON CONFLICT (user_id, status)
+        DO UPDATE SET post_count = EXCLUDED.post_count
+        WHERE pc.post_count <> EXCLUDED.post_count
+    RETURNING 1
+),
+zeroed AS (
+    UPDATE post_counters pc
+    SET post_count = 0
+    WHERE pc.user_id = ANY(:userIds)
+      AND pc.post_count <> 0
+      AND NOT EXISTS (
+          SELECT 1
+          FROM actual a
+          WHERE a.user_id = pc.user_id
+            AND a.status = pc.status)
+    RETURNING 1
+)
+SELECT (SELECT count(*) FROM corrected) + (SELECT count(*) FROM zeroed)
+""")
+    Mono<Long> reconcileCounters(UUID[] userIds);
 
+    /**
+     * Transaction-scoped, so it is released on commit. Only one node runs
+     * partition maintenance at a time; the others get false and skip it.
+     */
+    @Query("SELECT pg_try_advisory_xact_lock(hashtext('posts_partition_maintenance'))")
+    Mono<Boolean> tryLockPartitionMaintenance();
+
+    /** Creates the missing monthly partitions from this month on; returns how many. */
+    @Query("SELECT posts_create_partitions(now(), now() + make_interval(months => :monthsAhead))")
+    Mono<Integer> createPartitionsAhead(int monthsAhead);
+
+    /** Detaches (or drops) partitions ending on or before the cutoff; returns their names. */
+    @Query("SELECT posts_detach_partitions_before(:cutoff, :drop)")
+    Flux<String> detachPartitionsBefore(Instant cutoff, boolean drop);
+
+}
@@ -0,0 +1,27 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.PostSearchHit;
+import reactor.core.publisher.Flux;
+
+import java.util.UUID;
+
+/**
+ * Full-text search over post content, best match first. The query uses web
+ * search syntax ("quoted phrases", or, -excluded). A null status searches
+ * every post except soft-deleted ones.
+ */
+public interface PostSearchRepository {
+
+    Flux<PostSearchHit> searchFirstPage(UUID userId,
+                                        String query,
+                                        PostStatus status,
+                                        int limit);
+
+    Flux<PostSearchHit> searchNextPage(UUID userId,
+                                       String query,
+                                       PostStatus status,
+                                       float lastRank,
+                                       UUID lastId,
+                                       int limit);
+}
@@ -0,0 +1,84 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.PostSearchHit;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Flux;
+
+import java.util.UUID;
+
+/**
+ * Matches come from the (user_id, content_tsv) GIN index; only the matching
+ * rows are ranked and sorted. Pages continue from (rank, id), so a page
+ * boundary is stable even when several posts share a rank. The status is
+ * inlined the same way as in {@link PostListingRepositoryImpl}.
+ * <p>
+ * Each search is planned for its actual user and terms. A cached generic
+ * plan only sees the average posts-per-user, so it walks a user_id btree
+ * and rechecks every row, which is exactly wrong for the heavy accounts
+ * search is for. Connections are opened with plan_cache_mode set to
+ * force_custom_plan (see {@link com.flux.fluxproject.config.R2dbcConfig}),
+ * so the bound values below are planned on every execution.
+ */
+@RequiredArgsConstructor
+public class PostSearchRepositoryImpl implements PostSearchRepository {
+
+    private static final String SEARCH = """
+SELECT %s, ts_rank(content_tsv, websearch_to_tsquery('simple', :query)) AS rank
+FROM posts
+WHERE user_id = :userId
+  AND %s
+  AND content_tsv @@ websearch_to_tsquery('simple', :query)
+%sORDER BY rank DESC, id DESC
+LIMIT :limit
+""";
+
+    private static final String AFTER_CURSOR =
+            "  AND (ts_rank(content_tsv, websearch_to_tsquery('simple', :query)), id) < (:lastRank, :lastId)\n";
+
+    private final R2dbcEntityTemplate template;
+
+    @Override
+    public Flux<PostSearchHit> searchFirstPage(UUID userId, String query, PostStatus status, int limit) {
+        return template.getDatabaseClient()
+                .sql(searchSql(status, false))
+                .bind("userId", userId)
+                .bind("query", textOf(query))
+                .bind("limit", limit)
+                .map(this::toHit)
+                .all();
+    }
+
+    @Override
+    public Flux<PostSearchHit> searchNextPage(UUID userId, String query, PostStatus status,
+                                              float lastRank, UUID lastId, int limit) {
+        return template.getDatabaseClient()
+                .sql(searchSql(status, true))
+                .bind("userId", userId)
+                .bind("query", textOf(query))
+                .bind("lastRank", lastRank)
+                .bind("lastId", lastId)
+                .bind("limit", limit)
+                .map(this::toHit)
+                .all();
+    }
+
+    static String searchSql(PostStatus status, boolean afterCursor) {
+        return SEARCH.formatted(
+                PostViewRowMapper.COLUMNS,
+                PostListingRepositoryImpl.statusPredicate(status),
+                afterCursor ? AFTER_CURSOR : "");
+    }
+
+    // text cannot hold NUL and Postgres rejects a parameter containing one
+    private static String textOf(String query) {
+        return query.replace("\0", "");
+    }
+
+    private PostSearchHit toHit(Row row, RowMetadata metadata) {
+        return new PostSearchHit(PostViewRowMapper.map(row), row.get(PostViewRowMapper.NEXT_COLUMN, Float.class));
+    }
+}
@@ -0,0 +1,37 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.PostViewResponse;
+import io.r2dbc.spi.Row;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Reads a {@link PostViewResponse} straight off the row by position,
+ * skipping entity hydration. Queries select {@link #COLUMNS} first, in this
+ * order; anything they select after that is left to the caller.
+ */
+final class PostViewRowMapper {
+
+    static final String COLUMNS = "id, content, status, scheduled_at_utc, media_urls, version";
+
+    static final int NEXT_COLUMN = 6;
+
+    private PostViewRowMapper() {
+    }
+
+    static PostViewResponse map(Row row) {
+        String status = row.get(2, String.class);
+        String[] mediaUrls = row.get(4, String[].class);
+        return new PostViewResponse(
+                row.get(0, UUID.class),
+                row.get(1, String.class),
+                status == null ? null : PostStatus.valueOf(status),
+                row.get(3, Instant.class),
+                mediaUrls == null ? null : Arrays.asList(mediaUrls),
+                row.get(5, Long.class)
+        );
+    }
+}
@@ -1,10 +1,15 @@
 package com.flux.fluxproject.repositories;
 
 import com.flux.fluxproject.domain.SocialAccount;
+import com.flux.fluxproject.model.AuthDataReencryptionProgress;
+import com.flux.fluxproject.model.SealedAuthData;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.OffsetDateTime;
 import java.util.UUID;
 
 public interface SocialAccountRepository extends ReactiveCrudRepository<SocialAccount, UUID> {
@@ -33,4 +38,91 @@ public interface SocialAccountRepository extends ReactiveCrudRepository<SocialAc
     LIMIT 1
 """)
     Mono<UUID> findSocialAccountIdByUserId(UUID userId);
+
+    /**
+     * Inserts the connected account, or refreshes the existing row when the same
+     * user connects the same platform account again, in a single statement.
+     * Empty when that platform account is linked to a different user; the row
+     * is left untouched so it is never moved away from posts that use it.
+     */
+    @Query("""
+INSERT INTO social_accounts (user_id, platform, platform_user_id, username, profile_image_url,
+                             auth_data, expires_at, is_active)
+VALUES (:userId, :platform, :platformUserId, :username, :profileImageUrl,
+        :authData, :expiresAt, true)
+ON CONFLICT (platform, platform_user_id) DO UPDATE
+SET username = EXCLUDED.username,
+    profile_image_url = EXCLUDED.profile_image_url,
+    auth_data = EXCLUDED.auth_data,
+    expires_at = EXCLUDED.expires_at,
+    is_active = true,
+    updated_at = now()
+WHERE social_accounts.user_id = EXCLUDED.user_id
+RETURNING *
+""")
+    Mono<SocialAccount> upsertByPlatformUserId(UUID userId,
+                                               String platform,
+                                               String platformUserId,
+                                               String username,
+                                               String profileImageUrl,
+                                               String authData,
+                                               OffsetDateTime expiresAt);
+
+    /**
+     * Returns the re-encryption progress towards the key, creating it on the
+     * first call, and locks it until the transaction ends so batches never
+     * run side by side. Empty once the key's pass has completed.
+     */
+    @Query("""
+INSERT INTO auth_data_reencryption_progress AS p (key_id)
+VALUES (:keyId)
+ON CONFLICT (key_id) DO UPDATE
+SET updated_at = p.updated_at
+WHERE p.completed_at IS NULL
+RETURNING *
+""")
+    Mono<AuthDataReencryptionProgress> lockReencryptionProgress(String keyId);
+
+    @Query("""
+SELECT id, auth_data
+FROM social_accounts
+WHERE id > :afterId
+ORDER BY id
+LIMIT :batchSize
+""")
+    Flux<SealedAuthData> findAuthDataBatch(UUID afterId, int batchSize);
+
+    /**
+     * Writes the resealed values in one statement, each only if auth_data still
+     * holds the value it was resealed from; a token refresh in between wins.
+     */
+    @Modifying
+    @Query("""
+UPDATE social_accounts sa
+SET auth_data = v.resealed
+FROM unnest(:ids, :previous, :resealed) AS v(id, previous, resealed)
+WHERE sa.id = v.id
+  AND sa.auth_data = v.previous
+""")
+    Mono<Integer> resealAuthData(UUID[] ids, String[] previous, String[] resealed);
+
+    @Query("""
+UPDATE auth_data_reencryption_progress
+SET last_account_id = :lastAccountId,
+    scanned = scanned + :scanned,
+    resealed = resealed + :resealed,
+    conflicts = conflicts + :conflicts,
+    failed = failed + :failed,
+    updated_at = now(),
+    completed_at = CASE WHEN :completed THEN now() END
+WHERE key_id = :keyId
+RETURNING *
+""")
+    Mono<AuthDataReencryptionProgress> advanceReencryptionProgress(String keyId,
+                                                                   UUID lastAccountId,
+                                                                   int scanned,
+                                                                   int resealed,
+                                                                   int conflicts,
+                                                                   int failed,
+                                                                   boolean completed);
 }
@@ -15,4 +15,26 @@
         // simple update query to set enabled (verified)
         @Query("UPDATE users SET enabled = true, updated_at = now() WHERE id = :id")
         Mono<Void> setEnabledTrue(UUID id);
+
+        // Inserts the user, or returns the existing row for this keycloak_id.
+        // The no-op DO UPDATE is what makes RETURNING yield the existing row.
+        @Query("""
+        INSERT INTO users (keycloak_id, email, name, created_at, updated_at)
+        VALUES (:keycloakId, :email, :name, now(), now())
+        ON CONFLICT (keycloak_id) DO UPDATE
+        SET keycloak_id = EXCLUDED.keycloak_id
+        RETURNING *
+        """)
+        Mono<User> upsertByKeycloakId(String keycloakId, String email, String name);
+
+        // Moves an existing local user (matched by email) onto a new Keycloak identity
+        @Query("""
+        UPDATE users
+        SET keycloak_id = :keycloakId,
+            name = :name,
+            updated_at = now()
+        WHERE email = :email
+        RETURNING *
+        """)
+        Mono<User> relinkByEmail(String email, String keycloakId, String name);
     }
@@ -0,0 +1,158 @@
+package com.flux.fluxproject.schedulers;
+
+import com.flux.fluxproject.model.AuthDataReencryptionProgress;
+import com.flux.fluxproject.model.SealedAuthData;
+import com.flux.fluxproject.repositories.SocialAccountRepository;
+import com.flux.fluxproject.services.utils.EncryptionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reseals social_accounts.auth_data that is not yet sealed with
+ * aes.active-key-id, so a key can be rotated while the app keeps serving.
+ * Accounts are read in id order a batch at a time, resealed on the parallel
+ * scheduler with bounded concurrency and written back with one conditional
+ * UPDATE per batch. Each batch runs in its own short transaction holding
+ * the key's progress row, which records where the next batch starts: a
+ * restart resumes there, and nodes take turns instead of overlapping.
+ * <p>
+ * Nothing happens without an active key id, or once the pass to the
+ * active key has completed.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class AuthDataReencryptionScheduler {
+
+    private static final int LOG_EVERY_BATCHES = 20;
+
+    private final SocialAccountRepository socialAccountRepository;
+    private final EncryptionUtil encryptionUtil;
+    private final TransactionalOperator transactionalOperator;
+
+    @Value("${app.security.reencryption.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.security.reencryption.batch-pause:PT0.1S}")
+    private Duration batchPause;
+
+    @Value("${app.security.reencryption.concurrency:4}")
+    private int concurrency;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /** An account's auth_data as read, and as resealed with the active key. */
+    private record Resealed(SealedAuthData account, String authData) {}
+
+    @Scheduled(initialDelayString = "${app.security.reencryption.initial-delay:PT1M}",
+            fixedDelayString = "${app.security.reencryption.interval:PT10M}")
+    public void reencryptAuthData() {
+        String keyId = encryptionUtil.activeKeyId();
+        if (keyId == null) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.info("Auth data re-encryption already running, skipping this tick");
+            return;
+        }
+        long started = System.nanoTime();
+        reencrypt(keyId)
+                .doFinally(sig -> running.set(false))
+                .subscribe(
+                        progress -> log.info("Auth data re-encryption to key {} {} after {} ms: {}",
+                                keyId, progress.completedAt() != null ? "completed" : "stopped",
+                                Duration.ofNanos(System.nanoTime() - started).toMillis(), describe(progress)),
+                        e -> log.error("Auth data re-encryption to key {} failed", keyId, e)
+                );
+    }
+
+    /**
+     * Resumes the pass to keyId and runs it to completion; emits the final
+     * progress, or nothing if that pass had already completed.
+     */
+    Mono<AuthDataReencryptionProgress> reencrypt(String keyId) {
+        return reencryptBatches(keyId, null, 1);
+    }
+
+    /**
+     * Runs batch after batch, pausing in between, until the pass completes.
+     * Emits the last progress seen, or nothing if the pass was already done.
+     */
+    private Mono<AuthDataReencryptionProgress> reencryptBatches(String keyId, AuthDataReencryptionProgress last, int batch) {
+        return transactionalOperator.transactional(
+                        socialAccountRepository.lockReencryptionProgress(keyId)
+                                .flatMap(this::reencryptBatch))
+                .flatMap(progress -> {
+                    if (progress.completedAt() != null) {
+                        return Mono.just(progress);
+                    }
+                    if (batch % LOG_EVERY_BATCHES == 0) {
+                        log.info("Auth data re-encryption to key {} in progress: {}", keyId, describe(progress));
+                    }
+                    return Mono.delay(batchPause)
+                            .then(Mono.defer(() -> reencryptBatches(keyId, progress, batch + 1)));
+                })
+                .switchIfEmpty(Mono.justOrEmpty(last));
+    }
+
+    private Mono<AuthDataReencryptionProgress> reencryptBatch(AuthDataReencryptionProgress progress) {
+        return socialAccountRepository.findAuthDataBatch(progress.lastAccountId(), batchSize)
+                .collectList()
+                .flatMap(accounts -> {
+                    List<SealedAuthData> stale = accounts.stream()
+                            .filter(account -> !encryptionUtil.isSealedWithActiveKey(account.authData()))
+                            .toList();
+                    UUID lastAccountId = accounts.isEmpty() ? progress.lastAccountId() : accounts.getLast().id();
+
+                    return reseal(stale)
+                            .flatMap(resealed -> write(resealed)
+                                    .flatMap(written -> socialAccountRepository.advanceReencryptionProgress(
+                                            progress.keyId(),
+                                            lastAccountId,
+                                            accounts.size(),
+                                            written,
+                                            resealed.size() - written,
+                                            stale.size() - resealed.size(),
+                                            accounts.size() < batchSize)));
+                });
+    }
+
+    // Values that do not open are left as they are and counted as failed
+    private Mono<List<Resealed>> reseal(List<SealedAuthData> stale) {
+        return Flux.fromIterable(stale)
+                .flatMap(account -> Mono.fromCallable(() -> new Resealed(account, encryptionUtil.reseal(account.authData())))
+                        .subscribeOn(Schedulers.parallel())
+                        .onErrorResume(e -> {
+                            log.warn("Could not reseal auth_data of social account {}: {}", account.id(), e.toString());
+                            return Mono.empty();
+                        }), concurrency)
+                .collectList();
+    }
+
+    private Mono<Integer> write(List<Resealed> resealed) {
+        if (resealed.isEmpty()) {
+            return Mono.just(0);
+        }
+        return socialAccountRepository.resealAuthData(
+                resealed.stream().map(r -> r.account().id()).toArray(UUID[]::new),
+                resealed.stream().map(r -> r.account().authData()).toArray(String[]::new),
+                resealed.stream().map(Resealed::authData).toArray(String[]::new));
+    }
+
+    private static String describe(AuthDataReencryptionProgress progress) {
+        return "scanned=%d, resealed=%d, conflicts=%d, failed=%d, lastAccountId=%s".formatted(
+                progress.scanned(), progress.resealed(), progress.conflicts(), progress.failed(), progress.lastAccountId());
+    }
+}
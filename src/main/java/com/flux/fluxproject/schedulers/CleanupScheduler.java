@@ -1,10 +1,22 @@
 package com.flux.fluxproject.schedulers;
 
 import com.flux.fluxproject.repositories.PostRepository;
+import com.flux.fluxproject.storage.service.StorageService;
+import com.flux.fluxproject.storage.util.ObjectKeyGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -12,11 +24,116 @@ import org.springframework.stereotype.Component;
 public class CleanupScheduler {
 
     private final PostRepository postRepository;
+    private final StorageService storageService;
+    private final ObjectKeyGenerator objectKeyGenerator;
+
+    @Value("${app.cleanup.posts.retention:P30D}")
+    private Duration deletedPostRetention;
+
+    @Value("${app.cleanup.posts.batch-size:500}")
+    private int purgeBatchSize;
+
+    @Value("${app.cleanup.posts.batch-pause:PT0.2S}")
+    private Duration purgeBatchPause;
+
+    @Value("${app.cleanup.posts.media-concurrency:8}")
+    private int mediaConcurrency;
+
+    // Sync tokens older than this are rejected (see PostSyncService), so the tombstones can go.
+    @Value("${app.posts.changes.tombstone-retention:P30D}")
+    private Duration tombstoneRetention;
 
+    @Value("${app.cleanup.tombstones.batch-size:1000}")
+    private int tombstoneBatchSize;
+
+    @Value("${app.cleanup.tombstones.batch-pause:PT0.2S}")
+    private Duration tombstoneBatchPause;
+
+    private final AtomicBoolean purging = new AtomicBoolean(false);
+
+    /** Running totals of one purge run. */
+    private record PurgeTotals(long posts, long mediaObjects, long mediaFailures) {
+
+        PurgeTotals plus(long posts, MediaTotals media) {
+            return new PurgeTotals(this.posts + posts, mediaObjects + media.objects(), mediaFailures + media.failures());
+        }
+    }
+
+    private record MediaTotals(long objects, long failures) {}
+
+    /**
+     * Hard-deletes posts soft-deleted longer than the retention, one
+     * set-based batch at a time, then their media under posts/{postId}/.
+     * Media is removed after the rows, so a failed prefix leaves orphaned
+     * objects (logged) rather than rows pointing at missing media.
+     */
     @Scheduled(cron = "0 0 3 * * ?")  // every day at 3 AM
     public void cleanupDeletedPosts() {
-        postRepository.findDeletedOlderThan(30) // posts deleted >30 days ago
-                .flatMap(post -> postRepository.deleteById(post.getId()))
-                .subscribe(count -> log.info("Deleted soft-deleted post permanently"));
+        if (!purging.compareAndSet(false, true)) {
+            log.info("Deleted post purge already running, skipping this run");
+            return;
+        }
+        Instant cutoff = Instant.now().minus(deletedPostRetention);
+        long started = System.nanoTime();
+        purgeDeletedBatches(cutoff, new PurgeTotals(0, 0, 0))
+                .doFinally(sig -> purging.set(false))
+                .subscribe(
+                        totals -> log.info("Purged {} soft-deleted posts and {} media objects in {} ms (cutoff={}, failedMediaPrefixes={})",
+                                totals.posts(), totals.mediaObjects(),
+                                Duration.ofNanos(System.nanoTime() - started).toMillis(), cutoff, totals.mediaFailures()),
+                        e -> log.error("Failed to purge soft-deleted posts", e)
+                );
+    }
+
+    private Mono<PurgeTotals> purgeDeletedBatches(Instant cutoff, PurgeTotals soFar) {
+        return postRepository.purgeDeletedBefore(cutoff, purgeBatchSize)
+                .collectList()
+                .flatMap(postIds -> deleteMedia(postIds)
+                        .flatMap(media -> {
+                            PurgeTotals totals = soFar.plus(postIds.size(), media);
+                            if (postIds.size() < purgeBatchSize) {
+                                return Mono.just(totals);
+                            }
+                            return Mono.delay(purgeBatchPause)
+                                    .then(Mono.defer(() -> purgeDeletedBatches(cutoff, totals)));
+                        }));
+    }
+
+    // The S3 client blocks, so prefixes are deleted on boundedElastic
+    private Mono<MediaTotals> deleteMedia(List<UUID> postIds) {
+        return Flux.fromIterable(postIds)
+                .flatMap(postId -> {
+                    String prefix = objectKeyGenerator.postPrefix(postId);
+                    return Mono.fromCallable(() -> new MediaTotals(storageService.deletePrefix(prefix), 0))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .onErrorResume(e -> {
+                                log.warn("Failed to delete media under {}", prefix, e);
+                                return Mono.just(new MediaTotals(0, 1));
+                            });
+                }, mediaConcurrency)
+                .reduce(new MediaTotals(0, 0),
+                        (a, b) -> new MediaTotals(a.objects() + b.objects(), a.failures() + b.failures()));
+    }
+
+    @Scheduled(cron = "0 15 3 * * ?")  // every day at 3:15 AM
+    public void purgeExpiredTombstones() {
+        Instant cutoff = Instant.now().minus(tombstoneRetention);
+        purgeTombstoneBatches(cutoff, 0L)
+                .subscribe(
+                        total -> log.info("Purged {} post tombstones (cutoff={})", total, cutoff),
+                        e -> log.error("Failed to purge post tombstones", e)
+                );
+    }
+
+    private Mono<Long> purgeTombstoneBatches(Instant cutoff, long purgedSoFar) {
+        return postRepository.deleteTombstonesBefore(cutoff, tombstoneBatchSize)
+                .flatMap(deleted -> {
+                    long total = purgedSoFar + deleted;
+                    if (deleted < tombstoneBatchSize) {
+                        return Mono.just(total);
+                    }
+                    return Mono.delay(tombstoneBatchPause)
+                            .then(Mono.defer(() -> purgeTombstoneBatches(cutoff, total)));
+                });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package com.flux.fluxproject.schedulers;
+
+import com.flux.fluxproject.repositories.OAuth2AuthRequestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Purges oauth2_authorization_requests rows once they are past expiry plus a
+ * retention window. Every request expires ten minutes after it is created,
+ * so consumed rows are covered by the same expiry-ordered sweep.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class OAuthStateCleanupScheduler {
+
+    private final OAuth2AuthRequestRepository oAuth2AuthRequestRepository;
+
+    @Value("${app.cleanup.oauth2.retention:PT1H}")
+    private Duration retention;
+
+    @Value("${app.cleanup.oauth2.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.cleanup.oauth2.batch-pause:PT0.2S}")
+    private Duration batchPause;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Scheduled(fixedDelayString = "${app.cleanup.oauth2.interval:PT5M}")
+    public void purgeExpiredAuthRequests() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("OAuth state cleanup already running, skipping this tick");
+            return;
+        }
+        Instant cutoff = Instant.now().minus(retention);
+        purgeBatches(cutoff, 0L)
+                .doFinally(sig -> running.set(false))
+                .subscribe(
+                        total -> {
+                            if (total > 0) {
+                                log.info("Purged {} expired OAuth2 authorization requests (cutoff={})", total, cutoff);
+                            }
+                        },
+                        e -> log.error("Failed to purge expired OAuth2 authorization requests", e)
+                );
+    }
+
+    /**
+     * Deletes batch after batch, pausing in between, until a short batch
+     * signals there is nothing left before the cutoff.
+     */
+    private Mono<Long> purgeBatches(Instant cutoff, long purgedSoFar) {
+        return oAuth2AuthRequestRepository.deleteExpiredBatch(cutoff, batchSize)
+                .flatMap(deleted -> {
+                    long total = purgedSoFar + deleted;
+                    if (deleted < batchSize) {
+                        return Mono.just(total);
+                    }
+                    return Mono.delay(batchPause)
+                            .then(Mono.defer(() -> purgeBatches(cutoff, total)));
+                });
+    }
+}
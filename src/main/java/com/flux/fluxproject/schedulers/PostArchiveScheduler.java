@@ -0,0 +1,94 @@
+package com.flux.fluxproject.schedulers;
+
+import com.flux.fluxproject.repositories.PostRepository;
+import com.flux.fluxproject.services.PostArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves published and failed posts older than the archive age out of posts
+ * into archive segments (see PostArchiveService). Only whole months are
+ * archived, so each month's segment is normally written once. A month that
+ * fails is logged and picked up again on the next run.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class PostArchiveScheduler {
+
+    private final PostRepository postRepository;
+    private final PostArchiveService postArchiveService;
+
+    @Value("${app.posts.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.posts.archive.after:P365D}")
+    private Duration archiveAfter;
+
+    @Value("${app.posts.archive.months-per-run:5000}")
+    private int monthsPerRun;
+
+    @Value("${app.posts.archive.concurrency:4}")
+    private int concurrency;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /** Running totals of one archive run. */
+    private record ArchiveTotals(long months, long posts, long failedMonths) {
+
+        ArchiveTotals plus(ArchiveTotals other) {
+            return new ArchiveTotals(months + other.months, posts + other.posts, failedMonths + other.failedMonths);
+        }
+    }
+
+    @Scheduled(cron = "${app.posts.archive.cron:0 0 4 * * ?}")
+    public void archivePosts() {
+        if (!enabled) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.info("Post archiving already running, skipping this run");
+            return;
+        }
+        Instant before = archiveBefore();
+        long started = System.nanoTime();
+        postRepository.findArchiveMonths(before, monthsPerRun)
+                .collectList()
+                .flatMapMany(Flux::fromIterable)
+                .flatMap(month -> postArchiveService.archiveMonth(month)
+                        .map(posts -> new ArchiveTotals(1, posts, 0))
+                        .onErrorResume(e -> {
+                            log.warn("Failed to archive posts of user {} for {}", month.userId(), month.monthStart(), e);
+                            return Mono.just(new ArchiveTotals(0, 0, 1));
+                        }), concurrency)
+                .reduce(new ArchiveTotals(0, 0, 0), ArchiveTotals::plus)
+                .doFinally(sig -> running.set(false))
+                .subscribe(
+                        totals -> log.info("Archived {} posts in {} user-months in {} ms (before={}, failedMonths={})",
+                                totals.posts(), totals.months(),
+                                Duration.ofNanos(System.nanoTime() - started).toMillis(), before, totals.failedMonths()),
+                        e -> log.error("Post archiving failed", e)
+                );
+    }
+
+    // Start of the month holding now - archiveAfter, in UTC like the segments
+    private Instant archiveBefore() {
+        return ZonedDateTime.now(ZoneOffset.UTC)
+                .minus(archiveAfter)
+                .withDayOfMonth(1)
+                .truncatedTo(ChronoUnit.DAYS)
+                .toInstant();
+    }
+}
@@ -0,0 +1,78 @@
+package com.flux.fluxproject.schedulers;
+
+import com.flux.fluxproject.repositories.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recounts post_counters from posts and fixes any drift, such as rows
+ * written while the counter triggers were disabled. Users are handled in
+ * small batches, each in its own short transaction that row-locks only
+ * that batch's counters, so only those users' post writes wait, and only
+ * briefly.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class PostCounterReconciliationScheduler {
+
+    private static final UUID BEFORE_FIRST_USER = new UUID(0L, 0L);
+
+    private final PostRepository postRepository;
+    private final TransactionalOperator transactionalOperator;
+
+    @Value("${app.posts.counters.reconcile-batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.posts.counters.reconcile-batch-pause:PT0.1S}")
+    private Duration batchPause;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /** One reconciled batch of users and how many of their counters were off. */
+    private record Batch(UUID lastUserId, long corrected) {}
+
+    @Scheduled(cron = "${app.posts.counters.reconcile-cron:0 30 3 * * ?}")
+    public void reconcileCounters() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Post counter reconciliation already running, skipping this run");
+            return;
+        }
+        reconcile()
+                .doFinally(sig -> running.set(false))
+                .subscribe(
+                        total -> log.info("Post counter reconciliation finished, {} counters corrected", total),
+                        e -> log.error("Post counter reconciliation failed", e)
+                );
+    }
+
+    /** Reconciles every user, batch after batch; emits how many counters were corrected. */
+    Mono<Long> reconcile() {
+        return reconcileBatches(BEFORE_FIRST_USER, 0L);
+    }
+
+    private Mono<Long> reconcileBatches(UUID afterUserId, long correctedSoFar) {
+        return transactionalOperator.transactional(
+                        postRepository.lockCounterBatch(afterUserId, batchSize)
+                                .collectList()
+                                .filter(userIds -> !userIds.isEmpty())
+                                .flatMap(userIds -> postRepository.reconcileCounters(userIds.toArray(UUID[]::new))
+                                        .map(corrected -> new Batch(userIds.getLast(), corrected))))
+                .flatMap(batch -> {
+                    long total = correctedSoFar + batch.corrected();
+                    return Mono.delay(batchPause)
+                            .then(Mono.defer(() -> reconcileBatches(batch.lastUserId(), total)));
+                })
+                // No users left after afterUserId
+                .defaultIfEmpty(correctedSoFar);
+    }
+}
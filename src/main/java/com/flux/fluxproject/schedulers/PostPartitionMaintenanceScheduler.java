@@ -0,0 +1,81 @@
+package com.flux.fluxproject.schedulers;
+
+import com.flux.fluxproject.repositories.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the monthly posts partitions in shape: creates them monthsAhead
+ * months in advance, so no insert or reschedule within the scheduling
+ * horizon finds its month missing, and detaches (or drops) those older than
+ * the retention. One node does the work per run, under an advisory lock.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class PostPartitionMaintenanceScheduler {
+
+    private final PostRepository postRepository;
+    private final TransactionalOperator transactionalOperator;
+
+    @Value("${app.posts.partitions.months-ahead:14}")
+    private int monthsAhead;
+
+    // 0 keeps every partition
+    @Value("${app.posts.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${app.posts.partitions.drop-detached:false}")
+    private boolean dropDetached;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Scheduled(cron = "${app.posts.partitions.maintenance-cron:0 45 2 * * ?}")
+    public void maintainPartitions() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Post partition maintenance already running, skipping this run");
+            return;
+        }
+        transactionalOperator.transactional(
+                        postRepository.tryLockPartitionMaintenance()
+                                .flatMap(locked -> locked ? rollPartitions() : Mono.<Boolean>empty()))
+                .doFinally(sig -> running.set(false))
+                .subscribe(
+                        rolled -> log.debug("Post partition maintenance done"),
+                        e -> log.error("Post partition maintenance failed", e)
+                );
+    }
+
+    private Mono<Boolean> rollPartitions() {
+        Mono<List<String>> detached = retentionMonths <= 0
+                ? Mono.just(List.of())
+                : postRepository.detachPartitionsBefore(retentionCutoff(), dropDetached).collectList();
+
+        return postRepository.createPartitionsAhead(monthsAhead)
+                .flatMap(created -> detached
+                        .doOnNext(names -> log.info("Post partitions: {} created, {} {} {}",
+                                created, names.size(), dropDetached ? "dropped" : "detached", names)))
+                .thenReturn(true);
+    }
+
+    // Start of the oldest month kept, in UTC like the partition bounds
+    private Instant retentionCutoff() {
+        return ZonedDateTime.now(ZoneOffset.UTC)
+                .withDayOfMonth(1)
+                .truncatedTo(ChronoUnit.DAYS)
+                .minusMonths(retentionMonths)
+                .toInstant();
+    }
+}
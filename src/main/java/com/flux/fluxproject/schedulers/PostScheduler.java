@@ -3,30 +3,60 @@ package com.flux.fluxproject.schedulers;
 import com.flux.fluxproject.services.X.SchedulingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Publishes due posts. The regular tick only claims within the claim window;
+ * the catch-up pass, run at startup and then periodically, publishes
+ * scheduled posts that fell behind it.
+ */
 @Slf4j
 @RequiredArgsConstructor
 @Component
 public class PostScheduler {
 
+    private static final int BATCH_SIZE = 15;
+
     private final SchedulingService schedulingService;
 
     private final AtomicBoolean running = new AtomicBoolean(false);
 
+    private final AtomicBoolean catchingUp = new AtomicBoolean(false);
+
     @Scheduled(fixedDelay = 30000)
     public void checkDuePosts(){
         if (!running.compareAndSet(false, true)){
             log.info("Scheduler already running, skipping this tick");
             return;
         }
-        schedulingService.executePosting(15)
+        schedulingService.executePosting(BATCH_SIZE)
                 .doFinally(sig->running.set(false))
                 .subscribe();
 
     }
 
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.posts.scheduling.catch-up-cron:0 30 * * * ?}")
+    public void catchUpMissedPosts() {
+        if (!catchingUp.compareAndSet(false, true)) {
+            log.info("Missed post catch-up already running, skipping this run");
+            return;
+        }
+        schedulingService.catchUpMissedPosts(BATCH_SIZE)
+                .doFinally(sig -> catchingUp.set(false))
+                .subscribe(
+                        claimed -> {
+                            if (claimed > 0) {
+                                log.warn("Claimed {} scheduled posts that fell behind the claim window", claimed);
+                            }
+                        },
+                        e -> log.error("Missed post catch-up failed", e)
+                );
+    }
+
 }
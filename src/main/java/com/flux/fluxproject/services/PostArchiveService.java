@@ -0,0 +1,407 @@
+package com.flux.fluxproject.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.ArchiveMonth;
+import com.flux.fluxproject.model.ArchiveSegment;
+import com.flux.fluxproject.model.ArchivedPost;
+import com.flux.fluxproject.model.PostChangeEvent;
+import com.flux.fluxproject.model.PostCursor;
+import com.flux.fluxproject.model.PostViewResponse;
+import com.flux.fluxproject.repositories.PostRepository;
+import com.flux.fluxproject.storage.service.StorageService;
+import com.flux.fluxproject.storage.util.ObjectKeyGenerator;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves old published and failed posts into per-(user, month) archive
+ * segments, and reads them back for the listing.
+ * <p>
+ * A segment is NDJSON, newest post first, gzipped in blocks of blockRows
+ * posts. The manifest row records where each block starts and its oldest
+ * post, so a read seeks to the first block it needs and streams from there
+ * with one ranged GET, decompressing block by block; a listing page that
+ * only needs a few posts stops after a block or two.
+ * <p>
+ * The object is uploaded before the rows are deleted, and the delete and
+ * the manifest update commit together, so a failure at any point leaves
+ * each post in posts or in a recorded segment. Segments are written once
+ * per month unless late rows turn up; the superseded object is then
+ * deleted, and a listing that was reading it at that moment fails once.
+ * <p>
+ * Listings only consult the manifest while archiving is enabled, and only
+ * when the page reaches down to the user's newest archived post. That time
+ * is cached per user and dropped whenever a segment is written, on every
+ * node, through the change notifier.
+ */
+@Slf4j
+@Service
+public class PostArchiveService {
+
+    static final String SEGMENT_CONTENT_TYPE = "application/gzip";
+
+    /** Postgres compares uuids bytewise, i.e. as unsigned numbers; UUID.compareTo is signed. */
+    public static final Comparator<UUID> UUID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    /** Ascending (scheduled_at_utc, id), the listing's keyset order. */
+    public static final Comparator<PostViewResponse> LISTING_ORDER = Comparator
+            .comparing(PostViewResponse::scheduledAtUtc)
+            .thenComparing(PostViewResponse::id, UUID_ORDER);
+
+    private static final Comparator<ArchivedPost> NEWEST_FIRST = Comparator
+            .comparing(ArchivedPost::scheduledAtUtc)
+            .thenComparing(ArchivedPost::id, UUID_ORDER)
+            .reversed();
+
+    private static final Duration NEWEST_ARCHIVED_TTL = Duration.ofMinutes(10);
+
+    private final PostRepository postRepository;
+    private final StorageService storageService;
+    private final ObjectKeyGenerator objectKeyGenerator;
+    private final ObjectMapper objectMapper;
+    private final TransactionalOperator transactionalOperator;
+    private final PostChangeNotifier notifier;
+
+    /** Per user, the scheduled time of their newest archived post, if any. */
+    private final AsyncCache<UUID, Optional<Instant>> newestArchived = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(NEWEST_ARCHIVED_TTL)
+            .buildAsync();
+
+    @Value("${app.posts.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.posts.archive.block-rows:256}")
+    private int blockRows;
+
+    public PostArchiveService(
+            PostRepository postRepository,
+            StorageService storageService,
+            ObjectKeyGenerator objectKeyGenerator,
+            ObjectMapper objectMapper,
+            TransactionalOperator transactionalOperator,
+            PostChangeNotifier notifier) {
+        this.postRepository = postRepository;
+        this.storageService = storageService;
+        this.objectKeyGenerator = objectKeyGenerator;
+        this.objectMapper = objectMapper;
+        this.transactionalOperator = transactionalOperator;
+        this.notifier = notifier;
+
+        // Segment writes are broadcast as user-wide changes
+        notifier.changes().subscribe(event -> {
+            if (event.isResync()) {
+                newestArchived.synchronous().invalidateAll();
+            } else if (!event.isSinglePost()) {
+                newestArchived.synchronous().invalidate(event.userId());
+            }
+        });
+    }
+
+    /** Encoded segment content and the manifest row describing it. */
+    record EncodedSegment(ArchiveSegment segment, byte[] content) {}
+
+    /** Only published and failed posts are archived; listings of other statuses never read segments. */
+    public static boolean covers(PostStatus status) {
+        return status == null || status == PostStatus.published || status == PostStatus.failed;
+    }
+
+    /** Whether listings of this status merge in archived posts at all. */
+    public boolean merges(PostStatus status) {
+        return enabled && covers(status);
+    }
+
+    /**
+     * Whether the user has archived posts scheduled at or after the given
+     * time (null: any). Answered from the per-user cache, so a page that
+     * stays above the newest archived post never queries the manifest.
+     */
+    public Mono<Boolean> hasArchivedSince(UUID userId, Instant since) {
+        return Mono.fromFuture(() -> newestArchived.get(userId, (id, executor) -> postRepository.findNewestArchivedAt(id)
+                                .map(Optional::of)
+                                .defaultIfEmpty(Optional.empty())
+                                .toFuture()), true)
+                .map(newest -> newest.filter(time -> since == null || !time.isBefore(since)).isPresent());
+    }
+
+    /**
+     * Archived posts after the position in listing order (older), newest
+     * first. A null position starts from the newest. Posts older than
+     * notBefore are not needed and not read.
+     */
+    public Flux<PostViewResponse> findBefore(UUID userId, PostStatus status, PostCursor position,
+                                             Instant notBefore, int limit) {
+        Instant upTo = position == null ? null : position.scheduledAt();
+        return postRepository.findSegmentsBefore(userId, upTo, notBefore)
+                .concatMap(segment -> readBlocks(segment, firstBlockAtOrBefore(segment, upTo), segment.blockCount()))
+                .map(ArchivedPost::toView)
+                .filter(post -> position == null || compare(post, position) < 0)
+                .filter(post -> status == null || post.status() == status)
+                .takeWhile(post -> notBefore == null || !post.scheduledAtUtc().isBefore(notBefore))
+                .take(limit);
+    }
+
+    /**
+     * Archived posts before the position in listing order (newer), nearest
+     * first. Posts newer than notAfter are not needed and not returned.
+     */
+    public Flux<PostViewResponse> findAfter(UUID userId, PostStatus status, PostCursor position,
+                                            Instant notAfter, int limit) {
+        return postRepository.findSegmentsAfter(userId, position.scheduledAt(), notAfter)
+                .concatMap(segment -> readBlocks(segment, 0, lastBlockAfter(segment, position.scheduledAt()) + 1)
+                        .map(ArchivedPost::toView)
+                        .filter(post -> compare(post, position) > 0)
+                        .collectList()
+                        .flatMapIterable(List::reversed))
+                .filter(post -> status == null || post.status() == status)
+                .takeWhile(post -> notAfter == null || !post.scheduledAtUtc().isAfter(notAfter))
+                .take(limit);
+    }
+
+    /**
+     * Merges two lists sorted by the same order into its first limit posts.
+     * A post can turn up in both while it is being archived; the repeat is
+     * dropped.
+     */
+    public static List<PostViewResponse> merge(List<PostViewResponse> first, List<PostViewResponse> second,
+                                               Comparator<PostViewResponse> order, int limit) {
+        if (second.isEmpty()) {
+            return first.size() <= limit ? first : first.subList(0, limit);
+        }
+        List<PostViewResponse> merged = new ArrayList<>(Math.min(limit, first.size() + second.size()));
+        Set<UUID> seen = new HashSet<>();
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < first.size() || j < second.size())) {
+            PostViewResponse next = j >= second.size()
+                    || (i < first.size() && order.compare(first.get(i), second.get(j)) <= 0)
+                    ? first.get(i++)
+                    : second.get(j++);
+            if (seen.add(next.id())) {
+                merged.add(next);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Archives the month's published and failed posts, folding them into
+     * the month's existing segment if there is one. Emits how many posts
+     * left the posts table.
+     */
+    public Mono<Integer> archiveMonth(ArchiveMonth month) {
+        Instant monthEnd = month.monthStart().atZone(ZoneOffset.UTC).plusMonths(1).toInstant();
+        return postRepository.findArchivablePosts(month.userId(), month.monthStart(), monthEnd)
+                .collectList()
+                .filter(posts -> !posts.isEmpty())
+                .flatMap(posts -> postRepository.findSegment(month.userId(), month.monthStart())
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(previous -> writeSegment(month, posts, previous.orElse(null))))
+                .defaultIfEmpty(0);
+    }
+
+    private Mono<Integer> writeSegment(ArchiveMonth month, List<ArchivedPost> posts, ArchiveSegment previous) {
+        Mono<List<ArchivedPost>> kept = previous == null
+                ? Mono.just(List.of())
+                : readBlocks(previous, 0, previous.blockCount()).collectList();
+        String objectKey = objectKeyGenerator.archiveSegmentKey(month.userId(), month.monthStart());
+        List<UUID> postIds = posts.stream().map(ArchivedPost::id).toList();
+
+        return kept
+                .flatMap(old -> Mono.fromCallable(() -> {
+                            EncodedSegment encoded = encode(month, objectKey, combine(old, posts));
+                            storageService.upload(objectKey, encoded.content(), SEGMENT_CONTENT_TYPE);
+                            return encoded.segment();
+                        })
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .flatMap(segment -> transactionalOperator.transactional(
+                        postRepository.moveToSegment(segment, postIds, previous == null ? null : previous.objectKey())
+                                .flatMap(moved -> moved
+                                        ? Mono.just(posts.size())
+                                        : Mono.error(new ArchiveConflictException(month)))))
+                .onErrorResume(ArchiveConflictException.class, e -> deleteQuietly(objectKey).then(Mono.error(e)))
+                .flatMap(archived -> previous == null
+                        ? Mono.just(archived)
+                        : deleteQuietly(previous.objectKey()).thenReturn(archived))
+                .flatMap(archived -> {
+                    newestArchived.synchronous().invalidate(month.userId());
+                    return notifier.publish(new PostChangeEvent(month.userId())).thenReturn(archived);
+                });
+    }
+
+    // Newest first; a post already in the old segment is replaced by its current row
+    private static List<ArchivedPost> combine(List<ArchivedPost> old, List<ArchivedPost> posts) {
+        Map<UUID, ArchivedPost> byId = new LinkedHashMap<>();
+        old.forEach(post -> byId.put(post.id(), post));
+        posts.forEach(post -> byId.put(post.id(), post));
+        List<ArchivedPost> combined = new ArrayList<>(byId.values());
+        combined.sort(NEWEST_FIRST);
+        return combined;
+    }
+
+    EncodedSegment encode(ArchiveMonth month, String objectKey, List<ArchivedPost> posts) throws IOException {
+        int blocks = (posts.size() + blockRows - 1) / blockRows;
+        long[] offsets = new long[blocks + 1];
+        Instant[] oldest = new Instant[blocks];
+        int published = 0;
+        int failed = 0;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int block = 0; block < blocks; block++) {
+            offsets[block] = out.size();
+            List<ArchivedPost> rows = posts.subList(block * blockRows, Math.min(posts.size(), (block + 1) * blockRows));
+            // Each block is a complete gzip member; closing it leaves the byte array open
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                for (ArchivedPost post : rows) {
+                    gzip.write(objectMapper.writeValueAsBytes(post));
+                    gzip.write('\n');
+                    if (post.status() == PostStatus.published) {
+                        published++;
+                    } else if (post.status() == PostStatus.failed) {
+                        failed++;
+                    }
+                }
+            }
+            oldest[block] = rows.getLast().scheduledAtUtc();
+        }
+        offsets[blocks] = out.size();
+
+        ArchiveSegment segment = new ArchiveSegment(month.userId(), month.monthStart(), objectKey, published, failed,
+                posts.getLast().scheduledAtUtc(), posts.getFirst().scheduledAtUtc(), offsets, oldest);
+        return new EncodedSegment(segment, out.toByteArray());
+    }
+
+    /**
+     * Streams blocks [fromBlock, toBlock) with one ranged read. Blocks are
+     * read and decompressed one at a time as demand asks for them, and the
+     * read is aborted on cancel.
+     */
+    private Flux<ArchivedPost> readBlocks(ArchiveSegment segment, int fromBlock, int toBlock) {
+        if (fromBlock >= toBlock) {
+            return Flux.empty();
+        }
+        long[] offsets = segment.blockOffsets();
+        return Flux.using(
+                        () -> storageService.download(segment.objectKey(), offsets[fromBlock], offsets[toBlock]),
+                        in -> Flux.range(fromBlock, toBlock - fromBlock)
+                                .concatMapIterable(block -> readBlock(in, offsets[block + 1] - offsets[block])),
+                        PostArchiveService::closeQuietly)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private List<ArchivedPost> readBlock(InputStream in, long length) {
+        try {
+            byte[] block = in.readNBytes((int) length);
+            if (block.length != length) {
+                throw new EOFException("Archive segment ended inside a block");
+            }
+            return decodeBlock(block);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    List<ArchivedPost> decodeBlock(byte[] block) throws IOException {
+        List<ArchivedPost> posts = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(block)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                posts.add(objectMapper.readValue(line, ArchivedPost.class));
+            }
+        }
+        return posts;
+    }
+
+    // First block that can hold a post at or before the time; blockCount when none can
+    static int firstBlockAtOrBefore(ArchiveSegment segment, Instant at) {
+        if (at == null) {
+            return 0;
+        }
+        Instant[] oldest = segment.blockOldest();
+        for (int block = 0; block < oldest.length; block++) {
+            if (!oldest[block].isAfter(at)) {
+                return block;
+            }
+        }
+        return oldest.length;
+    }
+
+    // Last block that can hold a post at or after the time: blocks after the
+    // first one ending strictly before it only hold older posts
+    static int lastBlockAfter(ArchiveSegment segment, Instant at) {
+        Instant[] oldest = segment.blockOldest();
+        for (int block = 0; block < oldest.length; block++) {
+            if (oldest[block].isBefore(at)) {
+                return block;
+            }
+        }
+        return oldest.length - 1;
+    }
+
+    private static int compare(PostViewResponse post, PostCursor position) {
+        int byTime = post.scheduledAtUtc().compareTo(position.scheduledAt());
+        return byTime != 0 ? byTime : UUID_ORDER.compare(post.id(), position.id());
+    }
+
+    private Mono<Void> deleteQuietly(String objectKey) {
+        return Mono.fromRunnable(() -> storageService.delete(objectKey))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(e -> {
+                    log.warn("Failed to delete archive segment {}", objectKey, e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            log.debug("Failed to close archive segment stream", e);
+        }
+    }
+
+    /** A post of the month changed, or another archiver got there first; the month is retried next run. */
+    static class ArchiveConflictException extends IllegalStateException {
+
+        ArchiveConflictException(ArchiveMonth month) {
+            super("Posts of user " + month.userId() + " for " + month.monthStart() + " changed while archiving");
+        }
+    }
+}
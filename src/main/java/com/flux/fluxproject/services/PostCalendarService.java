@@ -0,0 +1,107 @@
+package com.flux.fluxproject.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flux.fluxproject.model.CalendarDay;
+import com.flux.fluxproject.model.CalendarDayRow;
+import com.flux.fluxproject.model.PostViewResponse;
+import com.flux.fluxproject.repositories.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Calendar view: the user's posts between two local dates, bucketed per day
+ * in their time zone by a single query.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostCalendarService {
+
+    private static final TypeReference<List<PostViewResponse>> POSTS = new TypeReference<>() {};
+
+    private final PostRepository postRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.posts.calendar.max-days:62}")
+    private int maxDays;
+
+    /**
+     * @param from first day shown, inclusive
+     * @param to   day after the last day shown, exclusive
+     * @param tz   IANA zone name; UTC when absent
+     */
+    public Flux<CalendarDay> getCalendar(UUID userId, LocalDate from, LocalDate to, String tz) {
+        ZoneId zone;
+        try {
+            zone = resolveZone(tz);
+        } catch (IllegalArgumentException e) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+        }
+
+        if (!from.isBefore(to)) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'"));
+        }
+        if (ChronoUnit.DAYS.between(from, to) > maxDays) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Calendar window cannot exceed " + maxDays + " days"));
+        }
+
+        log.info("Fetching calendar | userId={} | from={} | to={} | zone={}", userId, from, to, zone);
+
+        return postRepository.findCalendarDays(
+                        userId,
+                        from.atStartOfDay(zone).toInstant(),
+                        to.atStartOfDay(zone).toInstant(),
+                        zone.getId())
+                .map(this::toCalendarDay)
+                .doOnError(error -> log.error("Error while fetching calendar for userId={}", userId, error));
+    }
+
+    private CalendarDay toCalendarDay(CalendarDayRow row) {
+        try {
+            return new CalendarDay(row.day(), row.postCount(), objectMapper.readValue(row.posts(), POSTS));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed calendar bucket for " + row.day(), e);
+        }
+    }
+
+    /**
+     * Only region zones are passed on to Postgres. It reads a bare offset
+     * such as "+02:00" with the POSIX sign, east of Greenwich being negative,
+     * so fixed offsets other than UTC are rejected instead of silently
+     * shifting every bucket.
+     */
+    static ZoneId resolveZone(String tz) {
+        if (tz == null || tz.isBlank()) {
+            return ZoneId.of("UTC");
+        }
+        ZoneId zone;
+        try {
+            zone = ZoneId.of(tz);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown time zone: " + tz);
+        }
+        if (zone.normalized() instanceof ZoneOffset offset) {
+            if (offset.getTotalSeconds() != 0) {
+                throw new IllegalArgumentException("Use a region time zone such as Europe/Berlin, not an offset: " + tz);
+            }
+            return ZoneId.of("UTC");
+        }
+        return zone;
+    }
+}
@@ -0,0 +1,156 @@
+package com.flux.fluxproject.services;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.PostChangeEvent;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Broadcasts post changes to every node through Postgres LISTEN/NOTIFY.
+ * Each node keeps one dedicated connection, outside the pool, listening on
+ * the channel. A node also receives its own notifications.
+ * <p>
+ * Payloads are the user id, followed by ",postId,status" when the change is
+ * a single post.
+ */
+@Slf4j
+@Component
+public class PostChangeNotifier {
+
+    static final String CHANNEL = "post_changes";
+
+    private static final String NOTIFY_SQL = "SELECT pg_notify('" + CHANNEL + "', :payload)";
+
+    private final ConnectionFactory connectionFactory;
+    private final DatabaseClient databaseClient;
+
+    private final Sinks.Many<PostChangeEvent> events = Sinks.many().multicast().directBestEffort();
+    private final AtomicBoolean listening = new AtomicBoolean(false);
+    private Disposable listener;
+
+    public PostChangeNotifier(ConnectionFactory connectionFactory, DatabaseClient databaseClient) {
+        this.connectionFactory = connectionFactory;
+        this.databaseClient = databaseClient;
+    }
+
+    /** Changes seen on the channel, this node's own included. */
+    public Flux<PostChangeEvent> changes() {
+        return events.asFlux();
+    }
+
+    /**
+     * False while the listener connection is down, when changes made on
+     * other nodes can go unseen.
+     */
+    public boolean isListening() {
+        return listening.get();
+    }
+
+    /**
+     * Notifies every node. A failed broadcast is logged, not propagated: the
+     * write it follows has already been committed.
+     */
+    public Mono<Void> publish(PostChangeEvent event) {
+        return databaseClient.sql(NOTIFY_SQL)
+                .bind("payload", toPayload(event))
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("Failed to broadcast post change for userId={}", event.userId(), e);
+                    return Mono.empty();
+                });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        listener = Flux.usingWhen(listenerConnection(), this::listen, Connection::close)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> {
+                            listening.set(false);
+                            log.warn("Post change listener lost, reconnecting (attempt {})",
+                                    signal.totalRetries() + 1, signal.failure());
+                        }))
+                .subscribe(events::tryEmitNext);
+    }
+
+    @PreDestroy
+    public void stopListening() {
+        listening.set(false);
+        if (listener != null) {
+            listener.dispose();
+        }
+    }
+
+    /**
+     * Emits a resync once LISTEN is in place, since anything broadcast while
+     * the connection was down is lost.
+     */
+    private Flux<PostChangeEvent> listen(PostgresqlConnection connection) {
+        return connection.createStatement("LISTEN " + CHANNEL)
+                .execute()
+                .flatMap(PostgresqlResult::getRowsUpdated)
+                .thenMany(Flux.defer(() -> {
+                    listening.set(true);
+                    log.info("Listening for post changes on channel '{}'", CHANNEL);
+                    return connection.getNotifications()
+                            .flatMap(this::toEvent)
+                            .startWith(PostChangeEvent.RESYNC);
+                }))
+                .concatWith(Mono.error(new IllegalStateException("Post change notification stream ended")));
+    }
+
+    static String toPayload(PostChangeEvent event) {
+        if (event.postId() == null) {
+            return event.userId().toString();
+        }
+        return event.userId() + "," + event.postId() + "," + event.status().name();
+    }
+
+    static PostChangeEvent fromPayload(String payload) {
+        String[] parts = payload.split(",", -1);
+        if (parts.length == 1) {
+            return new PostChangeEvent(UUID.fromString(parts[0]));
+        }
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Unexpected payload shape");
+        }
+        return new PostChangeEvent(UUID.fromString(parts[0]), UUID.fromString(parts[1]), PostStatus.valueOf(parts[2]));
+    }
+
+    private Mono<PostChangeEvent> toEvent(Notification notification) {
+        try {
+            return Mono.just(fromPayload(notification.getParameter()));
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed post change payload '{}'", notification.getParameter());
+            return Mono.empty();
+        }
+    }
+
+    // Straight from the underlying factory: a pooled connection would be held forever
+    private Mono<PostgresqlConnection> listenerConnection() {
+        ConnectionFactory factory = connectionFactory;
+        if (factory instanceof Wrapped<?> wrapped && wrapped.unwrap() instanceof ConnectionFactory target) {
+            factory = target;
+        }
+        return Mono.from(factory.create()).cast(PostgresqlConnection.class);
+    }
+}
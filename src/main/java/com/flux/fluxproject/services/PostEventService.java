@@ -0,0 +1,67 @@
+package com.flux.fluxproject.services;
+
+import com.flux.fluxproject.model.PostChangeEvent;
+import com.flux.fluxproject.model.PostStatusEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Per-user server-sent events for post writes, fed from the LISTEN/NOTIFY
+ * channel, so a write on any node reaches streams on every node.
+ * <p>
+ * Events are "post-status" with the post id and its status. A "resync" event
+ * means the client should refetch: either several of the user's posts were
+ * written at once (bulk operations, maintenance jobs), or notifications may
+ * have been missed (the listener reconnected), in which case every stream
+ * gets one. Each stream buffers at most
+ * app.posts.events.buffer-size events for a slow client; past that the stream
+ * is closed rather than letting events pile up, and the client reconnects.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostEventService {
+
+    private static final String POST_STATUS = "post-status";
+    private static final String RESYNC = "resync";
+
+    private final PostChangeNotifier notifier;
+
+    @Value("${app.posts.events.heartbeat:PT15S}")
+    private Duration heartbeat;
+
+    @Value("${app.posts.events.buffer-size:256}")
+    private int bufferSize;
+
+    public Flux<ServerSentEvent<PostStatusEvent>> stream(UUID userId) {
+        Flux<ServerSentEvent<PostStatusEvent>> events = notifier.changes()
+                .filter(event -> event.isResync() || userId.equals(event.userId()))
+                .map(this::toServerSentEvent)
+                .onBackpressureBuffer(bufferSize);
+
+        // Comments only, so proxies and load balancers keep an idle stream open
+        Flux<ServerSentEvent<PostStatusEvent>> heartbeats = Flux.interval(heartbeat)
+                .map(tick -> ServerSentEvent.<PostStatusEvent>builder().comment("heartbeat").build());
+
+        return Flux.merge(events, heartbeats)
+                .doOnSubscribe(s -> log.debug("Post event stream opened | userId={}", userId))
+                .doFinally(signal -> log.debug("Post event stream closed | userId={} | signal={}", userId, signal));
+    }
+
+    private ServerSentEvent<PostStatusEvent> toServerSentEvent(PostChangeEvent event) {
+        if (!event.isSinglePost()) {
+            return ServerSentEvent.builder(new PostStatusEvent(null, null)).event(RESYNC).build();
+        }
+        return ServerSentEvent.builder(new PostStatusEvent(event.postId(), event.status()))
+                .id(event.postId().toString())
+                .event(POST_STATUS)
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.flux.fluxproject.services;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.PostExportRow;
+import com.flux.fluxproject.repositories.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a user's post history without collecting it: rows flow from the
+ * database cursor to the response one at a time, under the client's demand.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostExportService {
+
+    static final String CSV_HEADER =
+            "id,platform,content,media_urls,status,scheduled_at_utc,published_at_utc,created_at_utc,error_message\n";
+
+    private final PostRepository postRepository;
+
+    @Value("${app.posts.export.fetch-size:500}")
+    private int fetchSize;
+
+    public Flux<PostExportRow> exportPosts(UUID userId, PostStatus status, Instant from, Instant to) {
+        if (isEmptyWindow(from, to)) {
+            return Flux.error(emptyWindow());
+        }
+
+        log.info("Exporting posts | userId={} | status={} | from={} | to={}", userId, status, from, to);
+
+        return postRepository.streamForExport(userId, status, from, to, fetchSize)
+                .doOnError(error -> log.error("Error while exporting posts for userId={}", userId, error));
+    }
+
+    public Flux<String> exportPostsAsCsv(UUID userId, PostStatus status, Instant from, Instant to) {
+        // Checked here too, so the error comes before the header commits the response
+        if (isEmptyWindow(from, to)) {
+            return Flux.error(emptyWindow());
+        }
+        return exportPosts(userId, status, from, to)
+                .map(PostExportService::toCsvLine)
+                .startWith(CSV_HEADER);
+    }
+
+    private static boolean isEmptyWindow(Instant from, Instant to) {
+        return from != null && to != null && !from.isBefore(to);
+    }
+
+    private static ResponseStatusException emptyWindow() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+    }
+
+    static String toCsvLine(PostExportRow row) {
+        return String.join(",",
+                csv(row.id()),
+                csv(row.platform()),
+                csv(row.content()),
+                csv(mediaUrls(row.mediaUrls())),
+                csv(row.status()),
+                csv(row.scheduledAtUtc()),
+                csv(row.publishedAtUtc()),
+                csv(row.createdAtUtc()),
+                csv(row.errorMessage())
+        ) + "\n";
+    }
+
+    private static String mediaUrls(List<String> mediaUrls) {
+        return mediaUrls == null ? null : mediaUrls.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(" "));
+    }
+
+    // RFC 4180: quote when the value holds a delimiter, quote or line break, doubling inner quotes
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,106 @@
+package com.flux.fluxproject.services;
+
+import com.flux.fluxproject.domain.Post;
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.CursorPageResponse;
+import com.flux.fluxproject.model.PostChangeEvent;
+import com.flux.fluxproject.model.PostViewResponse;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the first page of GET /api/posts, the page polling clients hit.
+ * <p>
+ * Every cached page is keyed by its user's current generation. Invalidating
+ * a user moves them to a fresh generation, so their old pages can never be
+ * served again and age out on their own. That includes a load that was still
+ * in flight during the write. Generations come from one sequence and are
+ * never reused, so evicting a user's generation is safe too.
+ */
+@Slf4j
+@Component
+public class PostPageCache {
+
+    private record PageKey(UUID userId, long generation, PostStatus status, int size) {}
+
+    private final PostChangeNotifier notifier;
+    private final AtomicLong generationSequence = new AtomicLong();
+    private final Cache<UUID, Long> generations;
+    private final AsyncCache<PageKey, CursorPageResponse<PostViewResponse>> firstPages;
+
+    public PostPageCache(
+            PostChangeNotifier notifier,
+            @Value("${app.posts.first-page-cache.max-size:10000}") long maxSize,
+            @Value("${app.posts.first-page-cache.ttl:PT30S}") Duration ttl) {
+        this.notifier = notifier;
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+        this.firstPages = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+
+        notifier.changes().subscribe(event -> {
+            if (event.isResync()) {
+                generations.invalidateAll();
+            } else {
+                advanceGeneration(event.userId());
+            }
+        });
+    }
+
+    /**
+     * Serves the page from cache, or loads it once for all concurrent callers.
+     * Bypassed while the notifier is not listening, as other nodes' writes
+     * would go unnoticed.
+     */
+    public Mono<CursorPageResponse<PostViewResponse>> getFirstPage(
+            UUID userId,
+            PostStatus status,
+            int size,
+            Supplier<Mono<CursorPageResponse<PostViewResponse>>> loader
+    ) {
+        if (!notifier.isListening()) {
+            return loader.get();
+        }
+        long generation = generations.get(userId, id -> generationSequence.incrementAndGet());
+        PageKey key = new PageKey(userId, generation, status, size);
+        return Mono.fromFuture(
+                () -> firstPages.get(key, (k, executor) -> loader.get().toFuture()),
+                true);
+    }
+
+    /** Drops the user's cached pages here, then on every other node. */
+    public Mono<Void> invalidate(UUID userId) {
+        return invalidate(new PostChangeEvent(userId));
+    }
+
+    /**
+     * Same as {@link #invalidate(UUID)} for a single written post; the
+     * broadcast carries its id and status for the event stream.
+     */
+    public Mono<Void> invalidate(Post post) {
+        return invalidate(new PostChangeEvent(post.getUserId(), post.getId(), post.getStatus()));
+    }
+
+    /** Same as {@link #invalidate(Post)} when only the event is at hand. */
+    public Mono<Void> invalidate(PostChangeEvent event) {
+        return Mono.fromRunnable(() -> advanceGeneration(event.userId()))
+                .then(notifier.publish(event));
+    }
+
+    private void advanceGeneration(UUID userId) {
+        generations.put(userId, generationSequence.incrementAndGet());
+    }
+}
@@ -0,0 +1,87 @@
+package com.flux.fluxproject.services;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.CursorPageResponse;
+import com.flux.fluxproject.model.PostSearchHit;
+import com.flux.fluxproject.model.PostViewResponse;
+import com.flux.fluxproject.model.SearchCursor;
+import com.flux.fluxproject.repositories.PostRepository;
+import com.flux.fluxproject.util.CursorUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostSearchService {
+
+    private static final int MAX_QUERY_LENGTH = 256;
+
+    private final PostRepository postRepository;
+    private final CursorUtil cursorUtil;
+
+    public Mono<CursorPageResponse<PostViewResponse>> search(
+            UUID userId,
+            String query,
+            PostStatus status,
+            int size,
+            String cursor
+    ) {
+        if (query == null || query.isBlank()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query is required"));
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Search query cannot exceed " + MAX_QUERY_LENGTH + " characters"));
+        }
+
+        int normalizedSize = (size <= 0) ? 20 : Math.min(size, 100);
+        int fetchSize = normalizedSize + 1;
+
+        log.info("Searching posts | userId={} | size={} | status={} | cursorPresent={}",
+                userId, normalizedSize, status, cursor != null);
+
+        Flux<PostSearchHit> hits;
+
+        if (cursor == null || cursor.isBlank()) {
+            hits = postRepository.searchFirstPage(userId, query, status, fetchSize);
+        } else {
+            SearchCursor decoded;
+            try {
+                decoded = cursorUtil.decodeSearch(cursor);
+            } catch (Exception e) {
+                log.error("Failed to decode search cursor!", e);
+                return Mono.error(new IllegalArgumentException("Invalid cursor"));
+            }
+            hits = postRepository.searchNextPage(userId, query, status, decoded.rank(), decoded.id(), fetchSize);
+        }
+
+        return hits
+                .collectList()
+                .map(results -> {
+                    boolean hasNext = results.size() > normalizedSize;
+                    List<PostSearchHit> page = hasNext ? results.subList(0, normalizedSize) : results;
+
+                    List<PostViewResponse> content = page.stream()
+                            .map(PostSearchHit::post)
+                            .toList();
+
+                    String nextCursor = null;
+                    if (hasNext) {
+                        PostSearchHit last = page.getLast();
+                        nextCursor = cursorUtil.encodeSearch(new SearchCursor(last.rank(), last.post().id()));
+                    }
+
+                    return new CursorPageResponse<>(content, nextCursor, hasNext);
+                })
+                .doOnError(error -> log.error("Error while searching posts for userId={}", userId, error));
+    }
+}
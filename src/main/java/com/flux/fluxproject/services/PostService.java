@@ -1,198 +1,441 @@
 package com.flux.fluxproject.services;
 
-import com.flux.fluxproject.domain.Post;
 import com.flux.fluxproject.domain.PostStatus;
-import com.flux.fluxproject.mappers.PostViewMapper;
+import com.flux.fluxproject.model.BulkPostRequest;
+import com.flux.fluxproject.model.BulkPostResponse;
 import com.flux.fluxproject.model.CursorPageResponse;
+import com.flux.fluxproject.model.PostChangeEvent;
 import com.flux.fluxproject.model.PostCursor;
+import com.flux.fluxproject.model.PostMutationResult;
+import com.flux.fluxproject.model.PostStatsResponse;
 import com.flux.fluxproject.model.PostViewResponse;
 import com.flux.fluxproject.model.UpdatePostRequest;
 import com.flux.fluxproject.repositories.PostRepository;
 import com.flux.fluxproject.util.CursorUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PostService {
 
+    // Sorts after every real id, so a seek from (at, MAX_ID) includes posts scheduled exactly at `at`
+    private static final UUID MAX_ID = new UUID(-1L, -1L);
+
     private final PostRepository postRepository;
-    private final PostViewMapper postViewMapper;
     private final CursorUtil cursorUtil;
+    private final PostPageCache postPageCache;
+    private final PostArchiveService postArchiveService;
+
+    @Value("${app.posts.bulk.max-ids:1000}")
+    private int bulkMaxIds;
+
+    @Value("${app.posts.scheduling.max-ahead:P365D}")
+    private Duration maxScheduleAhead;
 
     public Mono<CursorPageResponse<PostViewResponse>> getPosts(
             UUID userId,
             int size,
             PostStatus status,
-            String cursor
+            String cursor,
+            Instant at
     ) {
 
         int normalizedSize = (size <= 0) ? 20 : Math.min(size, 100);
         int fetchSize = normalizedSize + 1;
+        boolean cursorPresent = cursor != null && !cursor.isBlank();
+
+        log.info("Fetching posts | userId={} | size={} | normalizedSize={} | status={} | cursorPresent={} | at={}",
+                userId, size, normalizedSize, status, cursorPresent, at);
+
+        if (cursorPresent && at != null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "cursor and at cannot be combined"));
+        }
+
+        if (at != null) {
 
-        log.info("Fetching posts | userId={} | size={} | normalizedSize={} | status={} | cursorPresent={}",
-                userId, size, normalizedSize, status, cursor != null);
+            log.info("Jumping to scheduledAt={}", at);
 
-        Flux<Post> postFlux;
+            PostCursor position = new PostCursor(at, MAX_ID);
+            return toPage(userId, status, normalizedSize, position, withArchivedBefore(userId, status, position, fetchSize,
+                    postRepository.findNextPage(userId, status, at, MAX_ID, fetchSize)));
+        }
 
-        if (cursor == null || cursor.isBlank()) {
+        if (!cursorPresent) {
 
             log.info("Cursor is null/blank → fetching FIRST page");
 
-            postFlux = postRepository.findFirstPage(userId, status, fetchSize);
+            return getFirstPage(userId, status, normalizedSize);
+        }
+
+        log.info("Cursor provided → decoding cursor={}", cursor);
 
-        } else {
+        PostCursor decoded;
 
-            log.info("Cursor provided → decoding cursor={}", cursor);
+        try {
+            decoded = cursorUtil.decode(cursor);
+            log.info("Decoded cursor → scheduledAt={} | id={} | direction={}",
+                    decoded.scheduledAt(), decoded.id(), decoded.direction());
+        } catch (Exception e) {
+            log.error("Failed to decode cursor!", e);
+            return Mono.error(new IllegalArgumentException("Invalid cursor"));
+        }
 
-            PostCursor decoded;
+        if (decoded.direction() == PostCursor.Direction.PREVIOUS) {
+            return toPreviousPage(userId, status, normalizedSize, decoded);
+        }
 
-            try {
-                decoded = cursorUtil.decode(cursor);
-                log.info("Decoded cursor → scheduledAt={} | id={}",
-                        decoded.scheduledAt(), decoded.id());
-            } catch (Exception e) {
-                log.error("Failed to decode cursor!", e);
-                return Mono.error(new IllegalArgumentException("Invalid cursor"));
-            }
+        Flux<PostViewResponse> postFlux = postRepository.findNextPage(
+                userId,
+                status,
+                decoded.scheduledAt(),
+                decoded.id(),
+                fetchSize
+        );
+
+        return toPage(userId, status, normalizedSize, decoded, withArchivedBefore(userId, status, decoded, fetchSize, postFlux));
+    }
+
+    private Mono<CursorPageResponse<PostViewResponse>> getFirstPage(UUID userId, PostStatus status, int normalizedSize) {
+        return postPageCache.getFirstPage(userId, status, normalizedSize, () ->
+                toPage(userId, status, normalizedSize, null, withArchivedBefore(userId, status, null, normalizedSize + 1,
+                        postRepository.findFirstPage(userId, status, normalizedSize + 1))));
+    }
+
+    /**
+     * Merges archived posts into rows read from posts. When the rows
+     * fill the fetch, archived posts older than the last one cannot make the
+     * page, so segments are only read down to it, and not at all when the
+     * user's newest archived post is older still.
+     */
+    private Flux<PostViewResponse> withArchivedBefore(UUID userId, PostStatus status, PostCursor position,
+                                                      int fetchSize, Flux<PostViewResponse> postFlux) {
+        if (!postArchiveService.merges(status)) {
+            return postFlux;
+        }
+        return postFlux
+                .collectList()
+                .flatMapMany(posts -> {
+                    Instant notBefore = posts.size() < fetchSize ? null : posts.getLast().scheduledAtUtc();
+                    return postArchiveService.hasArchivedSince(userId, notBefore)
+                            .flatMapMany(archivedSince -> !archivedSince
+                                    ? Flux.fromIterable(posts)
+                                    : postArchiveService.findBefore(userId, status, position, notBefore, fetchSize)
+                                            .collectList()
+                                            .flatMapIterable(archived -> PostArchiveService.merge(
+                                                    posts, archived, PostArchiveService.LISTING_ORDER.reversed(), fetchSize)));
+                });
+    }
 
-            postFlux = postRepository.findNextPage(
-                    userId,
-                    status,
-                    decoded.scheduledAt(),
-                    decoded.id(),
-                    fetchSize
-            );
+    /** The previous-page counterpart of withArchivedBefore, nearest first. */
+    private Flux<PostViewResponse> withArchivedAfter(UUID userId, PostStatus status, PostCursor position,
+                                                     int fetchSize, Flux<PostViewResponse> postFlux) {
+        if (!postArchiveService.merges(status)) {
+            return postFlux;
         }
+        return postFlux
+                .collectList()
+                .flatMapMany(posts -> {
+                    Instant notAfter = posts.size() < fetchSize ? null : posts.getLast().scheduledAtUtc();
+                    return postArchiveService.hasArchivedSince(userId, position.scheduledAt())
+                            .flatMapMany(archivedSince -> !archivedSince
+                                    ? Flux.fromIterable(posts)
+                                    : postArchiveService.findAfter(userId, status, position, notAfter, fetchSize)
+                                            .collectList()
+                                            .flatMapIterable(archived -> PostArchiveService.merge(
+                                                    posts, archived, PostArchiveService.LISTING_ORDER, fetchSize)));
+                });
+    }
 
+    /**
+     * Builds a forward page from rows fetched one past the page size. The
+     * position is where the page was sought from (null for the first page);
+     * when the page comes back empty it also anchors the previous cursor.
+     */
+    private Mono<CursorPageResponse<PostViewResponse>> toPage(
+            UUID userId,
+            PostStatus status,
+            int normalizedSize,
+            PostCursor position,
+            Flux<PostViewResponse> postFlux
+    ) {
         return postFlux
                 .doOnNext(post ->
                         log.debug("Fetched Post → id={} | scheduledAt={} | status={}",
-                                post.getId(),
-                                post.getScheduledAtUtc(),
-                                post.getStatus()
+                                post.id(),
+                                post.scheduledAtUtc(),
+                                post.status()
                         )
                 )
                 .collectList()
-                .map(posts -> {
+                .flatMap(posts -> {
 
                     log.info("Total posts fetched from DB (including extra row) = {}", posts.size());
 
                     boolean hasNext = posts.size() > normalizedSize;
 
-                    List<Post> page = hasNext
+                    List<PostViewResponse> content = hasNext
                             ? posts.subList(0, normalizedSize)
                             : posts;
 
-                    log.info("Page size after trimming = {} | hasNext={}",
-                            page.size(), hasNext);
+                    PostCursor previousAnchor;
+                    if (position == null) {
+                        previousAnchor = null;
+                    } else if (content.isEmpty()) {
+                        previousAnchor = new PostCursor(position.scheduledAt(), position.id(), PostCursor.Direction.PREVIOUS);
+                    } else {
+                        PostViewResponse first = content.getFirst();
+                        previousAnchor = new PostCursor(first.scheduledAtUtc(), first.id(), PostCursor.Direction.PREVIOUS);
+                    }
 
-                    List<PostViewResponse> content = page.stream()
-                            .map(postViewMapper::postToPostView)
-                            .toList();
+                    return hasPostsBefore(userId, status, previousAnchor)
+                            .map(hasPrevious -> {
 
-                    String nextCursor = null;
+                                log.info("Page size after trimming = {} | hasNext={} | hasPrevious={}",
+                                        content.size(), hasNext, hasPrevious);
 
-                    if (hasNext && !page.isEmpty()) {
-                        Post last = page.getLast();
+                                String nextCursor = null;
 
-                        log.info("Generating nextCursor from → id={} | scheduledAt={}",
-                                last.getId(), last.getScheduledAtUtc());
+                                if (hasNext && !content.isEmpty()) {
+                                    PostViewResponse last = content.getLast();
 
-                        PostCursor newCursor = new PostCursor(
-                                last.getScheduledAtUtc(),
-                                last.getId()
-                        );
+                                    log.info("Generating nextCursor from → id={} | scheduledAt={}",
+                                            last.id(), last.scheduledAtUtc());
 
-                        nextCursor = cursorUtil.encode(newCursor);
+                                    nextCursor = cursorAt(last, PostCursor.Direction.NEXT);
 
-                        log.info("Encoded nextCursor={}", nextCursor);
-                    }
+                                    log.info("Encoded nextCursor={}", nextCursor);
+                                }
+
+                                String prevCursor = hasPrevious ? cursorUtil.encode(previousAnchor) : null;
 
-                    return new CursorPageResponse<>(content, nextCursor, hasNext);
+                                return new CursorPageResponse<>(List.copyOf(content), nextCursor, hasNext, prevCursor, hasPrevious);
+                            });
                 })
                 .doOnError(error ->
                         log.error("Error while fetching posts for userId={}", userId, error)
                 );
     }
 
-    public Mono<Void> deletePost(UUID userId, UUID postId) {
-        return postRepository.findById(postId)
-                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found")))
-                .flatMap(post -> {
-                    if (!post.getUserId().equals(userId)) {
-                        return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "Unauthorized"));
-                    }
-                    if (post.getStatus() != PostStatus.scheduled &&
-                            post.getStatus() != PostStatus.draft) {
-                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot delete this post"));
+    /**
+     * Whether any post sorts before the anchor, probed with a one-row seek
+     * back from it. A page reached by cursor or jump may well be the top of
+     * the listing; the first page (no anchor) always is.
+     */
+    private Mono<Boolean> hasPostsBefore(UUID userId, PostStatus status, PostCursor anchor) {
+        if (anchor == null) {
+            return Mono.just(false);
+        }
+        return withArchivedAfter(userId, status, anchor, 1,
+                postRepository.findPreviousPage(userId, status, anchor.scheduledAt(), anchor.id(), 1))
+                .hasElements();
+    }
+
+    /**
+     * Seeks back from the cursor on the same index, nearest rows first. When
+     * less than a full page is left before the cursor, those rows are the top
+     * of the listing and come back as a short page, so it never overlaps the
+     * page the cursor came from. With nothing left, the first page is served.
+     */
+    private Mono<CursorPageResponse<PostViewResponse>> toPreviousPage(
+            UUID userId,
+            PostStatus status,
+            int normalizedSize,
+            PostCursor position
+    ) {
+        return withArchivedAfter(userId, status, position, normalizedSize + 1,
+                postRepository.findPreviousPage(userId, status, position.scheduledAt(), position.id(), normalizedSize + 1))
+                .collectList()
+                .flatMap(posts -> {
+
+                    log.info("Total posts fetched from DB before cursor (including extra row) = {}", posts.size());
+
+                    if (posts.isEmpty()) {
+                        return getFirstPage(userId, status, normalizedSize);
                     }
 
-                    post.setStatus(PostStatus.deleted);
-                    post.setDeletedAtUtc(Instant.now());
-                    return postRepository.save(post)
-                            .doOnSuccess(p -> log.info("Saved post with status {}", p.getStatus()))
-                            .doOnError(e -> log.error("ERROR WHILE SAVING POST", e))
-                            .then();
-                });
+                    boolean hasPrevious = posts.size() > normalizedSize;
+                    List<PostViewResponse> content = List.copyOf(
+                            (hasPrevious ? posts.subList(0, normalizedSize) : posts).reversed());
+
+                    return Mono.just(new CursorPageResponse<>(
+                            content,
+                            cursorAt(content.getLast(), PostCursor.Direction.NEXT),
+                            true,
+                            hasPrevious ? cursorAt(content.getFirst(), PostCursor.Direction.PREVIOUS) : null,
+                            hasPrevious
+                    ));
+                })
+                .doOnError(error ->
+                        log.error("Error while fetching previous posts for userId={}", userId, error)
+                );
+    }
+
+    private String cursorAt(PostViewResponse post, PostCursor.Direction direction) {
+        return cursorUtil.encode(new PostCursor(post.scheduledAtUtc(), post.id(), direction));
+    }
+
+    /**
+     * Per-status post counts, read from the trigger-maintained post_counters
+     * table. Statuses the user has no posts in are reported as zero.
+     */
+    public Mono<PostStatsResponse> getPostStats(UUID userId) {
+        return postRepository.findStatusCounts(userId)
+                .collect(
+                        () -> {
+                            Map<PostStatus, Long> counts = new EnumMap<>(PostStatus.class);
+                            for (PostStatus status : PostStatus.values()) {
+                                counts.put(status, 0L);
+                            }
+                            return counts;
+                        },
+                        (counts, count) -> counts.put(count.status(), count.postCount())
+                )
+                .map(PostStatsResponse::new);
     }
 
+    /**
+     * Soft-deletes a draft or scheduled post in one statement; see
+     * {@link #updatePost(UUID, UUID, UpdatePostRequest, Long)} for the checks.
+     */
+    public Mono<Void> deletePost(UUID userId, UUID postId, Long expectedVersion) {
+        return postRepository.deleteIfEditable(userId, postId, expectedVersion)
+                .flatMap(result -> applied(result, userId, postId))
+                .doOnSuccess(p -> log.info("Deleted post | postId={} | version={}", postId, p.version()))
+                .then();
+    }
 
+    /**
+     * The ownership, status and version checks run inside the UPDATE, so a
+     * post the scheduler claims in between is never edited after the fact.
+     * expectedVersion comes from If-Match; null skips the version check.
+     */
     public Mono<PostViewResponse> updatePost(
             UUID userId,
             UUID postId,
-            UpdatePostRequest request
+            UpdatePostRequest request,
+            Long expectedVersion
     ) {
+        if (request.scheduledAtUtc() != null && request.scheduledAtUtc().isAfter(Instant.now().plus(maxScheduleAhead))) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Posts can be scheduled at most " + maxScheduleAhead.toDays() + " days ahead"));
+        }
+        return postRepository.updateIfEditable(userId, postId, request.text(), request.scheduledAtUtc(), expectedVersion)
+                .onErrorMap(DataIntegrityViolationException.class, PostService::outsidePartitions)
+                .flatMap(result -> applied(result, userId, postId));
+    }
 
-        return postRepository.findById(postId)
-                .switchIfEmpty(
-                        Mono.error(
-                                new ResponseStatusException(
-                                        HttpStatus.NOT_FOUND,
-                                        "Post not found"
-                                )
-                        )
-                )
-                .flatMap(post -> {
-
-                    if (!post.getUserId().equals(userId)) {
-                        return Mono.error(
-                                new ResponseStatusException(
-                                        HttpStatus.FORBIDDEN,
-                                        "Unauthorized"
-                                )
-                        );
-                    }
+    public Mono<BulkPostResponse> deletePosts(UUID userId, BulkPostRequest request) {
+        return bulk("delete", userId, request, () -> postRepository.deleteAllEditable(userId, request));
+    }
 
+    public Mono<BulkPostResponse> cancelPosts(UUID userId, BulkPostRequest request) {
+        return bulk("cancel", userId, request, () -> postRepository.cancelAllScheduled(userId, request));
+    }
 
-                    if (request.text() != null) {
-                        post.setContent(request.text());
-                    }
+    public Mono<BulkPostResponse> reschedulePosts(UUID userId, BulkPostRequest request) {
+        Duration offset = request.offset();
+        if (offset == null || offset.isZero()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "A non-zero offset is required"));
+        }
+        return bulk("reschedule", userId, request, () -> postRepository.rescheduleAllEditable(userId, request, offset));
+    }
 
+    /**
+     * Runs one set-based statement over the selection, then invalidates the
+     * user's cached pages once, which also tells event stream clients to resync.
+     */
+    private Mono<BulkPostResponse> bulk(String action, UUID userId, BulkPostRequest request,
+                                        Supplier<Flux<UUID>> statement) {
+        String invalid = validateSelection(request);
+        if (invalid != null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, invalid));
+        }
 
-                    if (request.scheduledAtUtc() != null) {
-                        post.setScheduledAtUtc(
-                                request.scheduledAtUtc()
-                        );
-                    }
+        return Flux.defer(statement)
+                .onErrorMap(DataIntegrityViolationException.class, PostService::outsidePartitions)
+                .collectList()
+                .flatMap(affected -> {
+                    log.info("Bulk {} | userId={} | affected={}", action, userId, affected.size());
+                    Mono<Void> invalidation = affected.isEmpty() ? Mono.empty() : postPageCache.invalidate(userId);
+                    return invalidation.thenReturn(new BulkPostResponse(affected, skipped(request, affected)));
+                })
+                .doOnError(error -> log.error("Bulk {} failed for userId={}", action, userId, error));
+    }
 
+    /**
+     * The only integrity check these statements can trip is a scheduled time
+     * with no posts partition to hold it: too far ahead, or older than the
+     * partitions kept.
+     */
+    private static ResponseStatusException outsidePartitions(DataIntegrityViolationException e) {
+        log.warn("Post write rejected by the database: {}", e.getMessage());
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "scheduledAtUtc is outside the schedulable range");
+    }
 
-                    post.setUpdatedAtUtc(Instant.now());
+    private String validateSelection(BulkPostRequest request) {
+        if (request.ids() != null) {
+            if (request.from() != null || request.to() != null) {
+                return "Select posts by ids or by from/to, not both";
+            }
+            if (request.ids().isEmpty() || request.ids().size() > bulkMaxIds) {
+                return "ids must contain between 1 and " + bulkMaxIds + " posts";
+            }
+            return null;
+        }
+        if (request.from() == null || request.to() == null) {
+            return "Either ids or both from and to are required";
+        }
+        if (!request.from().isBefore(request.to())) {
+            return "from must be before to";
+        }
+        return null;
+    }
 
+    private static List<UUID> skipped(BulkPostRequest request, List<UUID> affected) {
+        if (request.ids() == null) {
+            return List.of();
+        }
+        Set<UUID> done = new HashSet<>(affected);
+        List<UUID> skipped = new ArrayList<>();
+        for (UUID id : request.ids()) {
+            if (done.add(id)) {
+                skipped.add(id);
+            }
+        }
+        return skipped;
+    }
 
-                    return postRepository.save(post);
-                })
-                .map(postViewMapper::postToPostView);
+    private Mono<PostViewResponse> applied(PostMutationResult result, UUID userId, UUID postId) {
+        return switch (result.outcome()) {
+            case UPDATED -> postPageCache.invalidate(new PostChangeEvent(userId, postId, result.post().status()))
+                    .thenReturn(result.post());
+            case NOT_FOUND -> Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
+            case FORBIDDEN -> Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "Unauthorized"));
+            case STATUS_CONFLICT -> Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Post can no longer be edited"));
+            case VERSION_CONFLICT -> Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Post was modified"));
+        };
     }
 
 }
\ No newline at end of file
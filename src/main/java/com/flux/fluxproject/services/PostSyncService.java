@@ -0,0 +1,113 @@
+package com.flux.fluxproject.services;
+
+import com.flux.fluxproject.model.ChangeCursor;
+import com.flux.fluxproject.model.PostChange;
+import com.flux.fluxproject.model.PostChangesResponse;
+import com.flux.fluxproject.model.PostViewResponse;
+import com.flux.fluxproject.repositories.PostRepository;
+import com.flux.fluxproject.util.CursorUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Delta sync for clients that keep a local copy of their posts. The token is
+ * a (changedAt, id) watermark; each call returns what changed after it.
+ * <p>
+ * updated_at_utc is stamped with the writing transaction's start time, so a
+ * slow transaction can commit rows older than a token already handed out.
+ * Only changes older than the settle lag are returned, which gives in-flight
+ * transactions (and clock skew to the database) that long to commit.
+ * <p>
+ * Tombstones are kept for the retention window only. A token older than
+ * that may have missed purged tombstones, so it is rejected with 410 and the
+ * client has to sync again from scratch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostSyncService {
+
+    private static final ChangeCursor BEGINNING = new ChangeCursor(Instant.EPOCH, new UUID(0L, 0L));
+
+    private final PostRepository postRepository;
+    private final CursorUtil cursorUtil;
+
+    @Value("${app.posts.changes.settle-lag:PT5S}")
+    private Duration settleLag;
+
+    @Value("${app.posts.changes.tombstone-retention:P30D}")
+    private Duration tombstoneRetention;
+
+    public Mono<PostChangesResponse> getChanges(UUID userId, String since, int size) {
+
+        int normalizedSize = (size <= 0) ? 200 : Math.min(size, 1000);
+        Instant now = Instant.now();
+
+        ChangeCursor position;
+        if (since == null || since.isBlank()) {
+            position = BEGINNING;
+        } else {
+            try {
+                position = cursorUtil.decodeChanges(since);
+            } catch (Exception e) {
+                log.error("Failed to decode sync token!", e);
+                return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sync token"));
+            }
+            if (position.changedAt().isBefore(now.minus(tombstoneRetention))) {
+                return Mono.error(new ResponseStatusException(HttpStatus.GONE,
+                        "Sync token expired, sync again without a token"));
+            }
+        }
+
+        Instant settledBefore = now.minus(settleLag);
+
+        log.info("Fetching post changes | userId={} | size={} | since={}", userId, normalizedSize, position.changedAt());
+
+        return postRepository.findChangesSince(userId, position.changedAt(), position.id(), settledBefore, normalizedSize + 1)
+                .collectList()
+                .map(changes -> {
+                    boolean hasMore = changes.size() > normalizedSize;
+                    List<PostChange> page = hasMore ? changes.subList(0, normalizedSize) : changes;
+
+                    List<PostViewResponse> changed = new ArrayList<>();
+                    List<UUID> deleted = new ArrayList<>();
+                    for (PostChange change : page) {
+                        if (change.post() == null) {
+                            deleted.add(change.id());
+                        } else {
+                            changed.add(change.post());
+                        }
+                    }
+
+                    return new PostChangesResponse(changed, deleted, nextToken(position, page, hasMore, settledBefore), hasMore);
+                })
+                .doOnError(error -> log.error("Error while fetching post changes for userId={}", userId, error));
+    }
+
+    /**
+     * Continues after the last change while there are more. Once caught up,
+     * everything before the settle point has been delivered, so the token
+     * moves up to it; an idle client's token then never ages into a 410.
+     */
+    private String nextToken(ChangeCursor position, List<PostChange> page, boolean hasMore, Instant settledBefore) {
+        if (hasMore) {
+            PostChange last = page.getLast();
+            return cursorUtil.encodeChanges(new ChangeCursor(last.changedAt(), last.id()));
+        }
+        if (position.changedAt().isAfter(settledBefore)) {
+            return cursorUtil.encodeChanges(position);
+        }
+        return cursorUtil.encodeChanges(new ChangeCursor(settledBefore, new UUID(0L, 0L)));
+    }
+}
@@ -4,11 +4,10 @@ import com.flux.fluxproject.domain.User;
 import com.flux.fluxproject.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
-import java.time.OffsetDateTime;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -17,33 +16,18 @@ public class UserService {
 
     /**
      * Finds the local user record for a Keycloak-authenticated user.
-     * If no local record exists for this keycloakId, checks if one exists
-     * by email (e.g. re-registration / Keycloak identity drift) and re-links it.
-     * Otherwise creates a new local record — JIT provisioning.
+     * Runs as a single INSERT ... ON CONFLICT (keycloak_id) upsert, so concurrent
+     * first requests for the same identity resolve to exactly one row.
+     * If the insert collides on email (e.g. re-registration / Keycloak identity
+     * drift), the existing user is re-linked to the new keycloakId instead.
      */
     public Mono<User> findOrCreateByKeycloakId(String keycloakId, String email, String name) {
-        return userRepository.findByKeycloakId(keycloakId)
-                .switchIfEmpty(
-                        userRepository.findByEmail(email)
-                                .flatMap(existingUser -> {
-                                    log.warn("Re-linking existing user (email={}) from keycloakId {} to {}",
-                                            email, existingUser.getKeycloakId(), keycloakId);
-                                    existingUser.setKeycloakId(keycloakId);
-                                    existingUser.setName(name);
-                                    existingUser.setUpdatedAt(OffsetDateTime.now());
-                                    return userRepository.save(existingUser);
-                                })
-                                .switchIfEmpty(
-                                        userRepository.save(
-                                                User.builder()
-                                                        .keycloakId(keycloakId)
-                                                        .email(email)
-                                                        .name(name)
-                                                        .createdAt(OffsetDateTime.now())
-                                                        .updatedAt(OffsetDateTime.now())
-                                                        .build()
-                                        )
-                                )
+        return userRepository.upsertByKeycloakId(keycloakId, email, name)
+                .onErrorResume(DuplicateKeyException.class, e ->
+                        userRepository.relinkByEmail(email, keycloakId, name)
+                                .doOnNext(user -> log.warn("Re-linked existing user (email={}) to keycloakId {}",
+                                        email, keycloakId))
+                                .switchIfEmpty(Mono.error(e))
                 );
     }
 
@@ -5,12 +5,18 @@ import com.flux.fluxproject.domain.PostStatus;
 import com.flux.fluxproject.model.ScheduledPostRequest;
 import com.flux.fluxproject.repositories.PostRepository;
 import com.flux.fluxproject.repositories.SocialAccountRepository;
+import com.flux.fluxproject.services.PostPageCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
@@ -24,8 +30,29 @@ public class SchedulingService {
     private final SocialAccountRepository socialAccountRepository;
     private final XPostService xPostService;
     private final XPublishingService xPublishingService;
+    private final PostPageCache postPageCache;
+
+    // posts partitions are only created this far ahead (see PostPartitionMaintenanceScheduler)
+    @Value("${app.posts.scheduling.max-ahead:P365D}")
+    private Duration maxAhead;
+
+    @Value("${app.posts.scheduling.claim-window:P3D}")
+    private Duration claimWindow;
 
     public Mono<Post> saveScheduledPost (ScheduledPostRequest scheduledPostRequest , UUID userId){
+        Instant scheduledAt = scheduledPostRequest.getScheduledAtUtc();
+        if (scheduledAt == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "scheduled_at_utc is required"));
+        }
+        if (scheduledAt.isAfter(Instant.now().plus(maxAhead))) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Posts can be scheduled at most " + maxAhead.toDays() + " days ahead"));
+        }
+        // The regular claim does not look further back; only the catch-up pass would publish it
+        if (scheduledAt.isBefore(Instant.now().minus(claimWindow))) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Posts can be scheduled at most " + claimWindow.toDays() + " days in the past"));
+        }
         return socialAccountRepository.findByUserIdAndPlatform(userId , "X")
                 .flatMap(socialAccount->{
                     Post newPost = Post.builder()
@@ -43,11 +70,42 @@ public class SchedulingService {
                             .updatedAtUtc(Instant.now())
                             .build();
                     return postRepository.save(newPost);
-                });
+                })
+                .onErrorMap(DataIntegrityViolationException.class, SchedulingService::outsidePartitions)
+                .flatMap(this::invalidatePages);
     }
 
+    /** Publishes posts due within the claim window. */
     public Flux<Post> executePosting(int batchSize){
-        return postRepository.claimDuePosts(batchSize)
+        return publish(postRepository.claimDuePosts(Instant.now().minus(claimWindow), batchSize));
+    }
+
+    /**
+     * Publishes scheduled posts that fell behind the claim window (the
+     * scheduler was down, or could not keep up), batch after batch from the
+     * oldest one. Returns how many were claimed.
+     */
+    public Mono<Long> catchUpMissedPosts(int batchSize) {
+        return postRepository.findOldestDueBefore(Instant.now().minus(claimWindow))
+                .flatMap(oldest -> catchUpFrom(oldest, batchSize, 0L))
+                .defaultIfEmpty(0L);
+    }
+
+    private Mono<Long> catchUpFrom(Instant oldest, int batchSize, long claimedSoFar) {
+        return publish(postRepository.claimDuePosts(oldest, batchSize))
+                .count()
+                .flatMap(claimed -> {
+                    long total = claimedSoFar + claimed;
+                    if (claimed < batchSize) {
+                        return Mono.just(total);
+                    }
+                    return Mono.defer(() -> catchUpFrom(oldest, batchSize, total));
+                });
+    }
+
+    private Flux<Post> publish(Flux<Post> claimed){
+        return claimed
+                .concatMap(this::invalidatePages)
                 .flatMap(duePost ->
                                 xPublishingService.publishText(
                                                 duePost.getUserId(),
@@ -56,19 +114,31 @@ public class SchedulingService {
                                         .flatMap(resp ->
                                                 postRepository.markPublished(
                                                         duePost.getId(),
+                                                        duePost.getScheduledAtUtc(),
                                                         Instant.now()
                                                 )
                                         )
                                         .onErrorResume(e ->
                                                 postRepository.markFailed(
                                                         duePost.getId(),
+                                                        duePost.getScheduledAtUtc(),
                                                         safeMsg(e)
                                                 )
-                                        ),
+                                        )
+                                        .flatMap(this::invalidatePages),
                         2
                 );
     }
 
+    private Mono<Post> invalidatePages(Post post) {
+        return postPageCache.invalidate(post).thenReturn(post);
+    }
+
+
+    private static ResponseStatusException outsidePartitions(DataIntegrityViolationException e) {
+        log.warn("Scheduled post rejected by the database: {}", e.getMessage());
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "scheduled_at_utc is outside the schedulable range");
+    }
 
     private String safeMsg(Throwable e) {
         String msg = e.getMessage();
@@ -2,7 +2,9 @@ package com.flux.fluxproject.services.X;
 
 import com.flux.fluxproject.domain.OAuth2AuthRequest;
 import com.flux.fluxproject.domain.SocialAccount;
+import com.flux.fluxproject.exceptions.XAccountAlreadyLinkedException;
 import com.flux.fluxproject.model.XAccountInfoResponse;
+import com.flux.fluxproject.model.XAuthTokens;
 import com.flux.fluxproject.model.XTokenResponse;
 import com.flux.fluxproject.model.XUserInfo;
 import com.flux.fluxproject.repositories.OAuth2AuthRequestRepository;
@@ -26,8 +28,6 @@ import reactor.core.publisher.Mono;
 import java.net.URI;
 import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 @Slf4j
@@ -123,7 +123,11 @@ public class XOAuth2Service {
                 .doOnError(e -> log.error("Token exchange failed: ", e));
     }
 
-    public Mono<ResponseEntity<Object>> saveSocialAccountAndMarkConsumed(
+    /**
+     * Persists the connected X account. The authorization request has already
+     * been consumed atomically by the callback, so it is not written again here.
+     */
+    public Mono<ResponseEntity<Object>> saveSocialAccount(
             OAuth2AuthRequest request,
             XTokenResponse xTokenResponse) {
 
@@ -134,35 +138,28 @@ public class XOAuth2Service {
                     .body("Invalid request: userId is null"));
         }
 
-        return getUserInfoFromX(xTokenResponse.getAccessToken())
-                .flatMap(xUserInfo ->
-                        Mono.fromCallable(() -> {
-                                    Map<String, Object> tokenData = new HashMap<>();
-                                    tokenData.put("access_token", xTokenResponse.getAccessToken());
-                                    tokenData.put("refresh_token", xTokenResponse.getRefreshToken());
-//                                    tokenData.put("expires_in", xTokenResponse.getExpiresIn());
-                                    tokenData.put("scope", xTokenResponse.getScope());
-                                    return encryptionUtil.encrypt(tokenData);
-                                })
-                                .flatMap(encryptedAuthData -> {
-                                    SocialAccount socialAccount = SocialAccount.builder()
-                                            .userId(userId)
-                                            .platform("X")
-                                            .platformUserId(xUserInfo.getId())
-                                            .username(xUserInfo.getUsername())
-                                            .profileImageUrl(xUserInfo.getProfileImageUrl())
-                                            .authData(encryptedAuthData)
-                                            .expiresAt(calculateExpiryTime(xTokenResponse.getExpiresIn()))
-                                            .isActive(true)
-                                            .build();
-                                    return socialAccountRepository.save(socialAccount);
-                                })
-                )
-                .flatMap(savedAccount -> {
-                    log.info("Request  with id {} is being set consumed" , request.getId());
-                    request.setConsumed(true);
-                    return oAuth2AuthRequestRepository.save(request);
+        // The user-info call and the CPU-bound token encryption are independent,
+        // so run them side by side instead of one after the other.
+        Mono<String> encryptedAuthData = encryptionUtil.encrypt(XAuthTokens.from(xTokenResponse));
+
+        return Mono.zip(getUserInfoFromX(xTokenResponse.getAccessToken()), encryptedAuthData)
+                .flatMap(tuple -> {
+                    XUserInfo xUserInfo = tuple.getT1();
+                    // Reconnecting an already linked X account updates the existing row
+                    // instead of tripping uq_social_platform_user; one linked to another
+                    // user is refused rather than moved.
+                    return socialAccountRepository.upsertByPlatformUserId(
+                            userId,
+                            "X",
+                            xUserInfo.getId(),
+                            xUserInfo.getUsername(),
+                            xUserInfo.getProfileImageUrl(),
+                            tuple.getT2(),
+                            calculateExpiryTime(xTokenResponse.getExpiresIn())
+                    ).switchIfEmpty(Mono.error(new XAccountAlreadyLinkedException(
+                            "This X account is already connected to another Flux user")));
                 })
+                .doOnNext(account -> log.info("Upserted X social account {} for userId {}", account.getId(), userId))
 //                .thenReturn(ResponseEntity
 //                        .status(HttpStatus.FOUND)
 //                        .location(frontendRedirect("/auth/success"))
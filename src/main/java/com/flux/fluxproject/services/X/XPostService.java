@@ -3,6 +3,7 @@ package com.flux.fluxproject.services.X;
 import com.flux.fluxproject.exceptions.XAccountNotConnectedException;
 import com.flux.fluxproject.exceptions.XPostException;
 import com.flux.fluxproject.exceptions.XTokenRefreshFailedException;
+import com.flux.fluxproject.model.XAuthTokens;
 import com.flux.fluxproject.model.XPostResponse;
 import com.flux.fluxproject.model.XTokenResponse;
 import com.flux.fluxproject.repositories.SocialAccountRepository;
@@ -21,7 +22,6 @@ import reactor.core.publisher.Mono;
 import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.Base64;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -101,23 +101,20 @@ public class XPostService {
                 .switchIfEmpty(Mono.error(new XAccountNotConnectedException("X account not connected")));
     }
 
-    private Mono<Map<String, Object>> decryptAuthData(String authData) {
-        return Mono.fromCallable(() -> {
-                    log.debug("Attempting to decrypt auth data");
-                    return encryptionUtil.decrypt(authData);
-                })
+    private Mono<XAuthTokens> decryptAuthData(String authData) {
+        log.debug("Attempting to decrypt auth data");
+        return encryptionUtil.decrypt(authData)
                 .onErrorMap(e -> {
                     log.error("Decryption failed. Auth data might be corrupted.", e);
                     return new RuntimeException("Decryption failed: " + e.getMessage(), e);
                 });
     }
 
-    private String extractToken(Map<String, Object> data, String key) {
-        Object token = data.get(key);
+    private String extractToken(String token, String key) {
         if (token == null) {
             throw new IllegalStateException("Token '" + key + "' not found in decrypted data");
         }
-        return token.toString();
+        return token;
     }
 
     public Mono<String> getRefreshToken(UUID userId) {
@@ -127,7 +124,7 @@ public class XPostService {
                 ))
                 .map(account -> account.getAuthData())
                 .flatMap(this::decryptAuthData)
-                .map(data -> extractToken(data, "refresh_token"))
+                .map(tokens -> extractToken(tokens.refreshToken(), "refresh_token"))
                 .doOnError(e -> log.error("Failed to get refresh token for user: {}", userId, e));
     }
 
@@ -138,7 +135,7 @@ public class XPostService {
                 ))
                 .map(account -> account.getAuthData())
                 .flatMap(this::decryptAuthData)
-                .map(data -> extractToken(data, "access_token"))
+                .map(tokens -> extractToken(tokens.accessToken(), "access_token"))
                 .doOnError(e -> log.error("Failed to get access token for user: {}", userId, e));
     }
 
@@ -175,29 +172,19 @@ public class XPostService {
                 .switchIfEmpty(Mono.error(
                         new XAccountNotConnectedException("X account not found for user: " + userId)
                 ))
-                .flatMap(account -> {
-                    try {
-                        // Create token data map
-                        Map<String, Object> data = new HashMap<>();
-                        data.put("access_token", response.getAccessToken());
-                        data.put("refresh_token", response.getRefreshToken());
-                        data.put("expires_in", response.getExpiresIn());
-                        data.put("scope", response.getScope());
-
-                        // Encrypt the data
-                        String encryptedData = encryptionUtil.encrypt(data);
-
-                        // Update account
-                        account.setAuthData(encryptedData);
-                        account.setExpiresAt(calculateExpiryTime(response.getExpiresIn()));
-                        account.setIsActive(true);
-
-                        return socialAccountRepository.save(account);
-                    } catch (Exception e) {
-                        log.error("Failed to encrypt token data for userId: {}", userId, e);
-                        return Mono.error(new RuntimeException("Failed to encrypt token data", e));
-                    }
-                })
+                .flatMap(account -> encryptionUtil.encrypt(XAuthTokens.from(response))
+                        .onErrorMap(e -> {
+                            log.error("Failed to encrypt token data for userId: {}", userId, e);
+                            return new RuntimeException("Failed to encrypt token data", e);
+                        })
+                        .flatMap(encryptedData -> {
+                            // Update account
+                            account.setAuthData(encryptedData);
+                            account.setExpiresAt(calculateExpiryTime(response.getExpiresIn()));
+                            account.setIsActive(true);
+
+                            return socialAccountRepository.save(account);
+                        }))
                 .then()
                 .doOnSuccess(v -> log.info("Saved refreshed token for user with ID: {}", userId))
                 .doOnError(e -> log.error("Failed to save token for user with ID: {}", userId, e));
@@ -5,6 +5,7 @@ import com.flux.fluxproject.domain.PostStatus;
 import com.flux.fluxproject.model.XPostResponse;
 import com.flux.fluxproject.repositories.PostRepository;
 import com.flux.fluxproject.repositories.SocialAccountRepository;
+import com.flux.fluxproject.services.PostPageCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
@@ -19,6 +20,7 @@ public class XPublishingService {
     private final XPostService xPostService;
     private final PostRepository postRepository;
     private final SocialAccountRepository socialAccountRepository;
+    private final PostPageCache postPageCache;
 
     /**
      * Used by the scheduler.
@@ -44,10 +46,13 @@ public class XPublishingService {
                                     post.setSocialAccountId(socialAccountId);
                                     post.setContent(text);
                                     post.setPlatform("X");
+                                    Instant publishedAt = Instant.now();
                                     post.setStatus(PostStatus.published);
-                                    post.setPublishedAtUtc(Instant.now());
+                                    post.setScheduledAtUtc(publishedAt);
+                                    post.setPublishedAtUtc(publishedAt);
 
                                     return postRepository.save(post)
+                                            .flatMap(postPageCache::invalidate)
                                             .thenReturn(response);
                                 })
                 );
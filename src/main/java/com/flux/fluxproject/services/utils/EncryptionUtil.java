@@ -1,21 +1,54 @@
 package com.flux.fluxproject.services.utils;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.flux.fluxproject.config.AesProperties;
+import com.flux.fluxproject.model.XAuthTokens;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.HashMap;
 import java.util.Map;
-
+import java.util.regex.Pattern;
+
+/**
+ * AES-256-GCM sealing of the X tokens with a fresh random 96-bit IV per
+ * call. Values sealed with a key from aes.keys are stored as
+ * v1:&lt;key id&gt;:Base64(IV || ciphertext || tag), with the v1:&lt;key id&gt;:
+ * header as additional authenticated data, and open with whichever key
+ * they name. Values without the header are the original format and open
+ * with aes.secret-key; Base64 has no ':' so the two never collide. New
+ * values are sealed with aes.active-key-id, or the original way when none
+ * is set. Rotating means adding a key, making it active and letting the
+ * re-encryption job (AuthDataReencryptionScheduler) reseal the old rows;
+ * the old key is needed until it has finished.
+ * <p>
+ * Cipher.getInstance is a provider lookup, so each thread keeps its own
+ * Cipher and re-initialises it per call (a GCM cipher has to be re-keyed
+ * with a new IV for every encryption anyway). One SecureRandom is shared;
+ * it is thread-safe and only seeded once. The tokens are (de)serialised
+ * through a reader and writer bound to XAuthTokens, and decryption reads
+ * the IV and ciphertext in place from the decoded bytes. Plaintext buffers
+ * are zeroed once parsed.
+ * <p>
+ * The Mono variants run on the parallel scheduler so the work never lands
+ * on a Netty event loop thread.
+ */
 @Slf4j
 @Component
 public class EncryptionUtil {
@@ -24,51 +57,169 @@ public class EncryptionUtil {
     private static final String AES_GCM = "AES/GCM/NoPadding";
     private static final int GCM_TAG_LENGTH = 128; // bits
     private static final int IV_LENGTH = 12;       // 96 bits
+    private static final String VERSION_PREFIX = "v1:";
+    private static final Pattern KEY_ID = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+
+    private static final ThreadLocal<Cipher> CIPHERS = ThreadLocal.withInitial(EncryptionUtil::newCipher);
+
+    // Opens values without a key id header; null once no such values are left
+    private final SecretKey legacyKey;
+    private final Map<String, SecretKey> keys = new HashMap<>();
+    private final String activeKeyId;
+    private final SecretKey sealingKey;
+    // v1:<active key id>: as text and bytes, or null to seal without a header
+    private final String activePrefix;
+    private final byte[] activeHeader;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final ObjectWriter tokenWriter;
+    private final ObjectReader tokenReader;
+
+    public EncryptionUtil(AesProperties properties) {
+        this.legacyKey = hasText(properties.secretKey()) ? secretKey("aes.secret-key", properties.secretKey()) : null;
+        if (properties.keys() != null) {
+            properties.keys().forEach((keyId, base64Key) -> {
+                // Unset placeholders, like aes.keys.k1 with no AES_KEY_K1
+                if (!hasText(base64Key)) {
+                    return;
+                }
+                if (!KEY_ID.matcher(keyId).matches()) {
+                    throw new IllegalStateException("Invalid AES key id '" + keyId + "', expected " + KEY_ID.pattern());
+                }
+                keys.put(keyId, secretKey("aes.keys." + keyId, base64Key));
+            });
+        }
 
-    private final SecretKey secretKey;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
-    public EncryptionUtil(@Value("${aes.secret-key}") String base64Key) {
-        if (base64Key == null) {
-            throw new IllegalStateException("Missing AES secret key! Did you set aes.secret-key in application.properties?");
+        if (hasText(properties.activeKeyId())) {
+            this.activeKeyId = properties.activeKeyId();
+            this.sealingKey = keys.get(activeKeyId);
+            if (sealingKey == null) {
+                throw new IllegalStateException("aes.active-key-id " + activeKeyId + " is not one of aes.keys " + keys.keySet());
+            }
+            this.activePrefix = VERSION_PREFIX + activeKeyId + ":";
+            this.activeHeader = activePrefix.getBytes(StandardCharsets.US_ASCII);
+        } else {
+            if (legacyKey == null) {
+                throw new IllegalStateException("Missing AES secret key! Did you set aes.secret-key or aes.active-key-id in application.properties?");
+            }
+            this.activeKeyId = null;
+            this.sealingKey = legacyKey;
+            this.activePrefix = null;
+            this.activeHeader = null;
         }
-        byte[] decoded = Base64.getDecoder().decode(base64Key);
-        this.secretKey = new SecretKeySpec(decoded, AES);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        this.tokenWriter = objectMapper.writerFor(XAuthTokens.class);
+        this.tokenReader = objectMapper.readerFor(XAuthTokens.class);
     }
 
-    public String encrypt(Map<String, Object> data) throws Exception {
-        String json = objectMapper.writeValueAsString(data);
+    public Mono<String> encrypt(XAuthTokens tokens) {
+        return Mono.fromCallable(() -> seal(tokens))
+                .subscribeOn(Schedulers.parallel());
+    }
 
-        Cipher cipher = Cipher.getInstance(AES_GCM);
-        byte[] iv = new byte[IV_LENGTH];
-        new SecureRandom().nextBytes(iv);
+    public Mono<XAuthTokens> decrypt(String encrypted) {
+        return Mono.fromCallable(() -> open(encrypted))
+                .subscribeOn(Schedulers.parallel());
+    }
 
-        cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
-        byte[] cipherText = cipher.doFinal(json.getBytes(StandardCharsets.UTF_8));
+    /**
+     * The key id new values are sealed with, or null when they are sealed the
+     * original way without one.
+     */
+    public String activeKeyId() {
+        return activeKeyId;
+    }
 
-        ByteBuffer byteBuffer = ByteBuffer.allocate(iv.length + cipherText.length);
-        byteBuffer.put(iv);
-        byteBuffer.put(cipherText);
+    /** Whether the value is already sealed the way seal would seal it now; no decryption involved. */
+    public boolean isSealedWithActiveKey(String sealed) {
+        return activePrefix == null ? !sealed.startsWith(VERSION_PREFIX) : sealed.startsWith(activePrefix);
+    }
 
-        return Base64.getEncoder().encodeToString(byteBuffer.array());
+    /** Opens the value with whatever key sealed it and seals it again with the active key. */
+    public String reseal(String sealed) throws Exception {
+        return seal(open(sealed));
     }
 
-    public Map<String, Object> decrypt(String encrypted) throws Exception {
-        byte[] decoded = Base64.getDecoder().decode(encrypted);
+    public String seal(XAuthTokens tokens) throws Exception {
+        byte[] plainText = tokenWriter.writeValueAsBytes(tokens);
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            secureRandom.nextBytes(iv);
+
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.ENCRYPT_MODE, sealingKey, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+            if (activeHeader != null) {
+                cipher.updateAAD(activeHeader);
+            }
+
+            // The ciphertext and tag are written straight after the IV
+            byte[] sealed = new byte[IV_LENGTH + cipher.getOutputSize(plainText.length)];
+            System.arraycopy(iv, 0, sealed, 0, IV_LENGTH);
+            cipher.doFinal(plainText, 0, plainText.length, sealed, IV_LENGTH);
+
+            String encoded = Base64.getEncoder().encodeToString(sealed);
+            return activePrefix == null ? encoded : activePrefix + encoded;
+        } finally {
+            Arrays.fill(plainText, (byte) 0);
+        }
+    }
 
-        ByteBuffer byteBuffer = ByteBuffer.wrap(decoded);
-        byte[] iv = new byte[IV_LENGTH];
-        byteBuffer.get(iv);
+    public XAuthTokens open(String encrypted) throws Exception {
+        SecretKey key = legacyKey;
+        String header = null;
+        if (encrypted.startsWith(VERSION_PREFIX)) {
+            int end = encrypted.indexOf(':', VERSION_PREFIX.length());
+            if (end < 0) {
+                throw new GeneralSecurityException("Sealed data has a malformed key id header");
+            }
+            String keyId = encrypted.substring(VERSION_PREFIX.length(), end);
+            key = keys.get(keyId);
+            if (key == null) {
+                throw new GeneralSecurityException("Sealed data names unknown key id " + keyId);
+            }
+            header = encrypted.substring(0, end + 1);
+        } else if (key == null) {
+            throw new GeneralSecurityException("Sealed data has no key id and aes.secret-key is not set");
+        }
 
-        byte[] cipherText = new byte[byteBuffer.remaining()];
-        byteBuffer.get(cipherText);
+        byte[] decoded = Base64.getDecoder().decode(header == null ? encrypted : encrypted.substring(header.length()));
+        if (decoded.length < IV_LENGTH + GCM_TAG_LENGTH / 8) {
+            throw new GeneralSecurityException("Sealed data is too short");
+        }
 
-        Cipher cipher = Cipher.getInstance(AES_GCM);
-        cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+        Cipher cipher = CIPHERS.get();
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, decoded, 0, IV_LENGTH));
+        if (header != null) {
+            cipher.updateAAD(header.getBytes(StandardCharsets.US_ASCII));
+        }
 
-        byte[] plainText = cipher.doFinal(cipherText);
-        String json = new String(plainText, StandardCharsets.UTF_8);
+        ByteBuffer cipherText = ByteBuffer.wrap(decoded, IV_LENGTH, decoded.length - IV_LENGTH).slice();
+        ByteBuffer plainText = ByteBuffer.allocate(cipher.getOutputSize(cipherText.remaining()));
+        cipher.doFinal(cipherText, plainText);
+        try {
+            return tokenReader.readValue(plainText.array(), 0, plainText.position());
+        } finally {
+            Arrays.fill(plainText.array(), (byte) 0);
+        }
+    }
 
-        return objectMapper.readValue(json, new TypeReference<>() {});
+    private static SecretKey secretKey(String property, String base64Key) {
+        byte[] decoded = Base64.getDecoder().decode(base64Key);
+        if (decoded.length != 16 && decoded.length != 24 && decoded.length != 32) {
+            throw new IllegalStateException(property + " must be a Base64 AES key of 16, 24 or 32 bytes");
+        }
+        return new SecretKeySpec(decoded, AES);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(AES_GCM);
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            throw new IllegalStateException("AES/GCM is not available", e);
+        }
     }
-}
\ No newline at end of file
+}
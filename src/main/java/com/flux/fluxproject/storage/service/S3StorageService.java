@@ -7,13 +7,22 @@ import com.flux.fluxproject.storage.dto.StorageObjectMetadata;
 import com.flux.fluxproject.storage.util.ObjectKeyGenerator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -64,8 +73,72 @@ public class S3StorageService implements StorageService {
         throw new UnsupportedOperationException("Not implemented yet");
     }
 
+    /**
+     * The returned stream reads straight off the HTTP response; closing it
+     * early aborts the request instead of draining the rest of the range.
+     */
+    @Override
+    public InputStream download(String objectKey, long fromByte, long toByte) {
+        ResponseInputStream<GetObjectResponse> object = s3Client.getObject(b -> b
+                .bucket(s3Properties.bucketName())
+                .key(objectKey)
+                .range("bytes=" + fromByte + "-" + (toByte - 1)));
+        return new FilterInputStream(object) {
+            @Override
+            public void close() throws IOException {
+                object.abort();
+                super.close();
+            }
+        };
+    }
+
+    @Override
+    public void upload(String objectKey, byte[] content, String contentType) {
+        s3Client.putObject(b -> b
+                        .bucket(s3Properties.bucketName())
+                        .key(objectKey)
+                        .contentType(contentType),
+                RequestBody.fromBytes(content));
+    }
+
     @Override
     public void delete(String objectKey) {
-        throw new UnsupportedOperationException("Not implemented yet");
+        s3Client.deleteObject(b -> b
+                .bucket(s3Properties.bucketName())
+                .key(objectKey));
+    }
+
+    /**
+     * A listing page holds at most 1000 keys, which is also the most one
+     * DeleteObjects call accepts, so each page is deleted in one request.
+     */
+    @Override
+    public long deletePrefix(String prefix) {
+        long deleted = 0;
+        String continuationToken = null;
+        do {
+            String token = continuationToken;
+            ListObjectsV2Response page = s3Client.listObjectsV2(b -> b
+                    .bucket(s3Properties.bucketName())
+                    .prefix(prefix)
+                    .continuationToken(token));
+
+            List<ObjectIdentifier> objects = page.contents().stream()
+                    .map(object -> ObjectIdentifier.builder().key(object.key()).build())
+                    .toList();
+            if (!objects.isEmpty()) {
+                DeleteObjectsResponse response = s3Client.deleteObjects(b -> b
+                        .bucket(s3Properties.bucketName())
+                        .delete(d -> d.objects(objects).quiet(true)));
+                if (response.hasErrors() && !response.errors().isEmpty()) {
+                    throw new IllegalStateException("Failed to delete " + response.errors().size()
+                            + " objects under " + prefix + ": " + response.errors().getFirst().message());
+                }
+                deleted += objects.size();
+            }
+
+            continuationToken = Boolean.TRUE.equals(page.isTruncated()) ? page.nextContinuationToken() : null;
+        } while (continuationToken != null);
+        return deleted;
     }
 }
\ No newline at end of file
@@ -16,6 +16,14 @@ public interface StorageService {
 
     InputStream download(String objectKey);
 
+    /** Streams bytes [fromByte, toByte) of the object with a ranged GET. */
+    InputStream download(String objectKey, long fromByte, long toByte);
+
+    void upload(String objectKey, byte[] content, String contentType);
+
     void delete(String objectKey);
 
+    /** Deletes every object under the prefix and returns how many there were. */
+    long deletePrefix(String prefix);
+
 }
\ No newline at end of file
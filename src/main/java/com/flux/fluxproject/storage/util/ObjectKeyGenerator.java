@@ -1,5 +1,6 @@
 package com.flux.fluxproject.storage.util;
 
+import java.time.Instant;
 import java.util.UUID;
 
 public interface ObjectKeyGenerator {
@@ -9,4 +10,10 @@ public interface ObjectKeyGenerator {
             String contentType
     );
 
+    /** Common prefix of every object stored for the post, ending in '/'. */
+    String postPrefix(UUID postId);
+
+    /** A new key for a user's archive segment of the month starting at monthStart (UTC). */
+    String archiveSegmentKey(UUID userId, Instant monthStart);
+
 }
\ No newline at end of file
@@ -3,6 +3,9 @@ package com.flux.fluxproject.storage.util;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 
 @Component
@@ -11,6 +14,8 @@ public class ObjectKeyGeneratorImpl implements ObjectKeyGenerator {
 
     private static final String POSTS_DIRECTORY = "posts";
     private static final String ORIGINAL_DIRECTORY = "original";
+    private static final String ARCHIVE_DIRECTORY = "archive";
+    private static final DateTimeFormatter ARCHIVE_MONTH = DateTimeFormatter.ofPattern("yyyy-MM").withZone(ZoneOffset.UTC);
 
     private final ContentTypeResolver contentTypeResolver;
 
@@ -31,4 +36,22 @@ public class ObjectKeyGeneratorImpl implements ObjectKeyGenerator {
                 filename
         );
     }
+
+    @Override
+    public String postPrefix(UUID postId) {
+        return POSTS_DIRECTORY + "/" + postId + "/";
+    }
+
+    // Every write gets a new key, so an archiver losing a race never overwrites the segment that won
+    @Override
+    public String archiveSegmentKey(UUID userId, Instant monthStart) {
+        return String.format(
+                "%s/%s/%s/%s/%s.ndjson.gz",
+                ARCHIVE_DIRECTORY,
+                POSTS_DIRECTORY,
+                userId,
+                ARCHIVE_MONTH.format(monthStart),
+                UUID.randomUUID()
+        );
+    }
 }
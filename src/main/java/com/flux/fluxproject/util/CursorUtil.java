@@ -1,34 +1,194 @@
 package com.flux.fluxproject.util;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flux.fluxproject.model.ChangeCursor;
 import com.flux.fluxproject.model.PostCursor;
+import com.flux.fluxproject.model.SearchCursor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.nio.charset.StandardCharsets;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
 import java.util.Base64;
+import java.util.UUID;
 
+/**
+ * Pagination cursors are a fixed 38-byte layout, URL-safe Base64 without
+ * padding (51 chars):
+ * <pre>
+ * [version:1][kind:1][sort key:8][id msb:8][id lsb:8][HMAC-SHA256 tag:12]
+ * </pre>
+ * Every keyset we page over is a single sort value plus the post id, so one
+ * layout serves them all and the kind byte keeps a cursor from being replayed
+ * against a different ordering. The tag covers everything before it, so a
+ * client cannot forge or edit a cursor to seek into arbitrary positions.
+ */
 @Component
 public class CursorUtil {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final byte VERSION = 2;
 
-    public String encode(PostCursor cursor) {
-        try {
-            String json = objectMapper.writeValueAsString(cursor);
-            return Base64.getUrlEncoder()
-                    .encodeToString(json.getBytes(StandardCharsets.UTF_8));
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to encode cursor", e);
+    /** scheduledAt epoch micros + id, for the post listing. */
+    private static final byte KIND_POST = 0;
+    /** Float bits of the ts_rank + id, for search results. */
+    private static final byte KIND_SEARCH = 1;
+    /** Same body as KIND_POST, paging back towards newer posts. */
+    private static final byte KIND_POST_PREVIOUS = 2;
+    /** updated_at epoch micros + id, for delta sync tokens. */
+    private static final byte KIND_CHANGES = 3;
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    private static final int TAG_LENGTH = 12;
+    private static final int BODY_LENGTH = 3 * Long.BYTES;
+    private static final int PAYLOAD_LENGTH = 2 + BODY_LENGTH;
+    private static final int ENCODED_LENGTH = encodedLength(PAYLOAD_LENGTH + TAG_LENGTH);
+
+    // Marks a post without a schedule time; no real timestamp is that far in the past.
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+    private final ThreadLocal<byte[]> tags = ThreadLocal.withInitial(() -> new byte[32]);
+
+    /**
+     * Signs with app.cursor.hmac-key alone, so cursors do not depend on the
+     * AES keys and survive their rotation and the retirement of aes.secret-key.
+     */
+    public CursorUtil(@Value("${app.cursor.hmac-key:}") String base64HmacKey) {
+        if (base64HmacKey == null || base64HmacKey.isBlank()) {
+            throw new IllegalStateException("Missing cursor key! Did you set app.cursor.hmac-key?");
         }
+        this.key = new SecretKeySpec(Base64.getDecoder().decode(base64HmacKey), HMAC_SHA256);
+    }
+
+    public String encode(PostCursor cursor) {
+        byte kind = cursor.direction() == PostCursor.Direction.PREVIOUS ? KIND_POST_PREVIOUS : KIND_POST;
+        return encode(kind, toMicros(cursor.scheduledAt()), cursor.id());
     }
 
     public PostCursor decode(String encodedCursor) {
+        Payload payload = decode(encodedCursor, KIND_POST, KIND_POST_PREVIOUS);
+        ByteBuffer body = payload.body();
+        PostCursor.Direction direction = payload.kind() == KIND_POST_PREVIOUS
+                ? PostCursor.Direction.PREVIOUS
+                : PostCursor.Direction.NEXT;
+        return new PostCursor(fromMicros(body.getLong()), new UUID(body.getLong(), body.getLong()), direction);
+    }
+
+    public String encodeSearch(SearchCursor cursor) {
+        return encode(KIND_SEARCH, Float.floatToIntBits(cursor.rank()), cursor.id());
+    }
+
+    public SearchCursor decodeSearch(String encodedCursor) {
+        ByteBuffer body = decode(encodedCursor, KIND_SEARCH, KIND_SEARCH).body();
+        return new SearchCursor(Float.intBitsToFloat((int) body.getLong()), new UUID(body.getLong(), body.getLong()));
+    }
+
+    public String encodeChanges(ChangeCursor cursor) {
+        return encode(KIND_CHANGES, toMicros(cursor.changedAt()), cursor.id());
+    }
+
+    public ChangeCursor decodeChanges(String encodedCursor) {
+        ByteBuffer body = decode(encodedCursor, KIND_CHANGES, KIND_CHANGES).body();
+        return new ChangeCursor(fromMicros(body.getLong()), new UUID(body.getLong(), body.getLong()));
+    }
+
+    private String encode(byte kind, long sortKey, UUID id) {
+        byte[] bytes = new byte[PAYLOAD_LENGTH + TAG_LENGTH];
+        ByteBuffer.wrap(bytes)
+                .put(VERSION)
+                .put(kind)
+                .putLong(sortKey)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+
+        System.arraycopy(sign(bytes), 0, bytes, PAYLOAD_LENGTH, TAG_LENGTH);
+        return ENCODER.encodeToString(bytes);
+    }
+
+    /**
+     * Verifies the cursor and returns its kind and body (sort key, id msb, id lsb).
+     */
+    private Payload decode(String encodedCursor, byte expectedKind, byte alternateKind) {
+        if (encodedCursor == null || encodedCursor.length() != ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        byte[] bytes;
         try {
-            byte[] decodedBytes = Base64.getUrlDecoder().decode(encodedCursor);
-            String json = new String(decodedBytes, StandardCharsets.UTF_8);
-            return objectMapper.readValue(json, PostCursor.class);
-        } catch (Exception e) {
+            bytes = DECODER.decode(encodedCursor);
+        } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid cursor", e);
         }
+
+        if (bytes.length != PAYLOAD_LENGTH + TAG_LENGTH || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported cursor version");
+        }
+        if (!tagMatches(bytes, sign(bytes))) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        byte kind = bytes[1];
+        if (kind != expectedKind && kind != alternateKind) {
+            throw new IllegalArgumentException("Cursor does not belong to this listing");
+        }
+        return new Payload(kind, ByteBuffer.wrap(bytes, PAYLOAD_LENGTH - BODY_LENGTH, BODY_LENGTH));
+    }
+
+    private byte[] sign(byte[] bytes) {
+        Mac mac = macs.get();
+        byte[] tag = tags.get();
+        try {
+            mac.update(bytes, 0, PAYLOAD_LENGTH);
+            mac.doFinal(tag, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign cursor", e);
+        }
+        return tag;
+    }
+
+    // Constant time, so response timing does not leak how much of a forged tag matched
+    private static boolean tagMatches(byte[] bytes, byte[] expected) {
+        int diff = 0;
+        for (int i = 0; i < TAG_LENGTH; i++) {
+            diff |= bytes[PAYLOAD_LENGTH + i] ^ expected[i];
+        }
+        return diff == 0;
+    }
+
+    private static long toMicros(Instant instant) {
+        if (instant == null) {
+            return NULL_TIMESTAMP;
+        }
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+    }
+
+    private static Instant fromMicros(long micros) {
+        if (micros == NULL_TIMESTAMP) {
+            return null;
+        }
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+
+    private static int encodedLength(int byteLength) {
+        return (byteLength * 4 + 2) / 3;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    private record Payload(byte kind, ByteBuffer body) {
     }
 }
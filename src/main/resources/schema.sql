@@ -330,4 +330,565 @@ ALTER TABLE social_accounts
 
 
 ALTER TABLE posts
-    ALTER COLUMN scheduled_at_utc DROP NOT NULL;
\ No newline at end of file
+    ALTER COLUMN scheduled_at_utc DROP NOT NULL;
+
+-- ================================================================
+-- 18/10/2026 10:15 AM
+-- status-specialized partial indexes for cursor pagination
+-- (listing without a status filter excludes soft-deleted posts)
+-- ================================================================
+CREATE INDEX idx_posts_user_sched_id_live
+    ON posts (user_id, scheduled_at_utc DESC, id DESC)
+    WHERE status <> 'deleted';
+
+CREATE INDEX idx_posts_user_sched_id_scheduled
+    ON posts (user_id, scheduled_at_utc DESC, id DESC)
+    WHERE status = 'scheduled';
+
+CREATE INDEX idx_posts_user_sched_id_published
+    ON posts (user_id, scheduled_at_utc DESC, id DESC)
+    WHERE status = 'published';
+
+CREATE INDEX idx_posts_user_sched_id_failed
+    ON posts (user_id, scheduled_at_utc DESC, id DESC)
+    WHERE status = 'failed';
+
+-- ================================================================
+-- 18/10/2026 11:40 AM
+-- per-user status counters for GET /api/posts/stats, maintained by
+-- statement-level triggers on posts so every status change (insert,
+-- claim, publish, fail, delete, hard delete) adjusts them atomically
+-- ================================================================
+CREATE TABLE post_counters (
+    user_id    UUID        NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    status     VARCHAR(20) NOT NULL,
+    post_count BIGINT      NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, status)
+);
+
+-- One upsert per (user, status) per statement, however many rows it
+-- touched. Keys are upserted in order so concurrent statements lock
+-- counter rows in the same order. Users removed by the same statement
+-- (posts cascading from a user delete) are skipped.
+CREATE OR REPLACE FUNCTION posts_apply_counter_deltas()
+    RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO post_counters AS pc (user_id, status, post_count)
+        SELECT user_id, status, count(*)
+        FROM new_rows
+        WHERE EXISTS (SELECT 1 FROM users u WHERE u.id = new_rows.user_id)
+        GROUP BY user_id, status
+        ORDER BY user_id, status
+        ON CONFLICT (user_id, status)
+            DO UPDATE SET post_count = pc.post_count + EXCLUDED.post_count;
+
+    ELSIF TG_OP = 'UPDATE' THEN
+        INSERT INTO post_counters AS pc (user_id, status, post_count)
+        SELECT user_id, status, sum(delta)
+        FROM (
+            SELECT n.user_id, n.status, 1 AS delta
+            FROM new_rows n
+            JOIN old_rows o ON o.id = n.id
+            WHERE (o.user_id, o.status) IS DISTINCT FROM (n.user_id, n.status)
+            UNION ALL
+            SELECT o.user_id, o.status, -1 AS delta
+            FROM new_rows n
+            JOIN old_rows o ON o.id = n.id
+            WHERE (o.user_id, o.status) IS DISTINCT FROM (n.user_id, n.status)
+        ) d
+        WHERE EXISTS (SELECT 1 FROM users u WHERE u.id = d.user_id)
+        GROUP BY user_id, status
+        HAVING sum(delta) <> 0
+        ORDER BY user_id, status
+        ON CONFLICT (user_id, status)
+            DO UPDATE SET post_count = pc.post_count + EXCLUDED.post_count;
+
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO post_counters AS pc (user_id, status, post_count)
+        SELECT user_id, status, -count(*)
+        FROM old_rows
+        WHERE EXISTS (SELECT 1 FROM users u WHERE u.id = old_rows.user_id)
+        GROUP BY user_id, status
+        ORDER BY user_id, status
+        ON CONFLICT (user_id, status)
+            DO UPDATE SET post_count = pc.post_count + EXCLUDED.post_count;
+    END IF;
+
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_posts_counters_insert
+    AFTER INSERT ON posts
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION posts_apply_counter_deltas();
+
+CREATE TRIGGER trg_posts_counters_update
+    AFTER UPDATE ON posts
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION posts_apply_counter_deltas();
+
+CREATE TRIGGER trg_posts_counters_delete
+    AFTER DELETE ON posts
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION posts_apply_counter_deltas();
+
+-- Backfill; the lock keeps posts from changing between the count and
+-- the triggers taking over.
+BEGIN;
+LOCK TABLE posts IN SHARE MODE;
+INSERT INTO post_counters (user_id, status, post_count)
+SELECT user_id, status, count(*)
+FROM posts
+GROUP BY user_id, status
+ON CONFLICT (user_id, status) DO UPDATE SET post_count = EXCLUDED.post_count;
+COMMIT;
+
+-- ================================================================
+-- 18/10/2026 1:20 PM
+-- full-text search over post content. 'simple' config: posts are
+-- short and multilingual, so no stemming or stop words. btree_gin
+-- lets the user filter live in the same GIN index as the lexemes.
+-- Adding the stored column rewrites posts; run off-peak.
+-- ================================================================
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+ALTER TABLE posts
+    ADD COLUMN content_tsv tsvector
+        GENERATED ALWAYS AS (to_tsvector('simple', coalesce(content, ''))) STORED;
+
+CREATE INDEX idx_posts_user_content_tsv
+    ON posts USING gin (user_id, content_tsv);
+
+-- ================================================================
+-- 18/10/2026 3:10 PM
+-- delta sync. updated_at_utc is stamped by the database on every
+-- write (the application did not set it on every path), hard deletes
+-- leave a tombstone, and both are read in (ts, id) order per user.
+-- ================================================================
+UPDATE posts
+SET updated_at_utc = coalesce(created_at_utc, now())
+WHERE updated_at_utc IS NULL;
+
+ALTER TABLE posts
+    ALTER COLUMN updated_at_utc SET NOT NULL;
+
+CREATE OR REPLACE FUNCTION posts_touch_updated_at()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    NEW.updated_at_utc := now();
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER trg_posts_touch_updated_at
+    BEFORE INSERT OR UPDATE ON posts
+    FOR EACH ROW EXECUTE FUNCTION posts_touch_updated_at();
+
+CREATE INDEX idx_posts_user_updated_id
+    ON posts (user_id, updated_at_utc, id);
+
+CREATE TABLE post_tombstones (
+    post_id        UUID PRIMARY KEY,
+    user_id        UUID NOT NULL,
+    deleted_at_utc TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_post_tombstones_user_deleted_id
+    ON post_tombstones (user_id, deleted_at_utc, post_id);
+
+CREATE INDEX idx_post_tombstones_deleted
+    ON post_tombstones (deleted_at_utc);
+
+-- Posts removed along with their user are skipped: nobody is left to sync them.
+CREATE OR REPLACE FUNCTION posts_record_tombstones()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    INSERT INTO post_tombstones (post_id, user_id, deleted_at_utc)
+    SELECT o.id, o.user_id, now()
+    FROM old_rows o
+    WHERE EXISTS (SELECT 1 FROM users u WHERE u.id = o.user_id)
+    ON CONFLICT (post_id) DO NOTHING;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_posts_tombstones
+    AFTER DELETE ON posts
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION posts_record_tombstones();
+
+-- ================================================================
+-- 18/10/2026 4:30 PM
+-- optimistic versioning. Every update of a post bumps its version,
+-- the scheduler's claim and publish transitions included, so a client
+-- holding an old version cannot overwrite them.
+-- ================================================================
+ALTER TABLE posts
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION posts_touch_updated_at()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    NEW.updated_at_utc := now();
+    IF TG_OP = 'UPDATE' THEN
+        NEW.version := OLD.version + 1;
+    END IF;
+    RETURN NEW;
+END;
+$$;
+
+-- ================================================================
+-- 18/10/2026 6:00 PM
+-- monthly range partitions on scheduled_at_utc. The claim, listing
+-- and calendar queries all bound scheduled_at_utc, so they only touch
+-- recent partitions, and each partition's indexes stay month-sized.
+-- Partitions are named posts_pYYYY_MM and cover [month, next month)
+-- in UTC. PostPartitionMaintenanceScheduler creates them ahead of
+-- time and detaches or drops old ones by retention.
+--
+-- The partition key has to be part of the primary key and NOT NULL,
+-- so drafts without a time get their creation time. An UPDATE that
+-- changes scheduled_at_utc moves the row between partitions; the
+-- BEFORE and statement-level triggers below still see it as one
+-- UPDATE. There is no default partition (it would stop Postgres from
+-- scanning partitions in order for the listing LIMIT); writes outside
+-- the created range fail with 23514 and are reported as a 400.
+--
+-- Rewrites posts; run off-peak.
+-- ================================================================
+CREATE OR REPLACE FUNCTION posts_create_partition(month date)
+    RETURNS boolean
+    LANGUAGE plpgsql
+AS $$
+DECLARE
+    first_day date := date_trunc('month', month)::date;
+    name      text := 'posts_p' || to_char(first_day, 'YYYY_MM');
+BEGIN
+    IF to_regclass(name) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF posts FOR VALUES FROM (%L) TO (%L)',
+                   name,
+                   first_day::timestamp AT TIME ZONE 'UTC',
+                   (first_day + interval '1 month')::timestamp AT TIME ZONE 'UTC');
+    RETURN true;
+END;
+$$;
+
+-- Creates every missing monthly partition overlapping [from_ts, to_ts]
+-- and returns how many it created.
+CREATE OR REPLACE FUNCTION posts_create_partitions(from_ts timestamptz, to_ts timestamptz)
+    RETURNS integer
+    LANGUAGE plpgsql
+AS $$
+DECLARE
+    month   date := date_trunc('month', from_ts AT TIME ZONE 'UTC')::date;
+    created integer := 0;
+BEGIN
+    PERFORM set_config('lock_timeout', '5s', true);
+    WHILE month <= (to_ts AT TIME ZONE 'UTC')::date LOOP
+        IF posts_create_partition(month) THEN
+            created := created + 1;
+        END IF;
+        month := (month + interval '1 month')::date;
+    END LOOP;
+    RETURN created;
+END;
+$$;
+
+-- Detaches every partition that ends on or before the cutoff (and drops
+-- it when asked), returning the names. Its rows leave post_counters in
+-- the same transaction; the partition is locked against writes first so
+-- the subtracted counts are exact. No tombstones are written: the rows
+-- are history, not deletions.
+CREATE OR REPLACE FUNCTION posts_detach_partitions_before(cutoff timestamptz, drop_detached boolean)
+    RETURNS SETOF text
+    LANGUAGE plpgsql
+AS $$
+DECLARE
+    part record;
+BEGIN
+    PERFORM set_config('lock_timeout', '5s', true);
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'posts'::regclass
+          AND c.relname ~ '^posts_p[0-9]{4}_[0-9]{2}$'
+          AND (to_date(substr(c.relname, 8), 'YYYY_MM') + interval '1 month')::timestamp AT TIME ZONE 'UTC' <= cutoff
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('LOCK TABLE %I IN SHARE MODE', part.relname);
+        EXECUTE format($sql$
+            INSERT INTO post_counters AS pc (user_id, status, post_count)
+            SELECT user_id, status, -count(*)
+            FROM %I
+            GROUP BY user_id, status
+            ORDER BY user_id, status
+            ON CONFLICT (user_id, status)
+                DO UPDATE SET post_count = pc.post_count + EXCLUDED.post_count
+        $sql$, part.relname);
+        EXECUTE format('ALTER TABLE posts DETACH PARTITION %I', part.relname);
+        IF drop_detached THEN
+            EXECUTE format('DROP TABLE %I', part.relname);
+        END IF;
+        RETURN NEXT part.relname;
+    END LOOP;
+END;
+$$;
+
+-- Same deltas as before without joining old_rows to new_rows: a row
+-- whose user and status did not change adds +1 and -1 to the same key.
+-- plpgsql caches the trigger's plan per session, and a nested-loop join
+-- planned for a one-row update went quadratic once set-based statements
+-- (bulk mutations, the missed-post sweep) passed thousands of rows.
+CREATE OR REPLACE FUNCTION posts_apply_counter_deltas()
+    RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO post_counters AS pc (user_id, status, post_count)
+        SELECT user_id, status, count(*)
+        FROM new_rows
+        WHERE EXISTS (SELECT 1 FROM users u WHERE u.id = new_rows.user_id)
+        GROUP BY user_id, status
+        ORDER BY user_id, status
+        ON CONFLICT (user_id, status)
+            DO UPDATE SET post_count = pc.post_count + EXCLUDED.post_count;
+
+    ELSIF TG_OP = 'UPDATE' THEN
+        INSERT INTO post_counters AS pc (user_id, status, post_count)
+        SELECT user_id, status, sum(delta)
+        FROM (
+            SELECT user_id, status, 1 AS delta
+            FROM new_rows
+            UNION ALL
+            SELECT user_id, status, -1 AS delta
+            FROM old_rows
+        ) d
+        WHERE EXISTS (SELECT 1 FROM users u WHERE u.id = d.user_id)
+        GROUP BY user_id, status
+        HAVING sum(delta) <> 0
+        ORDER BY user_id, status
+        ON CONFLICT (user_id, status)
+            DO UPDATE SET post_count = pc.post_count + EXCLUDED.post_count;
+
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO post_counters AS pc (user_id, status, post_count)
+        SELECT user_id, status, -count(*)
+        FROM old_rows
+        WHERE EXISTS (SELECT 1 FROM users u WHERE u.id = old_rows.user_id)
+        GROUP BY user_id, status
+        ORDER BY user_id, status
+        ON CONFLICT (user_id, status)
+            DO UPDATE SET post_count = pc.post_count + EXCLUDED.post_count;
+    END IF;
+
+    RETURN NULL;
+END;
+$$;
+
+BEGIN;
+LOCK TABLE posts IN ACCESS EXCLUSIVE MODE;
+
+UPDATE posts
+SET scheduled_at_utc = coalesce(created_at_utc, updated_at_utc)
+WHERE scheduled_at_utc IS NULL;
+
+ALTER TABLE posts RENAME TO posts_unpartitioned;
+ALTER TABLE posts_unpartitioned RENAME CONSTRAINT posts_pkey TO posts_unpartitioned_pkey;
+ALTER TABLE posts_unpartitioned RENAME CONSTRAINT posts_user_id_fkey TO posts_unpartitioned_user_id_fkey;
+ALTER TABLE posts_unpartitioned RENAME CONSTRAINT posts_social_account_id_fkey TO posts_unpartitioned_social_account_id_fkey;
+ALTER TABLE posts_unpartitioned RENAME CONSTRAINT posts_status_check TO posts_unpartitioned_status_check;
+
+CREATE TABLE posts (
+    id                UUID                     NOT NULL DEFAULT gen_random_uuid(),
+    user_id           UUID                     NOT NULL,
+    social_account_id UUID                     NOT NULL,
+    platform          VARCHAR(50)              NOT NULL,
+    content           TEXT,
+    media_urls        TEXT[],
+    scheduled_at_utc  TIMESTAMP WITH TIME ZONE NOT NULL,
+    published_at_utc  TIMESTAMP WITH TIME ZONE,
+    status            VARCHAR(20)                       DEFAULT 'scheduled',
+    api_payload       TEXT,
+    error_message     TEXT,
+    retry_count       INTEGER                           DEFAULT 0,
+    max_retries       INTEGER                           DEFAULT 3,
+    created_at_utc    TIMESTAMP WITH TIME ZONE          DEFAULT now(),
+    updated_at_utc    TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    deleted_at_utc    TIMESTAMP WITH TIME ZONE,
+    content_tsv       tsvector GENERATED ALWAYS AS (to_tsvector('simple', coalesce(content, ''))) STORED,
+    version           BIGINT                   NOT NULL DEFAULT 0,
+    CONSTRAINT posts_pkey PRIMARY KEY (id, scheduled_at_utc),
+    CONSTRAINT posts_user_id_fkey FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT posts_social_account_id_fkey FOREIGN KEY (social_account_id) REFERENCES social_accounts(id) ON DELETE CASCADE,
+    CONSTRAINT posts_status_check CHECK (status IN (
+        'draft', 'scheduled', 'processing', 'publishing', 'published', 'failed', 'cancelled', 'deleted'))
+) PARTITION BY RANGE (scheduled_at_utc);
+
+SELECT posts_create_partitions(
+    coalesce((SELECT min(scheduled_at_utc) FROM posts_unpartitioned), now()),
+    greatest((SELECT max(scheduled_at_utc) FROM posts_unpartitioned), now() + interval '14 months'));
+
+-- No triggers on the new table yet: counters, versions and tombstones carry over as they are.
+INSERT INTO posts (id, user_id, social_account_id, platform, content, media_urls, scheduled_at_utc,
+                   published_at_utc, status, api_payload, error_message, retry_count, max_retries,
+                   created_at_utc, updated_at_utc, deleted_at_utc, version)
+SELECT id, user_id, social_account_id, platform, content, media_urls, scheduled_at_utc,
+       published_at_utc, status, api_payload, error_message, retry_count, max_retries,
+       created_at_utc, updated_at_utc, deleted_at_utc, version
+FROM posts_unpartitioned;
+
+DROP TABLE posts_unpartitioned;
+
+-- idx_posts_user_id, idx_posts_status, idx_posts_scheduled_at,
+-- idx_posts_scheduled_status and idx_posts_user_platform are not
+-- recreated: the first is a prefix of idx_posts_user_sched_id, the
+-- claim query uses idx_posts_due, and nothing reads the others.
+CREATE INDEX idx_posts_due
+    ON posts (scheduled_at_utc)
+    WHERE status = 'scheduled';
+
+CREATE INDEX idx_posts_social_account_id
+    ON posts (social_account_id);
+
+CREATE INDEX idx_posts_user_sched_id
+    ON posts (user_id, scheduled_at_utc DESC, id DESC);
+
+CREATE INDEX idx_posts_user_sched_id_live
+    ON posts (user_id, scheduled_at_utc DESC, id DESC)
+    WHERE status <> 'deleted';
+
+CREATE INDEX idx_posts_user_sched_id_scheduled
+    ON posts (user_id, scheduled_at_utc DESC, id DESC)
+    WHERE status = 'scheduled';
+
+CREATE INDEX idx_posts_user_sched_id_published
+    ON posts (user_id, scheduled_at_utc DESC, id DESC)
+    WHERE status = 'published';
+
+CREATE INDEX idx_posts_user_sched_id_failed
+    ON posts (user_id, scheduled_at_utc DESC, id DESC)
+    WHERE status = 'failed';
+
+CREATE INDEX idx_posts_deleted_at
+    ON posts (deleted_at_utc)
+    WHERE status = 'deleted';
+
+CREATE INDEX idx_posts_user_content_tsv
+    ON posts USING gin (user_id, content_tsv);
+
+CREATE INDEX idx_posts_user_updated_id
+    ON posts (user_id, updated_at_utc, id);
+
+CREATE TRIGGER trg_posts_touch_updated_at
+    BEFORE INSERT OR UPDATE ON posts
+    FOR EACH ROW EXECUTE FUNCTION posts_touch_updated_at();
+
+CREATE TRIGGER trg_posts_counters_insert
+    AFTER INSERT ON posts
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION posts_apply_counter_deltas();
+
+CREATE TRIGGER trg_posts_counters_update
+    AFTER UPDATE ON posts
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION posts_apply_counter_deltas();
+
+CREATE TRIGGER trg_posts_counters_delete
+    AFTER DELETE ON posts
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION posts_apply_counter_deltas();
+
+CREATE TRIGGER trg_posts_tombstones
+    AFTER DELETE ON posts
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION posts_record_tombstones();
+
+COMMIT;
+
+ANALYZE posts;
+
+-- ================================================================
+-- 18/10/2026 8:00 PM
+-- cold archive. Published and failed posts of months older than
+-- app.posts.archive.after move out of posts into one gzip NDJSON
+-- segment per (user, month) in object storage; this table is the
+-- manifest. Rows are sorted newest first and gzipped in blocks of a
+-- few hundred, each block a separate gzip member, so a listing that
+-- needs the rows around a cursor range-reads only the blocks after
+-- it. block_offsets has one entry per block plus the object size;
+-- block_oldest is the scheduled_at_utc of each block's last row.
+--
+-- Archived rows stay counted in GET /api/posts/stats through the
+-- per-segment counts, and leave no tombstone: they are moved, not
+-- deleted, so sync clients keep their copy.
+-- ================================================================
+CREATE TABLE post_archive_segments (
+    user_id             UUID                     NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    month_start         TIMESTAMP WITH TIME ZONE NOT NULL,
+    object_key          TEXT                     NOT NULL,
+    published_count     INTEGER                  NOT NULL,
+    failed_count        INTEGER                  NOT NULL,
+    oldest_scheduled_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    newest_scheduled_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    block_offsets       BIGINT[]                 NOT NULL,
+    block_oldest        TIMESTAMP WITH TIME ZONE[] NOT NULL,
+    archived_at_utc     TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    PRIMARY KEY (user_id, month_start)
+);
+
+-- The archiver sets flux.archiving for its own transaction only.
+CREATE OR REPLACE FUNCTION posts_record_tombstones()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF current_setting('flux.archiving', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    INSERT INTO post_tombstones (post_id, user_id, deleted_at_utc)
+    SELECT o.id, o.user_id, now()
+    FROM old_rows o
+    WHERE EXISTS (SELECT 1 FROM users u WHERE u.id = o.user_id)
+    ON CONFLICT (post_id) DO NOTHING;
+    RETURN NULL;
+END;
+$$;
+
+-- ================================================================
+-- 18/10/2026 10:00 PM
+-- auth_data key rotation. Values sealed with a key from aes.keys are
+-- stored as v1:<key id>:Base64(IV || ciphertext || tag), so the key
+-- that opens them is named in the value; values without the prefix
+-- are the original format, sealed with aes.secret-key.
+--
+-- The re-encryption job walks social_accounts in id order and reseals
+-- everything not yet under aes.active-key-id. One progress row per
+-- target key records how far it got; each batch locks that row, so
+-- batches never overlap across nodes and a restart resumes from
+-- last_account_id. Deleting the row makes the next run sweep again.
+-- ================================================================
+CREATE TABLE auth_data_reencryption_progress (
+    key_id          TEXT                     PRIMARY KEY,
+    last_account_id UUID                     NOT NULL DEFAULT '00000000-0000-0000-0000-000000000000',
+    scanned         BIGINT                   NOT NULL DEFAULT 0,
+    resealed        BIGINT                   NOT NULL DEFAULT 0,
+    conflicts       BIGINT                   NOT NULL DEFAULT 0,
+    failed          BIGINT                   NOT NULL DEFAULT 0,
+    started_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    updated_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    completed_at    TIMESTAMP WITH TIME ZONE
+);
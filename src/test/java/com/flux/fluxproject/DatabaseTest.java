@@ -0,0 +1,73 @@
+package com.flux.fluxproject;
+
+import com.flux.fluxproject.config.R2dbcConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Base for repository and job tests that need a real Postgres. One container
+ * is started for the whole run and loaded with schema.sql, and R2DBC is
+ * pointed at it; it is never stopped, so cached Spring contexts stay valid.
+ * Skipped when Docker is not available, like PostListingQueryPlanTest.
+ * <p>
+ * Tests share the database, so each one works on users of its own.
+ */
+@DataR2dbcTest
+@Import(R2dbcConfig.class)
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class DatabaseTest {
+
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+
+    @Autowired
+    protected DatabaseClient databaseClient;
+
+    @DynamicPropertySource
+    static void r2dbcProperties(DynamicPropertyRegistry registry) {
+        startWithSchema();
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://%s:%d/%s".formatted(
+                postgres.getHost(), postgres.getFirstMappedPort(), postgres.getDatabaseName()));
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+    }
+
+    private static synchronized void startWithSchema() {
+        if (postgres.isRunning()) {
+            return;
+        }
+        postgres.start();
+        try (Connection connection = DriverManager.getConnection(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute(new ClassPathResource("schema.sql").getContentAsString(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not load schema.sql", e);
+        }
+    }
+
+    /** Inserts a fresh user and returns its id. */
+    protected UUID createUser() {
+        UUID userId = UUID.randomUUID();
+        databaseClient.sql("INSERT INTO users (id, email) VALUES (:id, :email)")
+                .bind("id", userId)
+                .bind("email", userId + "@flux.test")
+                .then()
+                .block();
+        return userId;
+    }
+}
@@ -0,0 +1,84 @@
+package com.flux.fluxproject.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachingJwtAuthenticationManagerTest {
+
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    private Instant expiresAt;
+
+    private CachingJwtAuthenticationManager manager;
+
+    @BeforeEach
+    void setUp() {
+        expiresAt = Instant.now().plusSeconds(300);
+
+        ReactiveAuthenticationManager delegate = authentication -> {
+            verifications.incrementAndGet();
+            String token = ((BearerTokenAuthenticationToken) authentication).getToken();
+            if (token.startsWith("bad")) {
+                return Mono.error(new BadCredentialsException("invalid token"));
+            }
+            Jwt jwt = Jwt.withTokenValue(token)
+                    .header("alg", "RS256")
+                    .subject("user-1")
+                    .issuedAt(expiresAt.minusSeconds(600))
+                    .expiresAt(expiresAt)
+                    .build();
+            return Mono.just(new JwtAuthenticationToken(jwt));
+        };
+
+        manager = new CachingJwtAuthenticationManager(delegate, 100);
+    }
+
+    @Test
+    void shouldVerifyRepeatedTokenOnlyOnce() {
+
+        Authentication first = manager.authenticate(new BearerTokenAuthenticationToken("token-a")).block();
+
+        for (int i = 0; i < 9; i++) {
+            Authentication next = manager.authenticate(new BearerTokenAuthenticationToken("token-a")).block();
+            assertSame(first, next);
+        }
+
+        assertEquals(1, verifications.get());
+        assertEquals(0.9, manager.stats().hitRate(), 0.0001);
+    }
+
+    @Test
+    void shouldNotKeepExpiredTokens() {
+        expiresAt = Instant.now().minusSeconds(1);
+
+        manager.authenticate(new BearerTokenAuthenticationToken("token-b")).block();
+        manager.authenticate(new BearerTokenAuthenticationToken("token-b")).block();
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void shouldNotCacheFailures() {
+
+        assertThrows(BadCredentialsException.class,
+                () -> manager.authenticate(new BearerTokenAuthenticationToken("bad-token")).block());
+        assertThrows(BadCredentialsException.class,
+                () -> manager.authenticate(new BearerTokenAuthenticationToken("bad-token")).block());
+
+        assertEquals(2, verifications.get());
+    }
+}
@@ -0,0 +1,56 @@
+package com.flux.fluxproject.domain.converters;
+
+import com.flux.fluxproject.domain.OAuth2AuthRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.data.relational.core.sql.SqlIdentifier.unquoted;
+
+class OAuth2AuthRequestConvertersTest {
+
+    @Test
+    void shouldReadAuthRequestColumns() {
+        UUID userId = UUID.randomUUID();
+        Instant expiresAt = Instant.parse("2026-10-18T12:10:00Z");
+
+        OAuth2AuthRequest request = new OAuth2AuthRequestConverters.Reader().convert(TestRows.of(Map.of(
+                "provider", "X",
+                "user_id", userId,
+                "state", "state",
+                "code_verifier", "verifier",
+                "expires_at", expiresAt,
+                "consumed", true)));
+
+        assertEquals("X", request.getProvider());
+        assertEquals(userId, request.getUserId());
+        assertEquals("state", request.getState());
+        assertEquals("verifier", request.getCodeVerifier());
+        assertEquals(expiresAt, request.getExpiresAt());
+        assertTrue(request.isConsumed());
+    }
+
+    @Test
+    void shouldReadMissingOrNullConsumedAsFalse() {
+        OAuth2AuthRequest request = new OAuth2AuthRequestConverters.Reader().convert(TestRows.of(Map.of("state", "state")));
+
+        assertFalse(request.isConsumed());
+    }
+
+    @Test
+    void shouldAlwaysWriteConsumed() {
+        OAuth2AuthRequest request = OAuth2AuthRequest.builder().state("state").build();
+
+        OutboundRow row = new OAuth2AuthRequestConverters.Writer().convert(request);
+
+        assertEquals(false, row.get(unquoted("consumed")).getValue());
+        assertFalse(row.get(unquoted("id")).hasValue());
+        assertEquals(UUID.class, row.get(unquoted("user_id")).getType());
+    }
+}
@@ -0,0 +1,78 @@
+package com.flux.fluxproject.domain.converters;
+
+import com.flux.fluxproject.domain.Post;
+import com.flux.fluxproject.domain.PostStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.data.relational.core.sql.SqlIdentifier.unquoted;
+
+class PostConvertersTest {
+
+    @Test
+    void shouldReadPostColumns() {
+        UUID id = UUID.randomUUID();
+        Instant scheduledAt = Instant.parse("2026-10-18T12:00:00Z");
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("id", id);
+        columns.put("status", "scheduled");
+        columns.put("media_urls", new String[]{"a", "b"});
+        columns.put("scheduled_at_utc", scheduledAt);
+        columns.put("retry_count", 2);
+        columns.put("content", null);
+        columns.put("version", 3L);
+
+        Post post = new PostConverters.Reader().convert(TestRows.of(columns));
+
+        assertEquals(id, post.getId());
+        assertEquals(PostStatus.scheduled, post.getStatus());
+        assertEquals(List.of("a", "b"), post.getMediaUrls());
+        assertEquals(scheduledAt, post.getScheduledAtUtc());
+        assertEquals(2, post.getRetryCount());
+        assertEquals(3L, post.getVersion());
+        assertNull(post.getContent());
+    }
+
+    @Test
+    void shouldLeaveColumnsTheQueryDidNotSelectNull() {
+        UUID id = UUID.randomUUID();
+
+        Post post = new PostConverters.Reader().convert(TestRows.of(Map.of("id", id, "content", "hello")));
+
+        assertEquals(id, post.getId());
+        assertEquals("hello", post.getContent());
+        assertNull(post.getStatus());
+        assertNull(post.getMediaUrls());
+        assertNull(post.getScheduledAtUtc());
+    }
+
+    @Test
+    void shouldWriteNullsAsTypedEmptyParameters() {
+        Post post = Post.builder()
+                .content("hello")
+                .mediaUrls(List.of("a"))
+                .status(PostStatus.draft)
+                .build();
+
+        OutboundRow row = new PostConverters.Writer().convert(post);
+
+        var id = row.get(unquoted("id"));
+        assertFalse(id.hasValue());
+        assertEquals(UUID.class, id.getType());
+        assertEquals("draft", row.get(unquoted("status")).getValue());
+        assertArrayEquals(new String[]{"a"}, (String[]) row.get(unquoted("media_urls")).getValue());
+        assertTrue(row.containsKey(unquoted("deleted_at_utc")));
+        assertFalse(row.containsKey(unquoted("content_tsv")));
+    }
+}
@@ -0,0 +1,62 @@
+package com.flux.fluxproject.domain.converters;
+
+import com.flux.fluxproject.domain.SocialAccount;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.data.relational.core.sql.SqlIdentifier.unquoted;
+
+class SocialAccountConvertersTest {
+
+    @Test
+    void shouldReadSocialAccountColumns() {
+        UUID id = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        OffsetDateTime expiresAt = OffsetDateTime.parse("2026-10-18T12:00:00Z");
+
+        SocialAccount account = new SocialAccountConverters.Reader().convert(TestRows.of(Map.of(
+                "id", id,
+                "user_id", userId,
+                "platform", "X",
+                "username", "flux",
+                "auth_data", "v1:k1:sealed",
+                "expires_at", expiresAt,
+                "is_active", true)));
+
+        assertEquals(id, account.getId());
+        assertEquals(userId, account.getUserId());
+        assertEquals("X", account.getPlatform());
+        assertEquals("flux", account.getUsername());
+        assertEquals("v1:k1:sealed", account.getAuthData());
+        assertEquals(expiresAt, account.getExpiresAt());
+        assertEquals(true, account.getIsActive());
+        // Not selected
+        assertNull(account.getPlatformUserId());
+        assertNull(account.getProfileImageUrl());
+    }
+
+    @Test
+    void shouldWriteEveryMappedColumn() {
+        SocialAccount account = SocialAccount.builder()
+                .userId(UUID.randomUUID())
+                .platform("X")
+                .authData("sealed")
+                .isActive(true)
+                .build();
+
+        OutboundRow row = new SocialAccountConverters.Writer().convert(account);
+
+        assertEquals(11, row.size());
+        assertEquals("sealed", row.get(unquoted("auth_data")).getValue());
+        assertEquals(true, row.get(unquoted("is_active")).getValue());
+        assertFalse(row.get(unquoted("id")).hasValue());
+        assertEquals(OffsetDateTime.class, row.get(unquoted("expires_at")).getType());
+    }
+}
@@ -0,0 +1,38 @@
+package com.flux.fluxproject.domain.converters;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rows holding exactly the given columns. Like the driver, reading a column
+ * the row does not have throws.
+ */
+final class TestRows {
+
+    private TestRows() {
+    }
+
+    static Row of(Map<String, ?> columns) {
+        RowMetadata metadata = mock(RowMetadata.class);
+        when(metadata.contains(anyString())).thenAnswer(call -> columns.containsKey(call.<String>getArgument(0)));
+
+        Row row = mock(Row.class);
+        when(row.getMetadata()).thenReturn(metadata);
+        when(row.get(anyString(), any(Class.class))).thenAnswer(call -> {
+            String name = call.getArgument(0);
+            if (!columns.containsKey(name)) {
+                throw new NoSuchElementException("Column name '" + name + "' does not exist");
+            }
+            return call.<Class<?>>getArgument(1).cast(columns.get(name));
+        });
+        return row;
+    }
+}
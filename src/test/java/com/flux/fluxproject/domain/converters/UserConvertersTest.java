@@ -0,0 +1,46 @@
+package com.flux.fluxproject.domain.converters;
+
+import com.flux.fluxproject.domain.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.data.relational.core.sql.SqlIdentifier.unquoted;
+
+class UserConvertersTest {
+
+    @Test
+    void shouldReadUserColumns() {
+        UUID id = UUID.randomUUID();
+
+        User user = new UserConverters.Reader().convert(TestRows.of(Map.of(
+                "id", id,
+                "email", "user@flux.test",
+                "enabled", true,
+                "keycloak_id", "kc-1")));
+
+        assertEquals(id, user.getId());
+        assertEquals("user@flux.test", user.getEmail());
+        assertEquals(true, user.getEnabled());
+        assertEquals("kc-1", user.getKeycloakId());
+        assertNull(user.getName());
+        assertNull(user.getCreatedAt());
+    }
+
+    @Test
+    void shouldWriteNullsAsTypedEmptyParameters() {
+        User user = User.builder().email("user@flux.test").build();
+
+        OutboundRow row = new UserConverters.Writer().convert(user);
+
+        assertEquals(7, row.size());
+        assertEquals("user@flux.test", row.get(unquoted("email")).getValue());
+        assertFalse(row.get(unquoted("enabled")).hasValue());
+        assertEquals(Boolean.class, row.get(unquoted("enabled")).getType());
+    }
+}
@@ -0,0 +1,111 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.DatabaseTest;
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.PostChange;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PostChangesRepositoryTest extends DatabaseTest {
+
+    private static final UUID NO_ID = new UUID(0L, 0L);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Test
+    void shouldMergeWritesAndTombstonesInChangeOrder() {
+        UUID userId = createUser();
+        UUID accountId = createAccount(userId);
+        UUID kept = insertPost(userId, accountId, "kept");
+        UUID removed = insertPost(userId, accountId, "removed");
+        UUID softDeleted = insertPost(userId, accountId, "soft-deleted");
+        insertPost(createUser(), accountId, "someone else's");
+        execute("UPDATE posts SET status = 'deleted', deleted_at_utc = now() WHERE id = '%s'".formatted(softDeleted));
+        execute("DELETE FROM posts WHERE id = '%s'".formatted(removed));
+
+        List<PostChange> changes = changesSince(userId, Instant.EPOCH, NO_ID, 10);
+
+        assertEquals(List.of(kept, softDeleted, removed), changes.stream().map(PostChange::id).toList());
+        assertEquals("kept", changes.get(0).post().content());
+        assertEquals(PostStatus.deleted, changes.get(1).post().status());
+        assertNull(changes.get(2).post());
+    }
+
+    @Test
+    void shouldContinueAfterTheToken() {
+        UUID userId = createUser();
+        UUID accountId = createAccount(userId);
+        insertPost(userId, accountId, "first");
+        UUID second = insertPost(userId, accountId, "second");
+        UUID third = insertPost(userId, accountId, "third");
+        execute("DELETE FROM posts WHERE id = '%s'".formatted(third));
+
+        PostChange first = changesSince(userId, Instant.EPOCH, NO_ID, 1).getFirst();
+        List<PostChange> rest = changesSince(userId, first.changedAt(), first.id(), 10);
+
+        assertEquals(List.of(second, third), rest.stream().map(PostChange::id).toList());
+    }
+
+    @Test
+    void shouldHoldBackChangesNewerThanTheSettlePoint() {
+        UUID userId = createUser();
+        UUID accountId = createAccount(userId);
+        UUID settled = insertPost(userId, accountId, "settled");
+        UUID removedLater = insertPost(userId, accountId, "removed later");
+        Instant settledBefore = databaseClient.sql("SELECT clock_timestamp() AS now")
+                .map(row -> row.get("now", Instant.class))
+                .one()
+                .block();
+        insertPost(userId, accountId, "recent");
+        execute("DELETE FROM posts WHERE id = '%s'".formatted(removedLater));
+
+        List<PostChange> changes = postRepository.findChangesSince(userId, Instant.EPOCH, NO_ID, settledBefore, 10)
+                .collectList().block();
+
+        assertEquals(List.of(settled), changes.stream().map(PostChange::id).toList());
+    }
+
+    private List<PostChange> changesSince(UUID userId, Instant changedAt, UUID id, int limit) {
+        return postRepository.findChangesSince(userId, changedAt, id, Instant.now().plusSeconds(60), limit)
+                .collectList().block();
+    }
+
+    private UUID createAccount(UUID userId) {
+        return databaseClient.sql("""
+                        INSERT INTO social_accounts (user_id, platform, platform_user_id, auth_data)
+                        VALUES (:userId, 'X', :userId::text, 'sealed')
+                        RETURNING id
+                        """)
+                .bind("userId", userId)
+                .map(row -> row.get("id", UUID.class))
+                .one()
+                .block();
+    }
+
+    // Each insert is its own transaction, so updated_at_utc increases from one post to the next
+    private UUID insertPost(UUID userId, UUID accountId, String content) {
+        return databaseClient.sql("""
+                        INSERT INTO posts (user_id, social_account_id, platform, content, scheduled_at_utc)
+                        VALUES (:userId, :accountId, 'X', :content, now() + interval '1 day')
+                        RETURNING id
+                        """)
+                .bind("userId", userId)
+                .bind("accountId", accountId)
+                .bind("content", content)
+                .map(row -> row.get("id", UUID.class))
+                .one()
+                .block();
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+}
@@ -0,0 +1,203 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.domain.PostStatus;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.core.io.ClassPathResource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guards the listing plans: every status variant must seek on its index,
+ * already in index order, even once Postgres switches to a generic plan.
+ * posts is partitioned, so the scans run on the partitions' copies of the
+ * index, which the partitions must be walked in order (no Merge Append)
+ * and, past a cursor, pruned.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PostListingQueryPlanTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+
+    private static final String SEED = """
+SELECT setseed(0.42);
+INSERT INTO users (id, email)
+SELECT ('00000000-0000-0000-0000-' || lpad(g::text, 12, '0'))::uuid, 'user' || g || '@flux.test'
+FROM generate_series(1, 500) g;
+INSERT INTO social_accounts (user_id, platform, platform_user_id, auth_data)
+SELECT id, 'X', id::text, 'encrypted'
+FROM users;
+SELECT posts_create_partitions(now() - interval '1 year', now());
+INSERT INTO posts (user_id, social_account_id, platform, content, scheduled_at_utc, status)
+SELECT sa.user_id, sa.id, 'X', 'post ' || g,
+       now() - make_interval(mins => (random() * 500000)::int),
+       (ARRAY['scheduled','published','published','published','failed','deleted','draft','cancelled'])[1 + g % 8]
+FROM social_accounts sa, generate_series(1, 200) g;
+ANALYZE;
+""";
+
+    private static final Map<String, String> PARAM_TYPES = Map.of(
+            "userId", "uuid",
+            "limit", "int",
+            "lastScheduledAt", "timestamptz",
+            "lastId", "uuid",
+            "firstScheduledAt", "timestamptz",
+            "firstId", "uuid"
+    );
+
+    private static final Map<String, String> PARAM_VALUES = Map.of(
+            "userId", "'00000000-0000-0000-0000-000000000007'",
+            "limit", "21",
+            "lastScheduledAt", "now() - interval '30 days'",
+            "lastId", "'ffffffff-ffff-ffff-ffff-ffffffffffff'",
+            "firstScheduledAt", "now() - interval '30 days'",
+            "firstId", "'00000000-0000-0000-0000-000000000000'"
+    );
+
+    private static final Pattern NAMED_PARAMETER = Pattern.compile(":(\\w+)");
+
+    private static final Pattern INDEX_SCAN = Pattern.compile("(Index Scan(?: Backward)?) using (\\S+) on posts_p");
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void setUpDatabase() throws Exception {
+        connection = DriverManager.getConnection(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(new ClassPathResource("schema.sql").getContentAsString(StandardCharsets.UTF_8));
+            statement.execute(SEED);
+            statement.execute("SET plan_cache_mode = force_generic_plan");
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    static Stream<Arguments> listingVariants() {
+        return Stream.of(
+                Arguments.of(null, "idx_posts_user_sched_id_live"),
+                Arguments.of(PostStatus.scheduled, "idx_posts_user_sched_id_scheduled"),
+                Arguments.of(PostStatus.published, "idx_posts_user_sched_id_published"),
+                Arguments.of(PostStatus.failed, "idx_posts_user_sched_id_failed")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("listingVariants")
+    void firstPageShouldSeekOnPartialIndex(PostStatus status, String expectedIndex) throws SQLException {
+
+        String plan = explainGenericPlan(PostListingRepositoryImpl.firstPageSql(status));
+
+        assertScansOnly(plan, "Index Scan", expectedIndex);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @ParameterizedTest
+    @MethodSource("listingVariants")
+    void nextPageShouldSeekPastCursorOnPartialIndex(PostStatus status, String expectedIndex) throws SQLException {
+
+        String plan = explainGenericPlan(PostListingRepositoryImpl.nextPageSql(status));
+
+        assertScansOnly(plan, "Index Scan", expectedIndex);
+        assertTrue(plan.contains("ROW(scheduled_at_utc, id) < ROW($2, $3)"), plan);
+        assertTrue(plan.contains("Subplans Removed"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    @ParameterizedTest
+    @MethodSource("listingVariants")
+    void previousPageShouldSeekBackwardOnPartialIndex(PostStatus status, String expectedIndex) throws SQLException {
+
+        String plan = explainGenericPlan(PostListingRepositoryImpl.previousPageSql(status));
+
+        assertScansOnly(plan, "Index Scan Backward", expectedIndex);
+        assertTrue(plan.contains("ROW(scheduled_at_utc, id) > ROW($2, $3)"), plan);
+        assertTrue(plan.contains("Subplans Removed"), plan);
+        assertFalse(plan.contains("Sort"), plan);
+    }
+
+    /** Every partition scan in the plan is of the given kind, on a partition of the given index. */
+    private static void assertScansOnly(String plan, String scan, String parentIndex) throws SQLException {
+        List<String> partitionIndexes = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT inhrelid::regclass::text FROM pg_inherits WHERE inhparent = '" + parentIndex + "'::regclass")) {
+            while (rs.next()) {
+                partitionIndexes.add(rs.getString(1));
+            }
+        }
+
+        Matcher matcher = INDEX_SCAN.matcher(plan);
+        int scans = 0;
+        while (matcher.find()) {
+            scans++;
+            assertEquals(scan, matcher.group(1), plan);
+            assertTrue(partitionIndexes.contains(matcher.group(2)), plan);
+        }
+        assertTrue(scans > 0, plan);
+        assertFalse(plan.contains("Merge Append"), plan);
+    }
+
+    /**
+     * Prepares the repository SQL with positional parameters and explains the
+     * generic plan, which is what a cached prepared statement ends up using.
+     */
+    private static String explainGenericPlan(String namedSql) throws SQLException {
+        List<String> names = new ArrayList<>();
+        Matcher matcher = NAMED_PARAMETER.matcher(namedSql);
+        StringBuilder positionalSql = new StringBuilder();
+        while (matcher.find()) {
+            if (!names.contains(matcher.group(1))) {
+                names.add(matcher.group(1));
+            }
+            matcher.appendReplacement(positionalSql, "\\$" + (names.indexOf(matcher.group(1)) + 1));
+        }
+        matcher.appendTail(positionalSql);
+
+        String types = names.stream().map(PARAM_TYPES::get).collect(Collectors.joining(", "));
+        String values = names.stream().map(PARAM_VALUES::get).collect(Collectors.joining(", "));
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PREPARE listing (" + types + ") AS " + positionalSql);
+            try (ResultSet rs = statement.executeQuery("EXPLAIN EXECUTE listing (" + values + ")")) {
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+                return plan.toString();
+            } finally {
+                statement.execute("DEALLOCATE listing");
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.DatabaseTest;
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.PostMutationResult;
+import com.flux.fluxproject.model.PostMutationResult.Outcome;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The outcome CTE of the conditional update and delete, including a claim
+ * by the scheduler that commits while the update waits on the row.
+ */
+class PostMutationRepositoryTest extends DatabaseTest {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Test
+    void shouldUpdateAnEditablePost() {
+        UUID userId = createUser();
+        UUID postId = insertPost(userId, createAccount(userId), "scheduled");
+
+        PostMutationResult result = postRepository.updateIfEditable(userId, postId, "edited", null, 0L).block();
+
+        assertEquals(Outcome.UPDATED, result.outcome());
+        assertEquals("edited", result.post().content());
+        assertEquals(1L, result.post().version());
+    }
+
+    @Test
+    void shouldReportAMissingPost() {
+        UUID userId = createUser();
+
+        assertEquals(Outcome.NOT_FOUND, update(userId, UUID.randomUUID(), null));
+        assertEquals(Outcome.NOT_FOUND, postRepository.deleteIfEditable(userId, UUID.randomUUID(), null).block().outcome());
+    }
+
+    @Test
+    void shouldReportSomeoneElsesPostAsForbidden() {
+        UUID owner = createUser();
+        UUID postId = insertPost(owner, createAccount(owner), "scheduled");
+
+        assertEquals(Outcome.FORBIDDEN, update(createUser(), postId, null));
+        assertEquals("original", content(postId));
+    }
+
+    @Test
+    void shouldReportAPostPastEditingAsAStatusConflict() {
+        UUID userId = createUser();
+        UUID postId = insertPost(userId, createAccount(userId), "published");
+
+        assertEquals(Outcome.STATUS_CONFLICT, update(userId, postId, null));
+        assertEquals(Outcome.STATUS_CONFLICT, postRepository.deleteIfEditable(userId, postId, 0L).block().outcome());
+    }
+
+    @Test
+    void shouldReportAStaleVersionAsAVersionConflict() {
+        UUID userId = createUser();
+        UUID postId = insertPost(userId, createAccount(userId), "scheduled");
+        update(userId, postId, 0L);
+
+        PostMutationResult result = postRepository.updateIfEditable(userId, postId, "stale", null, 0L).block();
+
+        assertEquals(Outcome.VERSION_CONFLICT, result.outcome());
+        assertNull(result.post());
+        assertEquals("edited", content(postId));
+    }
+
+    @Test
+    void shouldReportAConcurrentClaimAsAStatusConflict() throws Exception {
+        assertConcurrentClaimIsAStatusConflict(0L);
+        assertConcurrentClaimIsAStatusConflict(null);
+    }
+
+    private void assertConcurrentClaimIsAStatusConflict(Long expectedVersion) throws Exception {
+        UUID userId = createUser();
+        UUID postId = insertPost(userId, createAccount(userId), "scheduled");
+
+        Sinks.Empty<Void> claimed = Sinks.empty();
+        Sinks.Empty<Void> release = Sinks.empty();
+        // The scheduler's claim, kept uncommitted until released
+        CompletableFuture<Void> claim = transactionalOperator.transactional(
+                        databaseClient.sql("UPDATE posts SET status = 'publishing' WHERE id = :postId")
+                                .bind("postId", postId)
+                                .then()
+                                .then(Mono.defer(() -> {
+                                    claimed.tryEmitEmpty();
+                                    return release.asMono();
+                                })))
+                .toFuture();
+        claimed.asMono().block(Duration.ofSeconds(5));
+
+        CompletableFuture<PostMutationResult> update =
+                postRepository.updateIfEditable(userId, postId, "edited", null, expectedVersion).toFuture();
+        Thread.sleep(500);
+        assertFalse(update.isDone());
+
+        release.tryEmitEmpty();
+        claim.get(5, TimeUnit.SECONDS);
+        assertEquals(Outcome.STATUS_CONFLICT, update.get(5, TimeUnit.SECONDS).outcome());
+        assertEquals("original", content(postId));
+        assertEquals(PostStatus.publishing, postRepository.findById(postId).block().getStatus());
+    }
+
+    private Outcome update(UUID userId, UUID postId, Long expectedVersion) {
+        return postRepository.updateIfEditable(userId, postId, "edited", null, expectedVersion).block().outcome();
+    }
+
+    private String content(UUID postId) {
+        return databaseClient.sql("SELECT content FROM posts WHERE id = :postId")
+                .bind("postId", postId)
+                .map(row -> row.get("content", String.class))
+                .one()
+                .block();
+    }
+
+    private UUID createAccount(UUID userId) {
+        return databaseClient.sql("""
+                        INSERT INTO social_accounts (user_id, platform, platform_user_id, auth_data)
+                        VALUES (:userId, 'X', :userId::text, 'sealed')
+                        RETURNING id
+                        """)
+                .bind("userId", userId)
+                .map(row -> row.get("id", UUID.class))
+                .one()
+                .block();
+    }
+
+    private UUID insertPost(UUID userId, UUID accountId, String status) {
+        return databaseClient.sql("""
+                        INSERT INTO posts (user_id, social_account_id, platform, content, scheduled_at_utc, status)
+                        VALUES (:userId, :accountId, 'X', 'original', now() + interval '1 day', :status)
+                        RETURNING id
+                        """)
+                .bind("userId", userId)
+                .bind("accountId", accountId)
+                .bind("status", status)
+                .map(row -> row.get("id", UUID.class))
+                .one()
+                .block();
+    }
+}
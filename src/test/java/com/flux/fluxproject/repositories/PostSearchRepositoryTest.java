@@ -0,0 +1,90 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.DatabaseTest;
+import com.flux.fluxproject.model.PostSearchHit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostSearchRepositoryTest extends DatabaseTest {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Test
+    void shouldPageThroughMatchesBestFirst() {
+        UUID userId = createUser();
+        UUID accountId = createAccount(userId);
+        insertPost(userId, accountId, "launch");
+        insertPost(userId, accountId, "launch launch");
+        insertPost(userId, accountId, "launch launch launch");
+        insertPost(userId, accountId, "something else");
+        insertPost(createUser(), accountId, "launch");
+
+        List<PostSearchHit> first = postRepository.searchFirstPage(userId, "launch", null, 2).collectList().block();
+        PostSearchHit last = first.getLast();
+        List<PostSearchHit> next = postRepository.searchNextPage(userId, "launch", null, last.rank(), last.post().id(), 2)
+                .collectList().block();
+
+        List<String> contents = new ArrayList<>();
+        first.forEach(hit -> contents.add(hit.post().content()));
+        next.forEach(hit -> contents.add(hit.post().content()));
+        assertEquals(List.of("launch launch launch", "launch launch", "launch"), contents);
+        assertTrue(first.get(0).rank() > first.get(1).rank());
+    }
+
+    @Test
+    void shouldTreatTheQueryAsText() {
+        UUID userId = createUser();
+        UUID accountId = createAccount(userId);
+        String hostile = "it's \\' a $1 :userId ?; -- /* test */ $$ x";
+        insertPost(userId, accountId, hostile);
+
+        List<PostSearchHit> hits = postRepository.searchFirstPage(userId, hostile + "\0", null, 10).collectList().block();
+
+        assertEquals(1, hits.size());
+        assertEquals(hostile, hits.getFirst().post().content());
+        assertEquals(0, postRepository.searchFirstPage(userId, "'); DELETE FROM posts; --", null, 10).count().block());
+        assertEquals(1, postRepository.searchFirstPage(userId, "test", null, 10).count().block());
+    }
+
+    @Test
+    void connectionsShouldPlanEverySearchForItsValues() {
+        String mode = databaseClient.sql("SHOW plan_cache_mode")
+                .map(row -> row.get(0, String.class))
+                .one()
+                .block();
+
+        assertEquals("force_custom_plan", mode);
+    }
+
+    private UUID createAccount(UUID userId) {
+        return databaseClient.sql("""
+                        INSERT INTO social_accounts (user_id, platform, platform_user_id, auth_data)
+                        VALUES (:userId, 'X', :userId::text, 'sealed')
+                        RETURNING id
+                        """)
+                .bind("userId", userId)
+                .map(row -> row.get("id", UUID.class))
+                .one()
+                .block();
+    }
+
+    private void insertPost(UUID userId, UUID accountId, String content) {
+        databaseClient.sql("""
+                        INSERT INTO posts (user_id, social_account_id, platform, content, scheduled_at_utc)
+                        VALUES (:userId, :accountId, 'X', :content, now() + interval '1 day')
+                        """)
+                .bind("userId", userId)
+                .bind("accountId", accountId)
+                .bind("content", content)
+                .then()
+                .block();
+    }
+}
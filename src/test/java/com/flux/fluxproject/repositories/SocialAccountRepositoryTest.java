@@ -0,0 +1,49 @@
+package com.flux.fluxproject.repositories;
+
+import com.flux.fluxproject.DatabaseTest;
+import com.flux.fluxproject.domain.SocialAccount;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SocialAccountRepositoryTest extends DatabaseTest {
+
+    @Autowired
+    private SocialAccountRepository socialAccountRepository;
+
+    @Test
+    void shouldRefreshTheAccountWhenItsOwnerReconnects() {
+        UUID userId = createUser();
+        String platformUserId = UUID.randomUUID().toString();
+
+        SocialAccount first = upsert(userId, platformUserId, "first");
+        SocialAccount second = upsert(userId, platformUserId, "second");
+
+        assertEquals(first.getId(), second.getId());
+        assertEquals("second", second.getAuthData());
+    }
+
+    @Test
+    void shouldNotMoveAnAccountLinkedToAnotherUser() {
+        UUID owner = createUser();
+        UUID other = createUser();
+        String platformUserId = UUID.randomUUID().toString();
+        SocialAccount linked = upsert(owner, platformUserId, "owner's");
+
+        assertNull(upsert(other, platformUserId, "other's"));
+
+        SocialAccount stored = socialAccountRepository.findById(linked.getId()).block();
+        assertEquals(owner, stored.getUserId());
+        assertEquals("owner's", stored.getAuthData());
+    }
+
+    private SocialAccount upsert(UUID userId, String platformUserId, String authData) {
+        return socialAccountRepository.upsertByPlatformUserId(userId, "X", platformUserId, "flux", null,
+                authData, OffsetDateTime.now().plusHours(2)).block();
+    }
+}
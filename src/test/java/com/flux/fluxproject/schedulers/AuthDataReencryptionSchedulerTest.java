@@ -0,0 +1,216 @@
+package com.flux.fluxproject.schedulers;
+
+import com.flux.fluxproject.DatabaseTest;
+import com.flux.fluxproject.config.AesProperties;
+import com.flux.fluxproject.model.AuthDataReencryptionProgress;
+import com.flux.fluxproject.model.XAuthTokens;
+import com.flux.fluxproject.repositories.SocialAccountRepository;
+import com.flux.fluxproject.services.utils.EncryptionUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Re-encryption to k2 against real social_accounts rows. The table is shared
+ * with other tests, whose placeholder auth_data does not open and is counted
+ * as failed, so assertions on resealing stick to this test's own accounts.
+ */
+@Import({AuthDataReencryptionScheduler.class, AuthDataReencryptionSchedulerTest.Keys.class})
+@TestPropertySource(properties = {
+        "app.security.reencryption.initial-delay=PT1H",
+        "app.security.reencryption.batch-size=2",
+        "app.security.reencryption.batch-pause=PT0S"
+})
+class AuthDataReencryptionSchedulerTest extends DatabaseTest {
+
+    private static final String LEGACY_KEY = "AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8=";
+    private static final String K1 = "ICEiIyQlJicoKSorLC0uLzAxMjM0NTY3ODk6Ozw9Pj8=";
+    private static final String K2 = "QEFCQ0RFRkdISUpLTE1OT1BRUlNUVVZXWFlaW1xdXl8=";
+
+    private static final Map<String, String> KEYS = Map.of("k1", K1, "k2", K2);
+
+    /** Seals the way the app did before key ids, and while k1 was active. */
+    private final EncryptionUtil legacy = new EncryptionUtil(new AesProperties(LEGACY_KEY, null, null));
+    private final EncryptionUtil underK1 = new EncryptionUtil(new AesProperties(LEGACY_KEY, KEYS, "k1"));
+
+    @Autowired
+    private AuthDataReencryptionScheduler scheduler;
+
+    @Autowired
+    private SocialAccountRepository socialAccountRepository;
+
+    @Autowired
+    private EncryptionUtil encryptionUtil;
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class Keys {
+
+        @Bean
+        EncryptionUtil encryptionUtil() {
+            return new EncryptionUtil(new AesProperties(LEGACY_KEY, KEYS, "k2"));
+        }
+    }
+
+    @BeforeEach
+    void startAFreshPass() {
+        databaseClient.sql("DELETE FROM auth_data_reencryption_progress WHERE key_id = 'k2'").then().block();
+    }
+
+    @Test
+    void shouldResealEveryAccountInBatches() throws Exception {
+        UUID userId = createUser();
+        XAuthTokens tokens = tokens("batches");
+        List<UUID> stale = List.of(
+                createAccount(userId, legacy.seal(tokens)),
+                createAccount(userId, legacy.seal(tokens)),
+                createAccount(userId, legacy.seal(tokens)),
+                createAccount(userId, underK1.seal(tokens)));
+        String current = encryptionUtil.seal(tokens);
+        UUID alreadyCurrent = createAccount(userId, current);
+        long accounts = countAccountsAfter(new UUID(0L, 0L));
+
+        AuthDataReencryptionProgress progress = scheduler.reencrypt("k2").block();
+
+        assertNotNull(progress);
+        assertNotNull(progress.completedAt());
+        // Batches of two, each starting after the last account of the one before
+        assertEquals(accounts, progress.scanned());
+        assertEquals(lastAccountId(), progress.lastAccountId());
+        assertTrue(progress.resealed() >= stale.size(), "resealed " + progress.resealed());
+        for (UUID accountId : stale) {
+            String authData = authData(accountId);
+            assertTrue(encryptionUtil.isSealedWithActiveKey(authData));
+            assertEquals(tokens, encryptionUtil.open(authData));
+        }
+        assertEquals(current, authData(alreadyCurrent));
+    }
+
+    @Test
+    void resealShouldOnlyReplaceValuesStillUnchanged() throws Exception {
+        UUID userId = createUser();
+        String unchanged = legacy.seal(tokens("unchanged"));
+        String refreshed = encryptionUtil.seal(tokens("refreshed"));
+        UUID first = createAccount(userId, unchanged);
+        UUID second = createAccount(userId, refreshed);
+        String firstResealed = encryptionUtil.reseal(unchanged);
+
+        // second was refreshed after it was read, so its reseal must lose
+        Integer written = socialAccountRepository.resealAuthData(
+                new UUID[]{first, second},
+                new String[]{unchanged, legacy.seal(tokens("read before the refresh"))},
+                new String[]{firstResealed, encryptionUtil.seal(tokens("read before the refresh"))}).block();
+
+        assertEquals(1, written);
+        assertEquals(firstResealed, authData(first));
+        assertEquals(refreshed, authData(second));
+    }
+
+    @Test
+    void shouldResumeWhereThePreviousRunStopped() throws Exception {
+        UUID userId = createUser();
+        Map<UUID, String> sealed = new HashMap<>();
+        for (int i = 0; i < 4; i++) {
+            String authData = legacy.seal(tokens("resume " + i));
+            sealed.put(createAccount(userId, authData), authData);
+        }
+        // In the database's uuid order, which is not UUID.compareTo's
+        List<UUID> accountIds = databaseClient.sql("SELECT id FROM social_accounts WHERE user_id = :userId ORDER BY id")
+                .bind("userId", userId)
+                .map(row -> row.get("id", UUID.class))
+                .all()
+                .collectList()
+                .block();
+        UUID stoppedAt = accountIds.get(1);
+        databaseClient.sql("""
+                        INSERT INTO auth_data_reencryption_progress (key_id, last_account_id, scanned, resealed)
+                        VALUES ('k2', :stoppedAt, 7, 3)
+                        """)
+                .bind("stoppedAt", stoppedAt)
+                .then()
+                .block();
+        long remaining = countAccountsAfter(stoppedAt);
+
+        AuthDataReencryptionProgress progress = scheduler.reencrypt("k2").block();
+
+        assertNotNull(progress.completedAt());
+        assertEquals(7 + remaining, progress.scanned());
+        assertTrue(progress.resealed() >= 3 + 2, "resealed " + progress.resealed());
+        // Accounts up to where it stopped are taken as done and not read again
+        assertEquals(sealed.get(accountIds.get(0)), authData(accountIds.get(0)));
+        assertEquals(sealed.get(accountIds.get(1)), authData(accountIds.get(1)));
+        assertTrue(encryptionUtil.isSealedWithActiveKey(authData(accountIds.get(2))));
+        assertTrue(encryptionUtil.isSealedWithActiveKey(authData(accountIds.get(3))));
+    }
+
+    @Test
+    void shouldDoNothingOnceThePassHasCompleted() throws Exception {
+        UUID userId = createUser();
+        assertNotNull(scheduler.reencrypt("k2").block().completedAt());
+        String authData = legacy.seal(tokens("late"));
+        UUID late = createAccount(userId, authData);
+
+        assertNull(scheduler.reencrypt("k2").block());
+        assertEquals(authData, authData(late));
+
+        // Deleting the progress row sweeps again
+        startAFreshPass();
+        assertNotNull(scheduler.reencrypt("k2").block().completedAt());
+        assertNotEquals(authData, authData(late));
+        assertTrue(encryptionUtil.isSealedWithActiveKey(authData(late)));
+    }
+
+    private static XAuthTokens tokens(String accessToken) {
+        return new XAuthTokens(accessToken, "refresh", 7200L, "tweet.read tweet.write");
+    }
+
+    private UUID createAccount(UUID userId, String authData) {
+        return databaseClient.sql("""
+                        INSERT INTO social_accounts (user_id, platform, platform_user_id, auth_data)
+                        VALUES (:userId, 'X', gen_random_uuid()::text, :authData)
+                        RETURNING id
+                        """)
+                .bind("userId", userId)
+                .bind("authData", authData)
+                .map(row -> row.get("id", UUID.class))
+                .one()
+                .block();
+    }
+
+    private String authData(UUID accountId) {
+        return databaseClient.sql("SELECT auth_data FROM social_accounts WHERE id = :id")
+                .bind("id", accountId)
+                .map(row -> row.get("auth_data", String.class))
+                .one()
+                .block();
+    }
+
+    private long countAccountsAfter(UUID afterId) {
+        return databaseClient.sql("SELECT count(*) AS accounts FROM social_accounts WHERE id > :afterId")
+                .bind("afterId", afterId)
+                .map(row -> row.get("accounts", Long.class))
+                .one()
+                .block();
+    }
+
+    private UUID lastAccountId() {
+        return databaseClient.sql("SELECT id AS last_id FROM social_accounts ORDER BY id DESC LIMIT 1")
+                .map(row -> row.get("last_id", UUID.class))
+                .one()
+                .block();
+    }
+}
@@ -0,0 +1,166 @@
+package com.flux.fluxproject.schedulers;
+
+import com.flux.fluxproject.DatabaseTest;
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.PostStatusCount;
+import com.flux.fluxproject.repositories.PostRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * post_counters against real triggers: the statement triggers keep them in
+ * step with posts, the reconciliation fixes drift, and its locks only hold
+ * up the batch's own users.
+ */
+@Import(PostCounterReconciliationScheduler.class)
+@TestPropertySource(properties = {
+        "app.posts.counters.reconcile-cron=-",
+        "app.posts.counters.reconcile-batch-size=2",
+        "app.posts.counters.reconcile-batch-pause=PT0S"
+})
+class PostCounterReconciliationSchedulerTest extends DatabaseTest {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostCounterReconciliationScheduler scheduler;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Test
+    void triggersShouldCountInsertsUpdatesAndDeletes() {
+        UUID userId = createUser();
+        UUID accountId = createAccount(userId);
+
+        insertPosts(userId, accountId, "scheduled", 3).block();
+        insertPosts(userId, accountId, "draft", 1).block();
+        assertEquals(Map.of(PostStatus.scheduled, 3L, PostStatus.draft, 1L), counts(userId));
+
+        execute("""
+                UPDATE posts SET status = 'published'
+                WHERE id IN (SELECT id FROM posts WHERE user_id = :userId AND status = 'scheduled' LIMIT 2)
+                """, userId);
+        execute("UPDATE posts SET content = 'edited' WHERE user_id = :userId", userId);
+        assertEquals(Map.of(PostStatus.scheduled, 1L, PostStatus.published, 2L, PostStatus.draft, 1L), counts(userId));
+
+        execute("DELETE FROM posts WHERE user_id = :userId AND status = 'draft'", userId);
+        assertEquals(Map.of(PostStatus.scheduled, 1L, PostStatus.published, 2L), counts(userId));
+    }
+
+    @Test
+    void reconciliationShouldFixDriftedCounters() {
+        UUID inflated = createUser();
+        UUID missing = createUser();
+        UUID stale = createUser();
+        UUID correct = createUser();
+        for (UUID userId : List.of(inflated, missing, stale, correct)) {
+            insertPosts(userId, createAccount(userId), "scheduled", 2).block();
+        }
+        execute("UPDATE post_counters SET post_count = 99 WHERE user_id = :userId", inflated);
+        execute("DELETE FROM post_counters WHERE user_id = :userId", missing);
+        execute("INSERT INTO post_counters (user_id, status, post_count) VALUES (:userId, 'failed', 5)", stale);
+
+        long corrected = scheduler.reconcile().block();
+
+        assertTrue(corrected >= 3, "corrected " + corrected);
+        for (UUID userId : List.of(inflated, missing, stale, correct)) {
+            assertEquals(Map.of(PostStatus.scheduled, 2L), counts(userId));
+        }
+        assertEquals(0L, scheduler.reconcile().block());
+    }
+
+    @Test
+    void batchShouldOnlyHoldUpItsOwnUsers() throws Exception {
+        UUID locked = createUser();
+        UUID other = createUser();
+        UUID lockedAccount = createAccount(locked);
+        UUID otherAccount = createAccount(other);
+        insertPosts(locked, lockedAccount, "scheduled", 1).block();
+        insertPosts(other, otherAccount, "scheduled", 1).block();
+
+        Sinks.Empty<Void> held = Sinks.empty();
+        Sinks.Empty<Void> release = Sinks.empty();
+        // A batch of exactly the locked user, kept open until released
+        CompletableFuture<List<UUID>> batch = transactionalOperator.transactional(
+                        postRepository.lockCounterBatch(justBefore(locked), 1)
+                                .collectList()
+                                .flatMap(userIds -> {
+                                    held.tryEmitEmpty();
+                                    return release.asMono().thenReturn(userIds);
+                                }))
+                .toFuture();
+        held.asMono().block(Duration.ofSeconds(5));
+
+        insertPosts(other, otherAccount, "scheduled", 1).block(Duration.ofSeconds(5));
+        CompletableFuture<Void> waiting = insertPosts(locked, lockedAccount, "scheduled", 1).toFuture();
+        Thread.sleep(500);
+        assertFalse(waiting.isDone());
+
+        release.tryEmitEmpty();
+        assertEquals(List.of(locked), batch.get(5, TimeUnit.SECONDS));
+        waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(Map.of(PostStatus.scheduled, 2L), counts(locked));
+        assertEquals(Map.of(PostStatus.scheduled, 2L), counts(other));
+    }
+
+    private UUID createAccount(UUID userId) {
+        return databaseClient.sql("""
+                        INSERT INTO social_accounts (user_id, platform, platform_user_id, auth_data)
+                        VALUES (:userId, 'X', :userId::text, 'sealed')
+                        RETURNING id
+                        """)
+                .bind("userId", userId)
+                .map(row -> row.get("id", UUID.class))
+                .one()
+                .block();
+    }
+
+    /** One INSERT statement, so the trigger sees all the rows at once. */
+    private Mono<Void> insertPosts(UUID userId, UUID accountId, String status, int count) {
+        return databaseClient.sql("""
+                        INSERT INTO posts (user_id, social_account_id, platform, content, scheduled_at_utc, status)
+                        SELECT :userId, :accountId, 'X', 'post ' || g, now() + make_interval(hours => g), :status
+                        FROM generate_series(1, :count) g
+                        """)
+                .bind("userId", userId)
+                .bind("accountId", accountId)
+                .bind("status", status)
+                .bind("count", count)
+                .then();
+    }
+
+    private void execute(String sql, UUID userId) {
+        databaseClient.sql(sql).bind("userId", userId).then().block();
+    }
+
+    /** The stats path's counts, without the statuses at zero. */
+    private Map<PostStatus, Long> counts(UUID userId) {
+        return postRepository.findStatusCounts(userId)
+                .filter(count -> count.postCount() != 0)
+                .collectMap(PostStatusCount::status, PostStatusCount::postCount)
+                .block();
+    }
+
+    // Random UUIDs never have an all-zero low half, so this cannot borrow
+    private static UUID justBefore(UUID id) {
+        return new UUID(id.getMostSignificantBits(), id.getLeastSignificantBits() - 1);
+    }
+}
@@ -0,0 +1,267 @@
+package com.flux.fluxproject.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.ArchiveMonth;
+import com.flux.fluxproject.model.ArchiveSegment;
+import com.flux.fluxproject.model.ArchivedPost;
+import com.flux.fluxproject.model.PostChangeEvent;
+import com.flux.fluxproject.model.PostCursor;
+import com.flux.fluxproject.model.PostViewResponse;
+import com.flux.fluxproject.repositories.PostRepository;
+import com.flux.fluxproject.storage.service.StorageService;
+import com.flux.fluxproject.storage.util.ObjectKeyGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostArchiveServiceTest {
+
+    private static final Instant MONTH = Instant.parse("2025-03-01T00:00:00Z");
+
+    private final UUID userId = UUID.randomUUID();
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final Sinks.Many<PostChangeEvent> changes = Sinks.many().multicast().directBestEffort();
+
+    private PostRepository postRepository;
+    private StorageService storageService;
+    private ObjectKeyGenerator objectKeyGenerator;
+    private PostArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        storageService = mock(StorageService.class);
+        objectKeyGenerator = mock(ObjectKeyGenerator.class);
+        TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+        when(transactionalOperator.transactional(ArgumentMatchers.<Mono<Object>>any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        PostChangeNotifier notifier = mock(PostChangeNotifier.class);
+        when(notifier.changes()).thenReturn(changes.asFlux());
+        when(notifier.publish(any())).thenAnswer(invocation ->
+                Mono.fromRunnable(() -> changes.tryEmitNext(invocation.getArgument(0))));
+
+        archiveService = new PostArchiveService(postRepository, storageService, objectKeyGenerator, objectMapper,
+                transactionalOperator, notifier);
+        ReflectionTestUtils.setField(archiveService, "blockRows", 3);
+    }
+
+    @Test
+    void shouldEncodeBlocksThatDecodeOnTheirOwn() throws Exception {
+        List<ArchivedPost> posts = posts(7);
+
+        PostArchiveService.EncodedSegment encoded = archiveService.encode(new ArchiveMonth(userId, MONTH), "key", posts);
+
+        ArchiveSegment segment = encoded.segment();
+        assertEquals(3, segment.blockCount());
+        assertEquals(encoded.content().length, segment.blockOffsets()[3]);
+        assertEquals(posts.get(2).scheduledAtUtc(), segment.blockOldest()[0]);
+        assertEquals(posts.getLast().scheduledAtUtc(), segment.oldestScheduledAt());
+        assertEquals(5, segment.publishedCount());
+        assertEquals(2, segment.failedCount());
+
+        List<ArchivedPost> decoded = new ArrayList<>();
+        for (int block = 0; block < segment.blockCount(); block++) {
+            long[] offsets = segment.blockOffsets();
+            byte[] bytes = new byte[(int) (offsets[block + 1] - offsets[block])];
+            System.arraycopy(encoded.content(), (int) offsets[block], bytes, 0, bytes.length);
+            decoded.addAll(archiveService.decodeBlock(bytes));
+        }
+        assertEquals(posts, decoded);
+    }
+
+    @Test
+    void shouldReadFromTheCursorsBlockOnward() throws Exception {
+        List<ArchivedPost> posts = posts(7);
+        PostArchiveService.EncodedSegment encoded = archiveService.encode(new ArchiveMonth(userId, MONTH), "key", posts);
+        ArchiveSegment segment = encoded.segment();
+        serve(encoded);
+
+        ArchivedPost cursorPost = posts.get(4);
+        PostCursor cursor = new PostCursor(cursorPost.scheduledAtUtc(), cursorPost.id());
+        when(postRepository.findSegmentsBefore(userId, cursor.scheduledAt(), null)).thenReturn(Flux.just(segment));
+
+        List<UUID> ids = archiveService.findBefore(userId, null, cursor, null, 10)
+                .map(PostViewResponse::id)
+                .collectList()
+                .block();
+
+        assertEquals(posts.subList(5, 7).stream().map(ArchivedPost::id).toList(), ids);
+        verify(storageService).download("key", segment.blockOffsets()[1], segment.blockOffsets()[3]);
+    }
+
+    @Test
+    void shouldReadNewerPostsNearestFirst() throws Exception {
+        List<ArchivedPost> posts = posts(7);
+        PostArchiveService.EncodedSegment encoded = archiveService.encode(new ArchiveMonth(userId, MONTH), "key", posts);
+        ArchiveSegment segment = encoded.segment();
+        serve(encoded);
+
+        ArchivedPost cursorPost = posts.get(4);
+        PostCursor cursor = new PostCursor(cursorPost.scheduledAtUtc(), cursorPost.id(), PostCursor.Direction.PREVIOUS);
+        when(postRepository.findSegmentsAfter(userId, cursor.scheduledAt(), null)).thenReturn(Flux.just(segment));
+
+        List<UUID> ids = archiveService.findAfter(userId, PostStatus.published, cursor, null, 2)
+                .map(PostViewResponse::id)
+                .collectList()
+                .block();
+
+        // posts 3 to 0 are newer than the cursor; 3 failed
+        assertEquals(List.of(posts.get(2).id(), posts.get(1).id()), ids);
+        verify(storageService).download("key", 0, segment.blockOffsets()[2]);
+    }
+
+    @Test
+    void shouldMergeInOrderAndDropPostsSeenOnBothSides() {
+        PostViewResponse a = view(Instant.parse("2025-03-05T00:00:00Z"));
+        PostViewResponse b = view(Instant.parse("2025-03-04T00:00:00Z"));
+        PostViewResponse c = view(Instant.parse("2025-03-03T00:00:00Z"));
+
+        List<PostViewResponse> merged = PostArchiveService.merge(
+                List.of(a, c), List.of(b, c), PostArchiveService.LISTING_ORDER.reversed(), 10);
+
+        assertEquals(List.of(a, b, c), merged);
+    }
+
+    @Test
+    void shouldOrderIdsLikePostgres() {
+        UUID low = UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff");
+        UUID high = UUID.fromString("80000000-0000-0000-0000-000000000000");
+
+        assertTrue(PostArchiveService.UUID_ORDER.compare(low, high) < 0);
+    }
+
+    @Test
+    void shouldDeleteTheUploadWhenTheMoveConflicts() {
+        List<ArchivedPost> posts = posts(2);
+        when(postRepository.findArchivablePosts(eq(userId), eq(MONTH), any())).thenReturn(Flux.fromIterable(posts));
+        when(postRepository.findSegment(userId, MONTH)).thenReturn(Mono.empty());
+        when(objectKeyGenerator.archiveSegmentKey(userId, MONTH)).thenReturn("new-key");
+        when(postRepository.moveToSegment(any(), any(), eq(null))).thenReturn(Mono.just(false));
+
+        Mono<Integer> archived = archiveService.archiveMonth(new ArchiveMonth(userId, MONTH));
+
+        assertThrows(IllegalStateException.class, archived::block);
+        verify(storageService).upload(eq("new-key"), any(), eq(PostArchiveService.SEGMENT_CONTENT_TYPE));
+        verify(storageService).delete("new-key");
+    }
+
+    @Test
+    void shouldOnlyMergeWhileArchivingIsEnabled() {
+        assertFalse(archiveService.merges(null));
+
+        ReflectionTestUtils.setField(archiveService, "enabled", true);
+
+        assertTrue(archiveService.merges(null));
+        assertTrue(archiveService.merges(PostStatus.published));
+        assertFalse(archiveService.merges(PostStatus.scheduled));
+    }
+
+    @Test
+    void shouldAnswerFromTheCachedNewestArchivedPost() {
+        Instant newest = MONTH.plusSeconds(3600);
+        when(postRepository.findNewestArchivedAt(userId)).thenReturn(Mono.just(newest));
+
+        assertTrue(archiveService.hasArchivedSince(userId, null).block());
+        assertTrue(archiveService.hasArchivedSince(userId, newest).block());
+        assertFalse(archiveService.hasArchivedSince(userId, newest.plusSeconds(1)).block());
+
+        verify(postRepository, times(1)).findNewestArchivedAt(userId);
+    }
+
+    @Test
+    void shouldReportNothingArchivedForANewUser() {
+        when(postRepository.findNewestArchivedAt(userId)).thenReturn(Mono.empty());
+
+        assertFalse(archiveService.hasArchivedSince(userId, null).block());
+        assertFalse(archiveService.hasArchivedSince(userId, MONTH).block());
+        verify(postRepository, times(1)).findNewestArchivedAt(userId);
+    }
+
+    @Test
+    void shouldForgetTheNewestArchivedPostWhenASegmentIsWritten() {
+        List<ArchivedPost> posts = posts(2);
+        when(postRepository.findNewestArchivedAt(userId)).thenReturn(Mono.empty());
+        when(postRepository.findArchivablePosts(eq(userId), eq(MONTH), any())).thenReturn(Flux.fromIterable(posts));
+        when(postRepository.findSegment(userId, MONTH)).thenReturn(Mono.empty());
+        when(objectKeyGenerator.archiveSegmentKey(userId, MONTH)).thenReturn("new-key");
+        when(postRepository.moveToSegment(any(), any(), eq(null))).thenReturn(Mono.just(true));
+        assertFalse(archiveService.hasArchivedSince(userId, null).block());
+
+        assertEquals(2, archiveService.archiveMonth(new ArchiveMonth(userId, MONTH)).block());
+        when(postRepository.findNewestArchivedAt(userId)).thenReturn(Mono.just(posts.getFirst().scheduledAtUtc()));
+
+        assertTrue(archiveService.hasArchivedSince(userId, null).block());
+    }
+
+    @Test
+    void shouldForgetTheNewestArchivedPostOnAnotherNodesSegmentWrite() {
+        when(postRepository.findNewestArchivedAt(userId)).thenReturn(Mono.empty());
+        assertFalse(archiveService.hasArchivedSince(userId, null).block());
+
+        when(postRepository.findNewestArchivedAt(userId)).thenReturn(Mono.just(MONTH));
+        changes.tryEmitNext(new PostChangeEvent(UUID.randomUUID(), UUID.randomUUID(), PostStatus.published));
+        assertFalse(archiveService.hasArchivedSince(userId, null).block());
+
+        changes.tryEmitNext(new PostChangeEvent(userId));
+        assertTrue(archiveService.hasArchivedSince(userId, null).block());
+    }
+
+    @Test
+    void shouldNotTouchStorageWhenNothingIsDue() {
+        when(postRepository.findArchivablePosts(eq(userId), eq(MONTH), any())).thenReturn(Flux.empty());
+
+        assertEquals(0, archiveService.archiveMonth(new ArchiveMonth(userId, MONTH)).block());
+        verify(storageService, never()).upload(any(), any(), any());
+    }
+
+    private void serve(PostArchiveService.EncodedSegment encoded) {
+        byte[] content = encoded.content();
+        when(storageService.download(eq(encoded.segment().objectKey()), anyLong(), anyLong())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(1);
+            long to = invocation.getArgument(2);
+            return new ByteArrayInputStream(content, (int) from, (int) (to - from));
+        });
+    }
+
+    // Newest first, one a day; every third one failed
+    private List<ArchivedPost> posts(int count) {
+        List<ArchivedPost> posts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Instant at = MONTH.plusSeconds((20L - i) * 86_400);
+            posts.add(new ArchivedPost(UUID.randomUUID(), userId, UUID.randomUUID(), "X", "post " + i, List.of(),
+                    at, at, i % 3 == 0 && i > 0 ? PostStatus.failed : PostStatus.published,
+                    null, null, 0, 3, at, at, 2));
+        }
+        return posts;
+    }
+
+    private static PostViewResponse view(Instant at) {
+        return new PostViewResponse(UUID.randomUUID(), "post", PostStatus.published, at, List.of(), 0);
+    }
+}
@@ -0,0 +1,146 @@
+package com.flux.fluxproject.services;
+
+import com.flux.fluxproject.DatabaseTest;
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.CalendarDay;
+import com.flux.fluxproject.model.PostViewResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Calendar buckets as Postgres computes them, in Europe/Berlin around the
+ * end of summer time on 2030-10-27, when 03:00 CEST falls back to 02:00 CET
+ * at 01:00 UTC and the local day is 25 hours long. Fixed dates keep the
+ * daylight saving change in the window, so their months are created here.
+ */
+@Import(PostCalendarService.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class PostCalendarServiceQueryTest extends DatabaseTest {
+
+    private static final String BERLIN = "Europe/Berlin";
+
+    @Autowired
+    private PostCalendarService postCalendarService;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("SELECT posts_create_partitions('2030-10-01T00:00:00Z', '2030-11-30T00:00:00Z')")
+                .then()
+                .block();
+        userId = createUser();
+        createAccount(userId);
+    }
+
+    @Test
+    void shouldBucketPostsByLocalDayAcrossTheDaylightSavingChange() {
+        // 23:59:59 CEST on the 25th, just before the window opens
+        insertPost(userId, "before the window", "2030-10-25T21:59:59Z", "scheduled");
+        // 23:59:59 CEST on the 26th
+        insertPost(userId, "last of the 26th", "2030-10-26T21:59:59Z", "scheduled");
+        // Midnight on the 27th in Berlin, still the 26th in UTC
+        insertPost(userId, "first of the 27th", "2030-10-26T22:00:00Z", "scheduled");
+        // 02:30 twice: once in CEST, then again in CET after falling back
+        insertPost(userId, "02:30 CEST", "2030-10-27T00:30:00Z", "draft");
+        insertPost(userId, "02:30 CET", "2030-10-27T01:30:00Z", "published");
+        // 23:59:59 CET, the 25th hour of the 27th
+        insertPost(userId, "last of the 27th", "2030-10-27T22:59:59Z", "failed");
+        // Midnight on the 28th in Berlin
+        insertPost(userId, "first of the 28th", "2030-10-27T23:00:00Z", "scheduled");
+
+        List<CalendarDay> days = calendar(LocalDate.parse("2030-10-26"), LocalDate.parse("2030-10-29"));
+
+        assertEquals(List.of(LocalDate.parse("2030-10-26"), LocalDate.parse("2030-10-27"), LocalDate.parse("2030-10-28")),
+                days.stream().map(CalendarDay::date).toList());
+        assertEquals(List.of("last of the 26th"), contents(days.get(0)));
+        assertEquals(List.of("first of the 27th", "02:30 CEST", "02:30 CET", "last of the 27th"), contents(days.get(1)));
+        assertEquals(4, days.get(1).count());
+        assertEquals(List.of("first of the 28th"), contents(days.get(2)));
+    }
+
+    @Test
+    void shouldLeaveOutDeletedPostsAndOtherUsers() {
+        insertPost(userId, "kept", "2030-10-27T10:00:00Z", "scheduled");
+        UUID deleted = insertPost(userId, "deleted", "2030-10-27T11:00:00Z", "scheduled");
+        databaseClient.sql("UPDATE posts SET status = 'deleted', deleted_at_utc = now() WHERE id = :id")
+                .bind("id", deleted)
+                .then()
+                .block();
+        UUID other = createUser();
+        createAccount(other);
+        insertPost(other, "someone else's", "2030-10-27T10:00:00Z", "scheduled");
+
+        List<CalendarDay> days = calendar(LocalDate.parse("2030-10-27"), LocalDate.parse("2030-10-28"));
+
+        assertEquals(1, days.size());
+        assertEquals(List.of("kept"), contents(days.getFirst()));
+        assertEquals(1, days.getFirst().count());
+    }
+
+    @Test
+    void shouldParseTheAggregatedPosts() {
+        UUID postId = insertPost(userId, "with \"quotes\" and\nnewline", "2030-10-27T01:30:00.123456Z", "scheduled");
+        databaseClient.sql("UPDATE posts SET media_urls = ARRAY['posts/a.png', 'posts/b.png'] WHERE id = :id")
+                .bind("id", postId)
+                .then()
+                .block();
+        long version = databaseClient.sql("SELECT version FROM posts WHERE id = :id")
+                .bind("id", postId)
+                .map(row -> row.get("version", Long.class))
+                .one()
+                .block();
+
+        List<CalendarDay> days = calendar(LocalDate.parse("2030-10-27"), LocalDate.parse("2030-10-28"));
+
+        assertEquals(List.of(new PostViewResponse(postId, "with \"quotes\" and\nnewline", PostStatus.scheduled,
+                        Instant.parse("2030-10-27T01:30:00.123456Z"), List.of("posts/a.png", "posts/b.png"), version)),
+                days.getFirst().posts());
+    }
+
+    private List<CalendarDay> calendar(LocalDate from, LocalDate to) {
+        return postCalendarService.getCalendar(userId, from, to, BERLIN).collectList().block();
+    }
+
+    private static List<String> contents(CalendarDay day) {
+        return day.posts().stream().map(PostViewResponse::content).toList();
+    }
+
+    private void createAccount(UUID userId) {
+        databaseClient.sql("""
+                        INSERT INTO social_accounts (user_id, platform, platform_user_id, auth_data)
+                        VALUES (:userId, 'X', :userId::text, 'sealed')
+                        """)
+                .bind("userId", userId)
+                .then()
+                .block();
+    }
+
+    private UUID insertPost(UUID userId, String content, String scheduledAt, String status) {
+        return databaseClient.sql("""
+                        INSERT INTO posts (user_id, social_account_id, platform, content, scheduled_at_utc, status)
+                        SELECT :userId, id, 'X', :content, :scheduledAt, :status
+                        FROM social_accounts
+                        WHERE user_id = :userId
+                        RETURNING id
+                        """)
+                .bind("userId", userId)
+                .bind("content", content)
+                .bind("scheduledAt", Instant.parse(scheduledAt))
+                .bind("status", status)
+                .map(row -> row.get("id", UUID.class))
+                .one()
+                .block();
+    }
+}
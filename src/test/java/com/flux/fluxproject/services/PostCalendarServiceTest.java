@@ -0,0 +1,33 @@
+package com.flux.fluxproject.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PostCalendarServiceTest {
+
+    @Test
+    void shouldDefaultToUtc() {
+        assertEquals(ZoneId.of("UTC"), PostCalendarService.resolveZone(null));
+        assertEquals(ZoneId.of("UTC"), PostCalendarService.resolveZone("Z"));
+    }
+
+    @Test
+    void shouldAcceptRegionZones() {
+        assertEquals(ZoneId.of("Europe/Berlin"), PostCalendarService.resolveZone("Europe/Berlin"));
+    }
+
+    @Test
+    void shouldRejectOffsetsPostgresWouldInvert() {
+        assertThrows(IllegalArgumentException.class, () -> PostCalendarService.resolveZone("+02:00"));
+        assertThrows(IllegalArgumentException.class, () -> PostCalendarService.resolveZone("GMT+2"));
+    }
+
+    @Test
+    void shouldRejectUnknownZones() {
+        assertThrows(IllegalArgumentException.class, () -> PostCalendarService.resolveZone("Mars/Olympus"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.flux.fluxproject.services;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.PostChangeEvent;
+import com.flux.fluxproject.model.PostStatusEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostEventServiceTest {
+
+    private final Sinks.Many<PostChangeEvent> changes = Sinks.many().multicast().directBestEffort();
+    private final UUID userId = UUID.randomUUID();
+
+    private PostEventService service;
+
+    @BeforeEach
+    void setUp() {
+        PostChangeNotifier notifier = mock(PostChangeNotifier.class);
+        when(notifier.changes()).thenReturn(changes.asFlux());
+
+        service = new PostEventService(notifier);
+        ReflectionTestUtils.setField(service, "heartbeat", Duration.ofSeconds(15));
+        ReflectionTestUtils.setField(service, "bufferSize", 16);
+    }
+
+    @Test
+    void shouldStreamOnlyTheUsersPostWrites() {
+        UUID postId = UUID.randomUUID();
+
+        StepVerifier.create(service.stream(userId))
+                .then(() -> {
+                    changes.tryEmitNext(new PostChangeEvent(UUID.randomUUID(), UUID.randomUUID(), PostStatus.published));
+                    changes.tryEmitNext(new PostChangeEvent(UUID.randomUUID()));
+                    changes.tryEmitNext(new PostChangeEvent(userId, postId, PostStatus.publishing));
+                    changes.tryEmitNext(new PostChangeEvent(userId));
+                    changes.tryEmitNext(PostChangeEvent.RESYNC);
+                })
+                .assertNext(event -> {
+                    assertEquals("post-status", event.event());
+                    assertEquals(new PostStatusEvent(postId, PostStatus.publishing), event.data());
+                })
+                .assertNext(event -> assertEquals("resync", event.event()))
+                .assertNext(event -> assertEquals("resync", event.event()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldResyncTheUsersStreamWhenTheirPagesAreInvalidated() {
+        PostChangeNotifier notifier = mock(PostChangeNotifier.class);
+        when(notifier.changes()).thenReturn(changes.asFlux());
+        // Loops the broadcast back, as LISTEN/NOTIFY does on this node
+        when(notifier.publish(any())).thenAnswer(call ->
+                Mono.fromRunnable(() -> changes.tryEmitNext(call.getArgument(0))));
+        PostPageCache postPageCache = new PostPageCache(notifier, 100, Duration.ofMinutes(1));
+
+        StepVerifier.create(service.stream(userId))
+                .then(() -> {
+                    postPageCache.invalidate(UUID.randomUUID()).block();
+                    postPageCache.invalidate(userId).block();
+                })
+                .assertNext(event -> {
+                    assertEquals("resync", event.event());
+                    assertEquals(new PostStatusEvent(null, null), event.data());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldSendHeartbeatsWhileIdle() {
+        StepVerifier.withVirtualTime(() -> service.stream(userId))
+                .thenAwait(Duration.ofSeconds(30))
+                .assertNext(event -> assertEquals("heartbeat", event.comment()))
+                .assertNext(event -> assertEquals("heartbeat", event.comment()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldRoundTripNotificationPayloads() {
+        PostChangeEvent single = new PostChangeEvent(userId, UUID.randomUUID(), PostStatus.failed);
+        PostChangeEvent bulk = new PostChangeEvent(userId);
+
+        assertEquals(single, PostChangeNotifier.fromPayload(PostChangeNotifier.toPayload(single)));
+        assertEquals(bulk, PostChangeNotifier.fromPayload(PostChangeNotifier.toPayload(bulk)));
+        assertThrows(IllegalArgumentException.class, () -> PostChangeNotifier.fromPayload(userId + ",x"));
+    }
+}
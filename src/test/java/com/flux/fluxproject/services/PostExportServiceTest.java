@@ -0,0 +1,136 @@
+package com.flux.fluxproject.services;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.PostExportRow;
+import com.flux.fluxproject.repositories.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PostExportServiceTest {
+
+    private static final Instant AT = Instant.parse("2026-10-18T12:00:00Z");
+
+    private final UUID userId = UUID.randomUUID();
+
+    private PostRepository postRepository;
+    private PostExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        exportService = new PostExportService(postRepository);
+    }
+
+    @Test
+    void shouldLeavePlainValuesUnquoted() {
+        UUID id = UUID.randomUUID();
+        PostExportRow row = new PostExportRow(id, "X", "hello world", List.of("a.png", "b.png"),
+                PostStatus.published, AT, AT, AT, null);
+
+        assertEquals(id + ",X,hello world,a.png b.png,published," + AT + "," + AT + "," + AT + ",\n",
+                PostExportService.toCsvLine(row));
+    }
+
+    @Test
+    void shouldQuoteDelimitersQuotesAndLineBreaks() {
+        assertEquals("\"a, b\"", field(row("a, b"), 2));
+        assertEquals("\"say \"\"hi\"\"\"", field(row("say \"hi\""), 2));
+        assertEquals("\"line one\nline two\"", field(row("line one\nline two"), 2));
+        assertEquals("\"carriage\rreturn\"", field(row("carriage\rreturn"), 2));
+    }
+
+    @Test
+    void shouldWriteNullsAsEmptyFields() {
+        PostExportRow row = new PostExportRow(UUID.randomUUID(), "X", null, null, PostStatus.draft, AT, null, AT, null);
+
+        String[] fields = PostExportService.toCsvLine(row).stripTrailing().split(",", -1);
+
+        assertEquals(9, fields.length);
+        assertEquals("", fields[2]);
+        assertEquals("", fields[3]);
+        assertEquals("", fields[6]);
+        assertEquals("", fields[8]);
+    }
+
+    @Test
+    void shouldSkipNullMediaEntries() {
+        PostExportRow row = new PostExportRow(UUID.randomUUID(), "X", "x", Arrays.asList("a.png", null, "b.png"),
+                PostStatus.draft, AT, null, AT, null);
+
+        assertEquals("a.png b.png", PostExportService.toCsvLine(row).split(",", -1)[3]);
+    }
+
+    @Test
+    void shouldRejectAnEmptyOrInvertedWindowBeforeQuerying() {
+        StepVerifier.create(exportService.exportPostsAsCsv(userId, null, AT, AT))
+                .expectErrorSatisfies(e -> assertEquals(HttpStatus.BAD_REQUEST, ((ResponseStatusException) e).getStatusCode()))
+                .verify();
+        StepVerifier.create(exportService.exportPosts(userId, null, AT.plusSeconds(1), AT))
+                .expectError(ResponseStatusException.class)
+                .verify();
+
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void shouldStreamRowsUnderTheClientsDemand() {
+        AtomicInteger emitted = new AtomicInteger();
+        List<PostExportRow> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(row("post " + i));
+        }
+        when(postRepository.streamForExport(any(), any(), any(), any(), anyInt()))
+                .thenReturn(Flux.fromIterable(rows).doOnNext(row -> emitted.incrementAndGet()));
+
+        StepVerifier.create(exportService.exportPostsAsCsv(userId, null, null, AT), 3)
+                .expectNext(PostExportService.CSV_HEADER)
+                .expectNextCount(2)
+                .then(() -> assertEquals(2, emitted.get()))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(998)
+                .verifyComplete();
+    }
+
+    private static PostExportRow row(String content) {
+        return new PostExportRow(UUID.randomUUID(), "X", content, List.of(), PostStatus.scheduled, AT, null, AT, null);
+    }
+
+    // Splits on the commas that separate fields, i.e. those outside quotes
+    private static String field(PostExportRow row, int index) {
+        String line = PostExportService.toCsvLine(row);
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (char c : line.substring(0, line.length() - 1).toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+            }
+            if (c == ',' && !quoted) {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields.get(index);
+    }
+}
@@ -0,0 +1,94 @@
+package com.flux.fluxproject.services;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.CursorPageResponse;
+import com.flux.fluxproject.model.PostChangeEvent;
+import com.flux.fluxproject.model.PostViewResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostPageCacheTest {
+
+    private final Sinks.Many<PostChangeEvent> changes = Sinks.many().multicast().directBestEffort();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final UUID userId = UUID.randomUUID();
+
+    private PostChangeNotifier notifier;
+    private PostPageCache cache;
+
+    @BeforeEach
+    void setUp() {
+        notifier = mock(PostChangeNotifier.class);
+        when(notifier.changes()).thenReturn(changes.asFlux());
+        when(notifier.isListening()).thenReturn(true);
+        when(notifier.publish(any())).thenReturn(Mono.empty());
+
+        cache = new PostPageCache(notifier, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldServeRepeatedPollsFromCache() {
+        fetch(PostStatus.scheduled);
+        fetch(PostStatus.scheduled);
+        fetch(PostStatus.scheduled);
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void shouldReloadAfterLocalInvalidation() {
+        fetch(null);
+
+        Mono<Void> invalidation = cache.invalidate(userId);
+        fetch(null);
+        assertEquals(1, loads.get());
+
+        invalidation.block();
+        fetch(null);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldReloadAfterRemoteChangeOrResync() {
+        fetch(null);
+
+        changes.tryEmitNext(new PostChangeEvent(userId));
+        fetch(null);
+
+        changes.tryEmitNext(PostChangeEvent.RESYNC);
+        fetch(null);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void shouldBypassCacheWhileNotListening() {
+        when(notifier.isListening()).thenReturn(false);
+
+        fetch(null);
+        fetch(null);
+
+        assertEquals(2, loads.get());
+    }
+
+    private void fetch(PostStatus status) {
+        Supplier<Mono<CursorPageResponse<PostViewResponse>>> loader = () -> Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return new CursorPageResponse<>(List.of(), null, false);
+        });
+        cache.getFirstPage(userId, status, 20, loader).block();
+    }
+}
@@ -0,0 +1,105 @@
+package com.flux.fluxproject.services;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.BulkPostRequest;
+import com.flux.fluxproject.model.BulkPostResponse;
+import com.flux.fluxproject.model.PostChangeEvent;
+import com.flux.fluxproject.model.PostMutationResult;
+import com.flux.fluxproject.model.PostViewResponse;
+import com.flux.fluxproject.model.UpdatePostRequest;
+import com.flux.fluxproject.repositories.PostRepository;
+import com.flux.fluxproject.util.CursorUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostServiceMutationTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID postId = UUID.randomUUID();
+
+    private PostRepository postRepository;
+    private PostPageCache postPageCache;
+    private PostService postService;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        postPageCache = mock(PostPageCache.class);
+        when(postPageCache.invalidate(any(PostChangeEvent.class))).thenReturn(Mono.empty());
+
+        postService = new PostService(postRepository, mock(CursorUtil.class), postPageCache, mock(PostArchiveService.class));
+        ReflectionTestUtils.setField(postService, "bulkMaxIds", 1000);
+    }
+
+    @Test
+    void shouldInvalidateAndReturnTheUpdatedPost() {
+        PostViewResponse updated = new PostViewResponse(postId, "edited", PostStatus.scheduled, null, List.of(), 4);
+        when(postRepository.updateIfEditable(userId, postId, "edited", null, 3L))
+                .thenReturn(Mono.just(new PostMutationResult(PostMutationResult.Outcome.UPDATED, updated)));
+
+        PostViewResponse result = postService.updatePost(userId, postId, new UpdatePostRequest("edited", null), 3L).block();
+
+        assertEquals(updated, result);
+        verify(postPageCache).invalidate(new PostChangeEvent(userId, postId, PostStatus.scheduled));
+    }
+
+    @Test
+    void shouldMapRejectedMutationsToStatusCodes() {
+        assertEquals(HttpStatus.NOT_FOUND, deleteRejectedWith(PostMutationResult.Outcome.NOT_FOUND));
+        assertEquals(HttpStatus.FORBIDDEN, deleteRejectedWith(PostMutationResult.Outcome.FORBIDDEN));
+        assertEquals(HttpStatus.CONFLICT, deleteRejectedWith(PostMutationResult.Outcome.STATUS_CONFLICT));
+        assertEquals(HttpStatus.CONFLICT, deleteRejectedWith(PostMutationResult.Outcome.VERSION_CONFLICT));
+        verify(postPageCache, never()).invalidate(any(PostChangeEvent.class));
+    }
+
+    @Test
+    void shouldReportSkippedIdsAndInvalidateOnceForBulkCancel() {
+        UUID other = UUID.randomUUID();
+        BulkPostRequest request = new BulkPostRequest(List.of(postId, other), null, null, null, null);
+        when(postPageCache.invalidate(userId)).thenReturn(Mono.empty());
+        when(postRepository.cancelAllScheduled(userId, request)).thenReturn(Flux.just(postId));
+
+        BulkPostResponse response = postService.cancelPosts(userId, request).block();
+
+        assertEquals(new BulkPostResponse(List.of(postId), List.of(other)), response);
+        verify(postPageCache, times(1)).invalidate(userId);
+    }
+
+    @Test
+    void shouldRejectAmbiguousBulkSelections() {
+        Instant now = Instant.now();
+        BulkPostRequest both = new BulkPostRequest(List.of(postId), null, now, now.plusSeconds(60), Duration.ofHours(2));
+        BulkPostRequest noOffset = new BulkPostRequest(List.of(postId), null, null, null, null);
+
+        assertThrows(ResponseStatusException.class, () -> postService.reschedulePosts(userId, both).block());
+        assertThrows(ResponseStatusException.class, () -> postService.reschedulePosts(userId, noOffset).block());
+        verify(postRepository, never()).rescheduleAllEditable(any(), any(), any());
+    }
+
+    private HttpStatus deleteRejectedWith(PostMutationResult.Outcome outcome) {
+        when(postRepository.deleteIfEditable(userId, postId, 7L))
+                .thenReturn(Mono.just(new PostMutationResult(outcome, null)));
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> postService.deletePost(userId, postId, 7L).block());
+        return HttpStatus.valueOf(e.getStatusCode().value());
+    }
+}
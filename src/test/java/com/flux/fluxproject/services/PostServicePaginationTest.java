@@ -0,0 +1,162 @@
+package com.flux.fluxproject.services;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.CursorPageResponse;
+import com.flux.fluxproject.model.PostViewResponse;
+import com.flux.fluxproject.repositories.PostRepository;
+import com.flux.fluxproject.util.CursorUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Paging over an in-memory listing that seeks like the repository queries:
+ * forward pages newest first, previous pages nearest first.
+ */
+class PostServicePaginationTest {
+
+    private static final Instant START = Instant.parse("2026-10-01T00:00:00Z");
+
+    private final UUID userId = UUID.randomUUID();
+
+    /** Newest first, as the listing shows them. */
+    private final List<PostViewResponse> posts = new ArrayList<>();
+
+    private PostService postService;
+
+    @BeforeEach
+    void setUp() {
+        // Post i is scheduled i hours after START, so post 24 is the newest
+        for (int i = 1; i <= 24; i++) {
+            posts.add(new PostViewResponse(new UUID(0L, i), "post " + i, PostStatus.scheduled,
+                    START.plusSeconds(3600L * i), List.of(), 0));
+        }
+        posts.sort(PostArchiveService.LISTING_ORDER.reversed());
+
+        PostRepository postRepository = mock(PostRepository.class);
+        when(postRepository.findFirstPage(eq(userId), isNull(), anyInt()))
+                .thenAnswer(call -> Flux.fromIterable(posts).take(call.<Integer>getArgument(2)));
+        when(postRepository.findNextPage(eq(userId), isNull(), any(Instant.class), any(UUID.class), anyInt()))
+                .thenAnswer(call -> Flux.fromIterable(posts)
+                        .filter(post -> compare(post, call.getArgument(2), call.getArgument(3)) < 0)
+                        .take(call.<Integer>getArgument(4)));
+        when(postRepository.findPreviousPage(eq(userId), isNull(), any(Instant.class), any(UUID.class), anyInt()))
+                .thenAnswer(call -> Flux.fromIterable(posts.reversed())
+                        .filter(post -> compare(post, call.getArgument(2), call.getArgument(3)) > 0)
+                        .take(call.<Integer>getArgument(4)));
+
+        PostPageCache postPageCache = mock(PostPageCache.class);
+        when(postPageCache.getFirstPage(eq(userId), isNull(), anyInt(), any()))
+                .thenAnswer(call -> call.<Supplier<Mono<CursorPageResponse<PostViewResponse>>>>getArgument(3).get());
+
+        // Archiving is disabled (merges is false), so listings never read segments
+        PostArchiveService postArchiveService = mock(PostArchiveService.class);
+
+        CursorUtil cursorUtil = new CursorUtil(Base64.getEncoder().encodeToString(new byte[32]));
+        postService = new PostService(postRepository, cursorUtil, postPageCache, postArchiveService);
+    }
+
+    @Test
+    void firstPageShouldHaveNoPrevious() {
+        CursorPageResponse<PostViewResponse> first = page(null, null);
+
+        assertEquals(List.of(24, 23, 22, 21, 20), numbers(first));
+        assertTrue(first.hasNext());
+        assertFalse(first.hasPrevious());
+        assertNull(first.prevCursor());
+    }
+
+    @Test
+    void previousShouldReturnToThePageBefore() {
+        CursorPageResponse<PostViewResponse> second = page(page(null, null).nextCursor(), null);
+        CursorPageResponse<PostViewResponse> third = page(second.nextCursor(), null);
+
+        assertEquals(List.of(14, 13, 12, 11, 10), numbers(third));
+        assertTrue(third.hasPrevious());
+
+        CursorPageResponse<PostViewResponse> back = page(third.prevCursor(), null);
+
+        assertEquals(numbers(second), numbers(back));
+        assertTrue(back.hasPrevious());
+        assertTrue(back.hasNext());
+        assertEquals(numbers(third), numbers(page(back.nextCursor(), null)));
+    }
+
+    @Test
+    void jumpToTheTopShouldHaveNoPrevious() {
+        CursorPageResponse<PostViewResponse> jumped = page(null, START.plusSeconds(3600L * 30));
+
+        assertEquals(List.of(24, 23, 22, 21, 20), numbers(jumped));
+        assertFalse(jumped.hasPrevious());
+        assertNull(jumped.prevCursor());
+    }
+
+    @Test
+    void jumpShouldIncludePostsScheduledExactlyThere() {
+        CursorPageResponse<PostViewResponse> jumped = page(null, START.plusSeconds(3600L * 12));
+
+        assertEquals(List.of(12, 11, 10, 9, 8), numbers(jumped));
+        assertTrue(jumped.hasPrevious());
+    }
+
+    @Test
+    void previousShouldComeBackShortInsteadOfOverlapping() {
+        CursorPageResponse<PostViewResponse> jumped = page(null, START.plusSeconds(3600L * 22));
+        assertEquals(List.of(22, 21, 20, 19, 18), numbers(jumped));
+        assertTrue(jumped.hasPrevious());
+
+        CursorPageResponse<PostViewResponse> back = page(jumped.prevCursor(), null);
+
+        assertEquals(List.of(24, 23), numbers(back));
+        assertFalse(back.hasPrevious());
+        assertNull(back.prevCursor());
+        assertTrue(back.hasNext());
+        assertEquals(numbers(jumped), numbers(page(back.nextCursor(), null)));
+    }
+
+    @Test
+    void jumpPastTheEndShouldStillLeadBack() {
+        CursorPageResponse<PostViewResponse> jumped = page(null, START);
+
+        assertEquals(List.of(), numbers(jumped));
+        assertFalse(jumped.hasNext());
+        assertTrue(jumped.hasPrevious());
+        assertEquals(List.of(5, 4, 3, 2, 1), numbers(page(jumped.prevCursor(), null)));
+    }
+
+    private CursorPageResponse<PostViewResponse> page(String cursor, Instant at) {
+        return postService.getPosts(userId, 5, null, cursor, at).block();
+    }
+
+    private static List<Integer> numbers(CursorPageResponse<PostViewResponse> page) {
+        return page.content().stream()
+                .map(post -> (int) post.id().getLeastSignificantBits())
+                .toList();
+    }
+
+    private static int compare(PostViewResponse post, Instant scheduledAt, UUID id) {
+        return Comparator.comparing(PostViewResponse::scheduledAtUtc)
+                .thenComparing(PostViewResponse::id, PostArchiveService.UUID_ORDER)
+                .compare(post, new PostViewResponse(id, null, null, scheduledAt, null, 0));
+    }
+}
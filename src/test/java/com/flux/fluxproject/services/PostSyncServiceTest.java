@@ -0,0 +1,152 @@
+package com.flux.fluxproject.services;
+
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.model.ChangeCursor;
+import com.flux.fluxproject.model.PostChange;
+import com.flux.fluxproject.model.PostChangesResponse;
+import com.flux.fluxproject.model.PostViewResponse;
+import com.flux.fluxproject.repositories.PostRepository;
+import com.flux.fluxproject.util.CursorUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostSyncServiceTest {
+
+    private static final UUID NO_ID = new UUID(0L, 0L);
+
+    private final UUID userId = UUID.randomUUID();
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final CursorUtil cursorUtil = new CursorUtil(Base64.getEncoder().encodeToString(new byte[32]));
+
+    private PostSyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        syncService = new PostSyncService(postRepository, cursorUtil);
+        ReflectionTestUtils.setField(syncService, "settleLag", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(syncService, "tombstoneRetention", Duration.ofDays(30));
+    }
+
+    @Test
+    void shouldStartFromTheBeginningAndOnlyAskForSettledChanges() {
+        givenChanges();
+        ArgumentCaptor<Instant> settledBefore = ArgumentCaptor.forClass(Instant.class);
+
+        Instant before = Instant.now();
+        syncService.getChanges(userId, null, 10).block();
+        Instant after = Instant.now();
+
+        verify(postRepository).findChangesSince(eq(userId), eq(Instant.EPOCH), eq(NO_ID), settledBefore.capture(), eq(11));
+        assertFalse(settledBefore.getValue().isBefore(before.minusSeconds(5)));
+        assertFalse(settledBefore.getValue().isAfter(after.minusSeconds(5)));
+    }
+
+    @Test
+    void shouldSplitWritesFromTombstonesAndContinueAfterTheLastChange() {
+        Instant changedAt = now().minusSeconds(60);
+        PostChange written = written(changedAt);
+        PostChange removed = new PostChange(UUID.randomUUID(), changedAt.plusSeconds(1), null);
+        givenChanges(written, removed, written(changedAt.plusSeconds(2)));
+
+        PostChangesResponse response = syncService.getChanges(userId, null, 2).block();
+
+        assertEquals(List.of(written.post()), response.changed());
+        assertEquals(List.of(removed.id()), response.deleted());
+        assertTrue(response.hasMore());
+        assertEquals(new ChangeCursor(removed.changedAt(), removed.id()), cursorUtil.decodeChanges(response.nextToken()));
+    }
+
+    @Test
+    void shouldPassTheTokenPositionToTheRepository() {
+        ChangeCursor position = new ChangeCursor(Instant.parse("2026-10-18T08:00:00.123456Z"), UUID.randomUUID());
+        givenChanges();
+
+        syncService.getChanges(userId, cursorUtil.encodeChanges(position), 10).block();
+
+        verify(postRepository).findChangesSince(eq(userId), eq(position.changedAt()), eq(position.id()), any(), eq(11));
+    }
+
+    @Test
+    void shouldMoveACaughtUpTokenToTheSettlePoint() {
+        givenChanges(written(Instant.now().minus(Duration.ofDays(1))));
+        ChangeCursor old = new ChangeCursor(Instant.now().minus(Duration.ofDays(20)), UUID.randomUUID());
+
+        Instant before = Instant.now();
+        PostChangesResponse response = syncService.getChanges(userId, cursorUtil.encodeChanges(old), 10).block();
+
+        ChangeCursor next = cursorUtil.decodeChanges(response.nextToken());
+        assertFalse(response.hasMore());
+        assertEquals(NO_ID, next.id());
+        assertFalse(next.changedAt().isBefore(before.minusSeconds(6)));
+    }
+
+    @Test
+    void shouldKeepATokenThatIsAheadOfTheSettlePoint() {
+        givenChanges();
+        ChangeCursor recent = new ChangeCursor(now().minusSeconds(1), UUID.randomUUID());
+
+        PostChangesResponse response = syncService.getChanges(userId, cursorUtil.encodeChanges(recent), 10).block();
+
+        assertEquals(recent, cursorUtil.decodeChanges(response.nextToken()));
+    }
+
+    @Test
+    void shouldRejectATokenOlderThanTombstoneRetention() {
+        String expired = cursorUtil.encodeChanges(
+                new ChangeCursor(Instant.now().minus(Duration.ofDays(31)), UUID.randomUUID()));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> syncService.getChanges(userId, expired, 10).block());
+
+        assertEquals(HttpStatus.GONE, e.getStatusCode());
+        verify(postRepository, never()).findChangesSince(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void shouldRejectATokenThatIsNotAChangeToken() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> syncService.getChanges(userId, "not-a-token", 10).block());
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    private void givenChanges(PostChange... changes) {
+        when(postRepository.findChangesSince(eq(userId), any(), any(), any(), anyInt()))
+                .thenReturn(Flux.just(changes));
+    }
+
+    // Tokens carry microseconds, like the timestamps in the database
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private static PostChange written(Instant changedAt) {
+        UUID id = UUID.randomUUID();
+        return new PostChange(id, changedAt,
+                new PostViewResponse(id, "post", PostStatus.scheduled, changedAt.plusSeconds(3600), List.of(), 0));
+    }
+}
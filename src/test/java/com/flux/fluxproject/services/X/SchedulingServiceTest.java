@@ -0,0 +1,137 @@
+package com.flux.fluxproject.services.X;
+
+import com.flux.fluxproject.domain.Post;
+import com.flux.fluxproject.domain.PostStatus;
+import com.flux.fluxproject.domain.SocialAccount;
+import com.flux.fluxproject.model.ScheduledPostRequest;
+import com.flux.fluxproject.model.XPostResponse;
+import com.flux.fluxproject.repositories.PostRepository;
+import com.flux.fluxproject.repositories.SocialAccountRepository;
+import com.flux.fluxproject.services.PostPageCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SchedulingServiceTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final SocialAccountRepository socialAccountRepository = mock(SocialAccountRepository.class);
+    private final XPublishingService xPublishingService = mock(XPublishingService.class);
+
+    private SchedulingService schedulingService;
+
+    @BeforeEach
+    void setUp() {
+        PostPageCache postPageCache = mock(PostPageCache.class);
+        when(postPageCache.invalidate(any(Post.class))).thenReturn(Mono.empty());
+        when(socialAccountRepository.findByUserIdAndPlatform(userId, "X"))
+                .thenReturn(Mono.just(SocialAccount.builder().id(UUID.randomUUID()).userId(userId).build()));
+        when(xPublishingService.publishText(any(), any())).thenReturn(Mono.just(new XPostResponse()));
+        when(postRepository.markPublished(any(), any(), any()))
+                .thenAnswer(call -> Mono.just(post(call.getArgument(1))));
+
+        schedulingService = new SchedulingService(postRepository, socialAccountRepository, mock(XPostService.class),
+                xPublishingService, postPageCache);
+        ReflectionTestUtils.setField(schedulingService, "maxAhead", Duration.ofDays(365));
+        ReflectionTestUtils.setField(schedulingService, "claimWindow", Duration.ofDays(3));
+    }
+
+    @Test
+    void shouldRejectAMissingScheduleTime() {
+        assertBadRequest(request(null));
+    }
+
+    @Test
+    void shouldRejectScheduleTimesOutsideTheSchedulableRange() {
+        assertBadRequest(request(Instant.now().plus(Duration.ofDays(400))));
+        assertBadRequest(request(Instant.now().minus(Duration.ofDays(4))));
+        verify(postRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldMapARejectedInsertToBadRequest() {
+        when(postRepository.save(any())).thenReturn(Mono.error(new DataIntegrityViolationException("no partition")));
+
+        assertBadRequest(request(Instant.now().plus(Duration.ofDays(1))));
+    }
+
+    @Test
+    void shouldCatchUpFromTheOldestMissedPostInBatches() {
+        Instant oldest = Instant.now().minus(Duration.ofDays(10));
+        when(postRepository.findOldestDueBefore(any())).thenReturn(Mono.just(oldest));
+        when(postRepository.claimDuePosts(eq(oldest), anyInt()))
+                .thenReturn(Flux.just(post(oldest), post(oldest.plusSeconds(60))))
+                .thenReturn(Flux.just(post(oldest.plusSeconds(120))));
+
+        assertEquals(3L, schedulingService.catchUpMissedPosts(2).block());
+
+        verify(postRepository, times(2)).claimDuePosts(oldest, 2);
+        verify(postRepository).markPublished(any(), eq(oldest), any());
+        verify(postRepository).markPublished(any(), eq(oldest.plusSeconds(120)), any());
+    }
+
+    @Test
+    void shouldNotClaimWhenNothingFellBehind() {
+        when(postRepository.findOldestDueBefore(any())).thenReturn(Mono.empty());
+
+        assertEquals(0L, schedulingService.catchUpMissedPosts(2).block());
+
+        verify(postRepository, never()).claimDuePosts(any(), anyInt());
+    }
+
+    @Test
+    void shouldMarkFailuresByTheFullKey() {
+        Instant scheduledAt = Instant.now().minusSeconds(30);
+        when(postRepository.claimDuePosts(any(), anyInt())).thenReturn(Flux.just(post(scheduledAt)));
+        when(xPublishingService.publishText(any(), any())).thenReturn(Mono.error(new IllegalStateException("X is down")));
+        when(postRepository.markFailed(any(), any(), any())).thenReturn(Mono.just(post(scheduledAt)));
+
+        schedulingService.executePosting(15).blockLast();
+
+        verify(postRepository).markFailed(any(), eq(scheduledAt), eq("X is down"));
+    }
+
+    private void assertBadRequest(ScheduledPostRequest request) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> schedulingService.saveScheduledPost(request, userId).block());
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    private static ScheduledPostRequest request(Instant scheduledAt) {
+        ScheduledPostRequest request = new ScheduledPostRequest();
+        request.setText("hello");
+        request.setScheduledAtUtc(scheduledAt);
+        return request;
+    }
+
+    private Post post(Instant scheduledAt) {
+        return Post.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .content("hello")
+                .scheduledAtUtc(scheduledAt)
+                .status(PostStatus.publishing)
+                .build();
+    }
+}
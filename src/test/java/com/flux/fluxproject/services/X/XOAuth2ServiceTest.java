@@ -0,0 +1,63 @@
+package com.flux.fluxproject.services.X;
+
+import com.flux.fluxproject.domain.OAuth2AuthRequest;
+import com.flux.fluxproject.model.XTokenResponse;
+import com.flux.fluxproject.model.XUserInfo;
+import com.flux.fluxproject.repositories.OAuth2AuthRequestRepository;
+import com.flux.fluxproject.repositories.SocialAccountRepository;
+import com.flux.fluxproject.services.utils.EncryptionUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+class XOAuth2ServiceTest {
+
+    private SocialAccountRepository socialAccountRepository;
+    private XOAuth2Service service;
+
+    @BeforeEach
+    void setUp() {
+        EncryptionUtil encryptionUtil = mock(EncryptionUtil.class);
+        when(encryptionUtil.encrypt(any())).thenReturn(Mono.just("sealed"));
+        socialAccountRepository = mock(SocialAccountRepository.class);
+
+        service = spy(new XOAuth2Service(mock(WebClient.class), encryptionUtil, socialAccountRepository,
+                mock(OAuth2AuthRequestRepository.class)));
+        ReflectionTestUtils.setField(service, "frontendUrl", "https://flux.test");
+        XUserInfo userInfo = new XUserInfo();
+        userInfo.setId("42");
+        userInfo.setUsername("flux");
+        doReturn(Mono.just(userInfo)).when(service).getUserInfoFromX(anyString());
+    }
+
+    @Test
+    void shouldRefuseAnXAccountLinkedToAnotherUser() {
+        when(socialAccountRepository.upsertByPlatformUserId(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(Mono.empty());
+        OAuth2AuthRequest request = OAuth2AuthRequest.builder().userId(UUID.randomUUID()).build();
+        XTokenResponse token = new XTokenResponse();
+        token.setAccessToken("access");
+
+        ResponseEntity<Object> response = service.saveSocialAccount(request, token).block();
+
+        assertEquals(HttpStatus.FOUND, response.getStatusCode());
+        String location = response.getHeaders().getLocation().toString();
+        assertTrue(location.startsWith("https://flux.test/auth/error"), location);
+        assertTrue(location.contains("already%20connected%20to%20another"), location);
+    }
+}
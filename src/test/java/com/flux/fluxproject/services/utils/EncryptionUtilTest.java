@@ -0,0 +1,156 @@
+package com.flux.fluxproject.services.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flux.fluxproject.config.AesProperties;
+import com.flux.fluxproject.model.XAuthTokens;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EncryptionUtilTest {
+
+    private static final String KEY = "AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8=";
+    private static final String NEW_KEY = "ICEiIyQlJicoKSorLC0uLzAxMjM0NTY3ODk6Ozw9Pj8=";
+
+    private final EncryptionUtil encryptionUtil = new EncryptionUtil(new AesProperties(KEY, null, null));
+    private final XAuthTokens tokens = new XAuthTokens("access", "refresh", 7200L, "tweet.read tweet.write");
+
+    @Test
+    void shouldOpenWhatItSealed() throws Exception {
+        assertEquals(tokens, encryptionUtil.open(encryptionUtil.seal(tokens)));
+        assertEquals(tokens, encryptionUtil.encrypt(tokens).flatMap(encryptionUtil::decrypt).block());
+    }
+
+    @Test
+    void shouldUseAFreshIvEveryTime() throws Exception {
+        byte[] first = Base64.getDecoder().decode(encryptionUtil.seal(tokens));
+        byte[] second = Base64.getDecoder().decode(encryptionUtil.seal(tokens));
+
+        assertNotEquals(ByteBuffer.wrap(first, 0, 12), ByteBuffer.wrap(second, 0, 12));
+    }
+
+    @Test
+    void shouldOpenRowsSealedFromTheOldTokenMap() throws Exception {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("access_token", "access");
+        data.put("refresh_token", "refresh");
+        data.put("expires_in", 7200);
+        data.put("scope", "tweet.read tweet.write");
+        data.put("token_type", "bearer");
+
+        assertEquals(tokens, encryptionUtil.open(legacySeal(data)));
+    }
+
+    @Test
+    void shouldRejectTamperedData() throws Exception {
+        byte[] sealed = Base64.getDecoder().decode(encryptionUtil.seal(tokens));
+        sealed[sealed.length - 1] ^= 1;
+        String tampered = Base64.getEncoder().encodeToString(sealed);
+
+        assertThrows(GeneralSecurityException.class, () -> encryptionUtil.open(tampered));
+        assertThrows(GeneralSecurityException.class, () -> encryptionUtil.open(Base64.getEncoder().encodeToString(new byte[20])));
+    }
+
+    @Test
+    void shouldNotShareCipherStateAcrossThreads() throws Exception {
+        Thread[] threads = new Thread[4];
+        Throwable[] failures = new Throwable[threads.length];
+        for (int t = 0; t < threads.length; t++) {
+            int index = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 500; i++) {
+                        XAuthTokens own = new XAuthTokens("access-" + index + "-" + i, "refresh", 7200L, null);
+                        assertEquals(own, encryptionUtil.open(encryptionUtil.seal(own)));
+                    }
+                } catch (Throwable e) {
+                    failures[index] = e;
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertArrayEquals(new Throwable[threads.length], failures);
+    }
+
+    @Test
+    void shouldNameTheActiveKeyInWhatItSeals() throws Exception {
+        EncryptionUtil rotated = new EncryptionUtil(new AesProperties(KEY, Map.of("k2", NEW_KEY), "k2"));
+
+        String sealed = rotated.seal(tokens);
+
+        assertTrue(sealed.startsWith("v1:k2:"));
+        assertTrue(rotated.isSealedWithActiveKey(sealed));
+        assertEquals(tokens, rotated.open(sealed));
+        assertThrows(GeneralSecurityException.class, () -> encryptionUtil.open(sealed));
+    }
+
+    @Test
+    void shouldOpenValuesSealedWithAnyConfiguredKey() throws Exception {
+        EncryptionUtil before = new EncryptionUtil(new AesProperties(null, Map.of("k1", KEY), "k1"));
+        EncryptionUtil after = new EncryptionUtil(new AesProperties(KEY, Map.of("k1", KEY, "k2", NEW_KEY), "k2"));
+        String unversioned = encryptionUtil.seal(tokens);
+        String underK1 = before.seal(tokens);
+
+        assertEquals(tokens, after.open(unversioned));
+        assertEquals(tokens, after.open(underK1));
+        assertFalse(after.isSealedWithActiveKey(unversioned));
+        assertFalse(after.isSealedWithActiveKey(underK1));
+
+        String resealed = after.reseal(underK1);
+        assertTrue(after.isSealedWithActiveKey(resealed));
+        assertEquals(tokens, after.open(resealed));
+    }
+
+    @Test
+    void shouldRejectUnknownOrSwappedKeyIds() throws Exception {
+        // Same key bytes under two ids: only the authenticated header tells them apart
+        EncryptionUtil rotated = new EncryptionUtil(new AesProperties(null, Map.of("a", NEW_KEY, "b", NEW_KEY), "a"));
+        String sealed = rotated.seal(tokens);
+
+        assertThrows(GeneralSecurityException.class, () -> rotated.open("v1:b:" + sealed.substring("v1:a:".length())));
+        assertThrows(GeneralSecurityException.class, () -> rotated.open("v1:c:" + sealed.substring("v1:a:".length())));
+        assertThrows(GeneralSecurityException.class, () -> rotated.open(encryptionUtil.seal(tokens)));
+    }
+
+    @Test
+    void shouldRefuseInconsistentKeyConfiguration() {
+        assertThrows(IllegalStateException.class, () -> new EncryptionUtil(new AesProperties(null, null, null)));
+        assertThrows(IllegalStateException.class, () -> new EncryptionUtil(new AesProperties(KEY, Map.of("k1", KEY), "k2")));
+        assertThrows(IllegalStateException.class, () -> new EncryptionUtil(new AesProperties(null, Map.of("k:1", KEY), "k:1")));
+        assertThrows(IllegalStateException.class, () -> new EncryptionUtil(new AesProperties("AAEC", null, null)));
+        assertThrows(IllegalStateException.class, () -> new EncryptionUtil(new AesProperties(KEY, Map.of("k1", ""), "k1")));
+        assertEquals(null, new EncryptionUtil(new AesProperties(KEY, Map.of("k1", ""), "")).activeKeyId());
+    }
+
+    // How auth_data was sealed before XAuthTokens: a JSON map, fresh Cipher per call
+    private static String legacySeal(Map<String, Object> data) throws Exception {
+        byte[] json = new ObjectMapper().writeValueAsString(data).getBytes(StandardCharsets.UTF_8);
+        byte[] iv = new byte[12];
+        new SecureRandom().nextBytes(iv);
+
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(Base64.getDecoder().decode(KEY), "AES"), new GCMParameterSpec(128, iv));
+        byte[] cipherText = cipher.doFinal(json);
+
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + cipherText.length).put(iv).put(cipherText).array());
+    }
+}
@@ -4,6 +4,7 @@ import com.flux.fluxproject.storage.exception.UnsupportedContentTypeException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -42,6 +43,27 @@ class ObjectKeyGeneratorTest {
         );
     }
 
+    @Test
+    void shouldGenerateArchiveSegmentKeyUnderTheUsersMonth() {
+
+        UUID userId = UUID.randomUUID();
+
+        String key = generator.archiveSegmentKey(
+                userId,
+                Instant.parse("2025-03-01T00:00:00Z")
+        );
+
+        assertTrue(
+                key.startsWith(
+                        "archive/posts/" + userId + "/2025-03/"
+                )
+        );
+
+        assertTrue(
+                key.endsWith(".ndjson.gz")
+        );
+    }
+
     @Test
     void shouldThrowForUnsupportedContentType() {
         UUID postId = UUID.randomUUID();
@@ -6,24 +6,35 @@ import com.flux.fluxproject.storage.dto.PresignedUploadResponse;
 import com.flux.fluxproject.storage.service.S3StorageService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.S3Object;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
+import java.io.ByteArrayInputStream;
 import java.net.URL;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -117,4 +128,57 @@ class S3StorageServiceTest {
         verify(s3Presigner)
                 .presignPutObject(any(PutObjectPresignRequest.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldDeleteEveryPageUnderPrefix() {
+
+        given(s3Client.listObjectsV2(any(Consumer.class)))
+                .willReturn(
+                        ListObjectsV2Response.builder()
+                                .contents(
+                                        S3Object.builder().key("posts/p/original/a.jpg").build(),
+                                        S3Object.builder().key("posts/p/original/b.jpg").build()
+                                )
+                                .isTruncated(true)
+                                .nextContinuationToken("next")
+                                .build(),
+                        ListObjectsV2Response.builder()
+                                .contents(S3Object.builder().key("posts/p/original/c.png").build())
+                                .isTruncated(false)
+                                .build()
+                );
+
+        given(s3Client.deleteObjects(any(Consumer.class)))
+                .willReturn(DeleteObjectsResponse.builder().build());
+
+        long deleted = storageService.deletePrefix("posts/p/");
+
+        assertEquals(3, deleted);
+
+        verify(s3Client, times(2))
+                .deleteObjects(any(Consumer.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRequestOnlyTheByteRange() {
+
+        given(s3Properties.bucketName())
+                .willReturn("flux-media");
+
+        given(s3Client.getObject(any(Consumer.class)))
+                .willReturn(new ResponseInputStream<>(
+                        GetObjectResponse.builder().build(),
+                        AbortableInputStream.create(new ByteArrayInputStream(new byte[10]))));
+
+        storageService.download("archive/posts/u/2025-03/s.ndjson.gz", 100, 200);
+
+        ArgumentCaptor<Consumer<GetObjectRequest.Builder>> request = ArgumentCaptor.forClass(Consumer.class);
+        verify(s3Client).getObject(request.capture());
+        GetObjectRequest.Builder builder = GetObjectRequest.builder();
+        request.getValue().accept(builder);
+
+        assertEquals("bytes=100-199", builder.build().range());
+    }
+}
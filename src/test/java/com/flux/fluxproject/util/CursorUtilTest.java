@@ -0,0 +1,144 @@
+package com.flux.fluxproject.util;
+
+import com.flux.fluxproject.model.ChangeCursor;
+import com.flux.fluxproject.model.PostCursor;
+import com.flux.fluxproject.model.SearchCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CursorUtilTest {
+
+    private static final String HMAC_KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private CursorUtil cursorUtil;
+
+    @BeforeEach
+    void setUp() {
+        cursorUtil = new CursorUtil(HMAC_KEY);
+    }
+
+    @Test
+    void shouldRoundTripCursor() {
+        PostCursor cursor = new PostCursor(Instant.parse("2026-10-18T10:15:30.123456Z"), UUID.randomUUID());
+
+        String encoded = cursorUtil.encode(cursor);
+
+        assertEquals(51, encoded.length());
+        assertEquals(cursor, cursorUtil.decode(encoded));
+    }
+
+    @Test
+    void shouldRoundTripPreEpochAndMissingSchedule() {
+        UUID id = UUID.randomUUID();
+        PostCursor preEpoch = new PostCursor(Instant.parse("1969-12-31T23:59:59.999999Z"), id);
+
+        assertEquals(preEpoch, cursorUtil.decode(cursorUtil.encode(preEpoch)));
+        assertNull(cursorUtil.decode(cursorUtil.encode(new PostCursor(null, id))).scheduledAt());
+    }
+
+    @Test
+    void shouldRoundTripPreviousPageCursor() {
+        PostCursor cursor = new PostCursor(Instant.parse("2026-10-18T10:15:30.123456Z"), UUID.randomUUID(),
+                PostCursor.Direction.PREVIOUS);
+
+        String encoded = cursorUtil.encode(cursor);
+
+        assertEquals(cursor, cursorUtil.decode(encoded));
+        assertThrows(IllegalArgumentException.class, () -> cursorUtil.decodeSearch(encoded));
+    }
+
+    @Test
+    void shouldRejectTamperedCursor() {
+        String encoded = cursorUtil.encode(new PostCursor(Instant.now(), UUID.randomUUID()));
+        byte[] bytes = Base64.getUrlDecoder().decode(encoded);
+        bytes[5] ^= 1;
+
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        assertThrows(IllegalArgumentException.class, () -> cursorUtil.decode(tampered));
+    }
+
+    @Test
+    void shouldRejectCursorSignedWithAnotherKey() {
+        CursorUtil other = new CursorUtil(Base64.getEncoder().encodeToString(new byte[]{1, 2, 3, 4}));
+
+        String encoded = other.encode(new PostCursor(Instant.now(), UUID.randomUUID()));
+
+        assertThrows(IllegalArgumentException.class, () -> cursorUtil.decode(encoded));
+    }
+
+    @Test
+    void shouldRequireAnHmacKey() {
+        assertThrows(IllegalStateException.class, () -> new CursorUtil(""));
+        assertThrows(IllegalStateException.class, () -> new CursorUtil(null));
+    }
+
+    @Test
+    void shouldRejectMalformedInput() {
+        String legacyJsonCursor = Base64.getUrlEncoder()
+                .encodeToString("{\"scheduledAt\":\"2026-10-18T10:15:30Z\",\"id\":null}".getBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> cursorUtil.decode(legacyJsonCursor));
+        assertThrows(IllegalArgumentException.class, () -> cursorUtil.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> cursorUtil.decode("!".repeat(51)));
+    }
+
+    @Test
+    void shouldRoundTripSearchCursor() {
+        SearchCursor cursor = new SearchCursor(0.0607927f, UUID.randomUUID());
+
+        assertEquals(cursor, cursorUtil.decodeSearch(cursorUtil.encodeSearch(cursor)));
+    }
+
+    @Test
+    void shouldRoundTripChangeCursor() {
+        ChangeCursor cursor = new ChangeCursor(Instant.parse("2026-10-18T10:15:30.123456Z"), UUID.randomUUID());
+
+        String encoded = cursorUtil.encodeChanges(cursor);
+
+        assertEquals(cursor, cursorUtil.decodeChanges(encoded));
+        assertThrows(IllegalArgumentException.class, () -> cursorUtil.decode(encoded));
+    }
+
+    @Test
+    void shouldRejectCursorOfAnotherKind() {
+        String searchCursor = cursorUtil.encodeSearch(new SearchCursor(0.5f, UUID.randomUUID()));
+        String postCursor = cursorUtil.encode(new PostCursor(Instant.now(), UUID.randomUUID()));
+
+        assertThrows(IllegalArgumentException.class, () -> cursorUtil.decode(searchCursor));
+        assertThrows(IllegalArgumentException.class, () -> cursorUtil.decodeSearch(postCursor));
+    }
+
+    @Test
+    void shouldRejectVersionOneCursor() throws Exception {
+        byte[] key = {1, 2, 3, 4};
+        CursorUtil keyed = new CursorUtil(Base64.getEncoder().encodeToString(key));
+        PostCursor cursor = new PostCursor(Instant.parse("2026-10-18T10:15:30.123456Z"), UUID.randomUUID());
+
+        byte[] bytes = new byte[37];
+        ByteBuffer.wrap(bytes)
+                .put((byte) 1)
+                .putLong(1792318530123456L)
+                .putLong(cursor.id().getMostSignificantBits())
+                .putLong(cursor.id().getLeastSignificantBits());
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        mac.update(bytes, 0, 25);
+        System.arraycopy(mac.doFinal(), 0, bytes, 25, 12);
+
+        String legacy = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        assertThrows(IllegalArgumentException.class, () -> keyed.decode(legacy));
+    }
+}